@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidbenchmarks;
+
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import com.expediagroup.drsquidutils.scheduler.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks scheduling and cancelling a delay while many others are pending, on the timing wheel behind
+ * {@link DelayScheduler} and on the ScheduledThreadPoolExecutor it replaced. The pending delays are an hour long, so
+ * they stay pending for the whole run, and the measured ones are cancelled straight away, as a response would be if
+ * its client gave up.
+ *
+ * Run with "java -jar target/benchmarks.jar DelaySchedulerBenchmark".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DelaySchedulerBenchmark {
+
+    public enum Backend {
+        TIMING_WHEEL, SCHEDULED_EXECUTOR
+    }
+
+    private static final long PENDING_DELAY_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long MEASURED_DELAY_IN_MILLIS = 50;
+    private static final Runnable NOTHING = () -> { };
+
+    @Param({"TIMING_WHEEL", "SCHEDULED_EXECUTOR"})
+    public Backend backend;
+
+    @Param({"1000", "100000"})
+    public int pendingDelays;
+
+    private DelayScheduler delayScheduler;
+    private ScheduledThreadPoolExecutor executor;
+
+    @Setup
+    public void setUp() {
+
+        delayScheduler = new DelayScheduler();
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+
+        for (int i = 0; i < pendingDelays; i++) {
+            if (backend == Backend.TIMING_WHEEL) {
+                delayScheduler.schedule(NOTHING, PENDING_DELAY_IN_MILLIS + i);
+            } else {
+                executor.schedule(NOTHING, PENDING_DELAY_IN_MILLIS + i, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        delayScheduler.destroy();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        if (backend == Backend.TIMING_WHEEL) {
+            TimingWheel.Task task = delayScheduler.schedule(NOTHING, MEASURED_DELAY_IN_MILLIS);
+            return task.cancel();
+        }
+        ScheduledFuture<?> future = executor.schedule(NOTHING, MEASURED_DELAY_IN_MILLIS, TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidbenchmarks;
+
+import com.expediagroup.drsquidutils.client.DrSquidServiceClient;
+import com.expediagroup.drsquidutils.configretriever.ConfigRetriever;
+import com.expediagroup.drsquidutils.delaydriver.FixedDelayDriver;
+import com.expediagroup.drsquidutils.delaydriver.NormalDelayDriver;
+import com.expediagroup.drsquidutils.delaydriver.RangeDelayDriver;
+import com.expediagroup.drsquidutils.interceptor.DrSquidClientHttpResponse;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.model.DrSquidConfig;
+import com.expediagroup.drsquidutils.scheduler.PreciseWaiter;
+import com.expediagroup.drsquidutils.utils.RandomNumberGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks DrSquidInterceptor.intercept for each way a request can go through it, with a growing number of
+ * configured services. The downstream and Dr. Squid Service are stubbed, so only the interceptor itself is measured.
+ *
+ * Run with "java -jar target/benchmarks.jar DrSquidInterceptorBenchmark -prof gc" to also report allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DrSquidInterceptorBenchmark {
+
+    public enum Scenario {
+        DISABLED, NO_MATCH, METHOD_MISMATCH, BODY_KEYWORD_MISS, NON_SPOOFED_SUCCESS, SPOOFED_REDIRECT
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final String TARGET_URL = "https://target.example.com/api/v1/resource?id=42";
+    private static final String UNMATCHED_URL = "https://unmatched.example.org/api/v1/resource?id=42";
+
+    @Param({"DISABLED", "NO_MATCH", "METHOD_MISMATCH", "BODY_KEYWORD_MISS", "NON_SPOOFED_SUCCESS", "SPOOFED_REDIRECT"})
+    public Scenario scenario;
+
+    @Param({"1", "10", "100"})
+    public int serviceCount;
+
+    private DrSquidInterceptor drSquidInterceptor;
+    private HttpRequest request;
+    private byte[] body;
+    private ClientHttpRequestExecution execution;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        DrSquidConfig drSquidConfig = MAPPER.readValue(createConfig(), DrSquidConfig.class);
+        ClientHttpResponse response = new DrSquidClientHttpResponse(200, "OK");
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("drsquid.profile", "benchmark")
+                .withProperty("info.build.artifact", "benchmark-service")
+                .withProperty("drsquid.url", "http://localhost:8080/drsquid-service/v1/mock");
+
+        RandomNumberGenerator random = new RandomNumberGenerator(42);
+        RangeDelayDriver rangeDelayDriver = new RangeDelayDriver();
+        ReflectionTestUtils.setField(rangeDelayDriver, "random", random);
+        NormalDelayDriver normalDelayDriver = new NormalDelayDriver();
+        ReflectionTestUtils.setField(normalDelayDriver, "random", random);
+
+        drSquidInterceptor = new DrSquidInterceptor();
+        ReflectionTestUtils.setField(drSquidInterceptor, "environment", environment);
+        ReflectionTestUtils.setField(drSquidInterceptor, "random", random);
+        ReflectionTestUtils.setField(drSquidInterceptor, "fixedDelayDriver", new FixedDelayDriver());
+        ReflectionTestUtils.setField(drSquidInterceptor, "rangeDelayDriver", rangeDelayDriver);
+        ReflectionTestUtils.setField(drSquidInterceptor, "normalDelayDriver", normalDelayDriver);
+        ReflectionTestUtils.setField(drSquidInterceptor, "preciseWaiter", new PreciseWaiter());
+        ReflectionTestUtils.setField(drSquidInterceptor, "configRetriever", (ConfigRetriever) name -> drSquidConfig);
+        ReflectionTestUtils.setField(drSquidInterceptor, "drSquidServiceClient", new DrSquidServiceClient() {
+            @Override
+            public ClientHttpResponse execute(HttpRequest drSquidRequest, byte[] body) {
+                return response;
+            }
+        });
+
+        request = new BenchmarkRequest(scenario == Scenario.NO_MATCH ? UNMATCHED_URL : TARGET_URL, HttpMethod.GET);
+        body = "{\"query\": \"haystack\"}".getBytes(StandardCharsets.UTF_8);
+        execution = (interceptedRequest, interceptedBody) -> response;
+    }
+
+    /**
+     * Creates a config with unrelated services first, so that matching has to go past them, then the target service
+     * set up for the scenario.
+     */
+    private String createConfig() {
+
+        StringBuilder config = new StringBuilder();
+        config.append("enabled: ").append(scenario != Scenario.DISABLED).append('\n');
+        config.append("logging_level: NONE\n");
+        config.append("services:\n");
+
+        for (int i = 0; i < serviceCount - 1; i++) {
+            config.append("  - name: Service").append(i).append('\n');
+            config.append("    pattern: \"*service-").append(i).append(".example.com/api/*\"\n");
+            config.append("    enabled: true\n");
+            config.append("    logging_level: NONE\n");
+            appendBehavior(config, false);
+        }
+
+        config.append("  - name: Target\n");
+        config.append("    pattern: \"*target.example.com/api/*\"\n");
+        config.append("    enabled: true\n");
+        config.append("    logging_level: NONE\n");
+        if (scenario == Scenario.METHOD_MISMATCH) {
+            config.append("    method: POST\n");
+        }
+        if (scenario == Scenario.BODY_KEYWORD_MISS) {
+            config.append("    body_keyword: needle\n");
+        }
+        appendBehavior(config, scenario == Scenario.NON_SPOOFED_SUCCESS);
+
+        return config.toString();
+    }
+
+    private static void appendBehavior(StringBuilder config, boolean nonSpoofedSuccess) {
+
+        config.append("    behavior:\n");
+        if (nonSpoofedSuccess) {
+            config.append("      success:\n");
+            config.append("        percentage: 100\n");
+            config.append("        spoofed: false\n");
+            config.append("        mock_status_code: 200\n");
+            config.append("        delay:\n");
+            config.append("          type: fixed\n");
+            config.append("          fixed_value_in_msecs: 0\n");
+        } else {
+            config.append("      failure:\n");
+            config.append("        percentage: 100\n");
+            config.append("        mock_response_body: Failure Body\n");
+            config.append("        mock_status_code: 500\n");
+            config.append("        delay:\n");
+            config.append("          type: fixed\n");
+            config.append("          fixed_value_in_msecs: 0\n");
+        }
+    }
+
+    @Benchmark
+    public ClientHttpResponse intercept() throws IOException {
+        return drSquidInterceptor.intercept(request, body, execution);
+    }
+
+    /**
+     * Minimal outgoing request, so that creating it costs nothing and it opens no connection.
+     */
+    private static class BenchmarkRequest implements HttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        BenchmarkRequest(String url, HttpMethod method) {
+            this.uri = URI.create(url);
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
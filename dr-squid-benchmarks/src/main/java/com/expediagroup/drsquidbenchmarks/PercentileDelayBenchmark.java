@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidbenchmarks;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfDelayDriver;
+import com.expediagroup.drsquidutils.model.Delay;
+import com.expediagroup.drsquidutils.model.PercentileDelay;
+import com.expediagroup.drsquidutils.utils.RandomNumberGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drawing a percentile delay, and checks before measuring that the delays drawn match the configured
+ * percentiles: setup fails unless the share of draws below each configured delay is its percentile, within four
+ * standard errors of the sampling plus 1% of the tail.
+ *
+ * Run with "java -jar target/benchmarks.jar PercentileDelayBenchmark".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PercentileDelayBenchmark {
+
+    public enum Shape {
+        SERVICE("{type: percentile, p50: 40, p99: 400, p999: 2000}"),
+        FAST_WITH_RARE_STALLS("{type: percentile, min_value_in_msecs: 2, p50: 5, p90: 20, p99: 100, p9999: 5000}"),
+        FLAT("{type: percentile, min_value_in_msecs: 100, p50: 150, p75: 175, p95: 195, p999: 200}");
+
+        private final String config;
+
+        Shape(String config) {
+            this.config = config;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final int VERIFICATION_DRAWS = 10000000;
+    private static final double STANDARD_ERRORS = 4;
+    private static final double TAIL_TOLERANCE = 0.01;
+
+    @Param({"SERVICE", "FAST_WITH_RARE_STALLS", "FLAT"})
+    public Shape shape;
+
+    private InverseCdfDelayDriver inverseCdfDelayDriver;
+    private PercentileDelay percentileDelay;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        percentileDelay = (PercentileDelay) MAPPER.readValue(shape.config, Delay.class);
+        if (percentileDelay.getInverseCdfTable() == null) {
+            throw new IllegalStateException("Invalid percentile delay " + shape.config);
+        }
+
+        inverseCdfDelayDriver = new InverseCdfDelayDriver();
+        ReflectionTestUtils.setField(inverseCdfDelayDriver, "random", new RandomNumberGenerator(42));
+
+        verify();
+    }
+
+    /**
+     * Draws delays through the driver and compares their percentiles with the configured ones.
+     */
+    private void verify() {
+
+        long[] delays = new long[VERIFICATION_DRAWS];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = inverseCdfDelayDriver.getDelayTimeNanos(percentileDelay);
+        }
+        Arrays.sort(delays);
+
+        for (Map.Entry<String, Double> percentile : percentileDelay.getPercentiles().entrySet()) {
+            double probability = PercentileDelay.toProbability(percentile.getKey());
+            long expected = (long) (percentile.getValue() * 1000000);
+            long drawn = delays[(int) (probability * delays.length)];
+
+            double share = (double) countBelow(delays, expected) / delays.length;
+            double tolerance = STANDARD_ERRORS * Math.sqrt(probability * (1 - probability) / delays.length)
+                    + TAIL_TOLERANCE * (1 - probability);
+
+            System.out.printf("%s: configured %.3f ms, drawn %.3f ms, %.5f%% of draws below%n", percentile.getKey(), expected / 1e6, drawn / 1e6, share * 100);
+            if (Math.abs(share - probability) > tolerance) {
+                throw new IllegalStateException(String.format("%s of %s drawn as %.3f ms instead of %.3f ms",
+                        percentile.getKey(), shape, drawn / 1e6, expected / 1e6));
+            }
+        }
+    }
+
+    private static int countBelow(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Benchmark
+    public long getDelayTimeNanos() {
+        return inverseCdfDelayDriver.getDelayTimeNanos(percentileDelay);
+    }
+}
@@ -15,9 +15,10 @@
  */
 package com.expediagroup.service.drsquidservice.controller;
 
-import com.expediagroup.drsquidutils.configretriever.FileSystemConfigRetriever;
+import com.expediagroup.drsquidutils.configretriever.ConfigRetriever;
 import com.expediagroup.drsquidutils.delaydriver.DelayDriver;
 import com.expediagroup.drsquidutils.delaydriver.FixedDelayDriver;
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfDelayDriver;
 import com.expediagroup.drsquidutils.delaydriver.NormalDelayDriver;
 import com.expediagroup.drsquidutils.delaydriver.RangeDelayDriver;
 import com.expediagroup.drsquidutils.model.Behavior;
@@ -26,7 +27,12 @@ import com.expediagroup.drsquidutils.model.DrSquidConfig;
 import com.expediagroup.drsquidutils.model.Failure;
 import com.expediagroup.drsquidutils.model.Service;
 import com.expediagroup.drsquidutils.model.Success;
+import com.expediagroup.drsquidutils.model.Throttle;
 import com.expediagroup.drsquidutils.model.Timeout;
+import com.expediagroup.drsquidutils.model.TimeoutMode;
+import com.expediagroup.drsquidutils.response.MockResponse;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import com.expediagroup.service.drsquidservice.throttle.ThrottledResponseWriter;
 import io.swagger.annotations.Api;
 
 import org.slf4j.Logger;
@@ -37,13 +43,18 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -63,13 +74,22 @@ public class DrSquidController {
     protected static final String DELAY_FIXED = "fixed";
     protected static final String DELAY_RANGE = "range";
     protected static final String DELAY_NORMAL = "normal";
+    protected static final String DELAY_LOGNORMAL = "lognormal";
+    protected static final String DELAY_EXPONENTIAL = "exponential";
+    protected static final String DELAY_PARETO = "pareto";
+    protected static final String DELAY_MIXTURE = "mixture";
+    protected static final String DELAY_PERCENTILE = "percentile";
+    protected static final String DELAY_HISTOGRAM = "histogram";
     protected static final String CLIENT_NAME = "clientName";
     protected static final String DOWNSTREAM_PATTERN = "downstreamPattern";
     protected static final String PROFILE = "profile";
     protected static final String STATUS = "status";
+    protected static final String VARIANT = "variant";
+    protected static final String LEVEL = "level";
 
     private static final String SENDING_BACK_ERROR = " - Responding with 418 status code...";
     private static final int ERROR_RESPONSE_CODE = 418;
+    private static final long RESULT_TIMEOUT_MARGIN_IN_MILLIS = 10000;
 
     @Autowired
     private RangeDelayDriver rangeDelayDriver;
@@ -81,12 +101,65 @@ public class DrSquidController {
     private FixedDelayDriver fixedDelayDriver;
 
     @Autowired
-    private FileSystemConfigRetriever fileSystemConfigRetriever;
+    private InverseCdfDelayDriver inverseCdfDelayDriver;
+
+    @Autowired
+    private ConfigRetriever configRetriever;
+
+    @Autowired
+    private DelayScheduler delayScheduler;
+
+    @Autowired
+    private ThrottledResponseWriter throttledResponseWriter;
 
     protected ResponseEntity<String> createResponseEntity(int statusCode, String body) {
         return ResponseEntity.status(HttpStatus.valueOf(statusCode)).contentType(MediaType.TEXT_PLAIN).body(body);
     }
 
+    /**
+     * Responds straight away.
+     * @param response response to send
+     * @return result already holding the response
+     */
+    private DeferredResult<ResponseEntity<?>> respond(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+
+    /**
+     * Responds after a delay, without holding a request thread while waiting: the result is completed by the
+     * shared delay scheduler and the servlet container then sends it.
+     * @param delayInNanos time to wait before responding, in nanoseconds
+     * @param response response to send
+     * @return result which will hold the response after the delay
+     */
+    private DeferredResult<ResponseEntity<?>> respondAfter(long delayInNanos, ResponseEntity<?> response) {
+
+        if (delayInNanos <= 0) {
+            return respond(response);
+        }
+
+        // Time out well after the delay, so that the container's default async timeout never cuts a mocked delay short.
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(TimeUnit.NANOSECONDS.toMillis(delayInNanos) + RESULT_TIMEOUT_MARGIN_IN_MILLIS);
+        delayScheduler.schedule(() -> result.setResult(response), delayInNanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Responds after a delay, then sends the body at the throttle's rate. The response is written by the throttled
+     * response writer, which sets the result empty once the whole body has been sent.
+     * @param delayInNanos time to wait before sending the first byte, in nanoseconds
+     * @param mockResponse response to send
+     * @param throttle rate and chunk size to send the body with
+     * @return result set once the response has been sent
+     * @throws IOException if the response can't be written to
+     */
+    private DeferredResult<ResponseEntity<?>> respondThrottled(long delayInNanos, MockResponse mockResponse, Throttle throttle) throws IOException {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        return throttledResponseWriter.write(attributes.getRequest(), attributes.getResponse(), mockResponse, throttle, delayInNanos);
+    }
+
     /**
      * Decodes the request token into params
      * @param token token sent to dr-squid-service
@@ -109,12 +182,23 @@ public class DrSquidController {
         return paramMap;
     }
 
+    /**
+     * Gets the time to sleep given a delay configuration, multiplied by the behavior's schedule.
+     * @param delay delay configuration
+     * @param delayMultiplier multiplier for the level of the schedule
+     * @return time to sleep in nanoseconds
+     */
+    private long getTimeToSleep(Delay delay, double delayMultiplier) {
+        long timeToSleep = getTimeToSleep(delay);
+        return (delayMultiplier == 1) ? timeToSleep : Math.round(timeToSleep * delayMultiplier);
+    }
+
     /**
      * Gets the time to sleep given a delay configuration.
      * @param delay delay configuration
-     * @return time to sleep
+     * @return time to sleep in nanoseconds
      */
-    private int getTimeToSleep(Delay delay) {
+    private long getTimeToSleep(Delay delay) {
 
         String type = delay.getType();
         DelayDriver delayDriver;
@@ -128,88 +212,128 @@ public class DrSquidController {
             case DELAY_NORMAL:
                 delayDriver = normalDelayDriver;
                 break;
+            case DELAY_LOGNORMAL:
+            case DELAY_EXPONENTIAL:
+            case DELAY_PARETO:
+            case DELAY_MIXTURE:
+            case DELAY_PERCENTILE:
+            case DELAY_HISTOGRAM:
+                delayDriver = inverseCdfDelayDriver;
+                break;
             default:
                 LOGGER.warn("Configuration not setup properly. Unsupported delay type \"{}\" - Setting time to sleep to 0...", type);
                 return 0;
         }
 
-        return delayDriver.getDelayTime(delay);
+        return delayDriver.getDelayTimeNanos(delay);
     }
 
-    private ResponseEntity<String> createSuccessResponse(Success success) {
+    private DeferredResult<ResponseEntity<?>> createSuccessResponse(Success success, double delayMultiplier) throws IOException {
 
         // Check spoofed
         if (!success.isSpoofed()) {
             String errorMessage = "Success is spoofed, and yet dr-squid-service was still called";
             LOGGER.error(errorMessage + SENDING_BACK_ERROR);
-            return createResponseEntity(ERROR_RESPONSE_CODE, errorMessage);
+            return respond(createResponseEntity(ERROR_RESPONSE_CODE, errorMessage));
         }
 
-        // Get mock status code and response body
-        int mockStatusCode = success.getMockStatusCode();
-        String mockReponseBody = success.getMockResponseBody();
-        if (mockReponseBody == null) {
+        // Get the mock response, encoded when the config was loaded
+        MockResponse mockResponse = success.getMockResponse();
+        if (success.getMockResponseBody() == null && success.getMockResponseFile() == null && success.getMockResponseGenerator() == null) {
             LOGGER.warn("No mock response body in configuration, setting to empty body...");
-            mockReponseBody = "";
         }
 
-        int timeToSleep = getTimeToSleep(success.getDelay());
-
-        LOGGER.info("Mocking success scenario waiting {} ms then responding with {} status code with body: \"{}\"", new Object[]{timeToSleep, mockStatusCode, mockReponseBody});
+        long timeToSleep = getTimeToSleep(success.getDelay(), delayMultiplier);
 
-        try {
-            Thread.sleep(timeToSleep);
-        } catch (InterruptedException e) {
-            LOGGER.error("InterruptedException during sleep" + SENDING_BACK_ERROR, e);
-            return createResponseEntity(ERROR_RESPONSE_CODE, e.getMessage());
+        Throttle throttle = success.getThrottle();
+        if (throttle != null && throttle.isValid()) {
+            LOGGER.info("Mocking success scenario waiting {} ms then responding with {} status code with {} byte body at {} bytes/sec", new Object[]{timeToSleep / 1e6, mockResponse.getStatusCode(), mockResponse.getContentLength(), throttle.getBytesPerSec()});
+            return respondThrottled(timeToSleep, mockResponse, throttle);
         }
 
-        return createResponseEntity(mockStatusCode, mockReponseBody);
+        LOGGER.info("Mocking success scenario waiting {} ms then responding with {} status code with {} byte body", new Object[]{timeToSleep / 1e6, mockResponse.getStatusCode(), mockResponse.getContentLength()});
+
+        return respondAfter(timeToSleep, mockResponse.getResponseEntity());
     }
 
-    private ResponseEntity<String> createFailureResponse(Failure failure) {
+    /**
+     * Gets the failure variant the interceptor drew. Tokens without a variant are for the first failure.
+     * @param behavior behavior of the target service
+     * @param variant index of the failure variant from the token, may be null
+     * @return the failure, or null if there isn't one for the variant
+     */
+    private Failure getFailureVariant(Behavior behavior, String variant) {
 
-        // Get mock status code and response body
-        int mockStatusCode = failure.getMockStatusCode();
-        String mockReponseBody = failure.getMockResponseBody();
-        if (mockReponseBody == null) {
-            LOGGER.warn("No mock response body in configuration, setting to empty body...");
-            mockReponseBody = "";
+        List<Failure> failures = behavior.getFailures();
+        int index;
+        try {
+            index = (variant == null) ? 0 : Integer.parseInt(variant);
+        } catch (NumberFormatException e) {
+            return null;
         }
 
-        int timeToSleep = getTimeToSleep(failure.getDelay());
+        return (index >= 0 && index < failures.size()) ? failures.get(index) : null;
+    }
 
-        LOGGER.info("Mocking failure scenario waiting {} ms then responding with {} status code with body: \"{}\"", new Object[]{timeToSleep, mockStatusCode, mockReponseBody});
+    /**
+     * Gets the level of the behavior's schedule the interceptor drew the outcome at, so that the delay follows the
+     * same level. Tokens without a level follow the schedule on dr-squid-service's own clock, if there is one.
+     * @param behavior behavior of the target service
+     * @param level level of the schedule from the token, may be null
+     * @return the level, or -1 if it isn't valid for the behavior
+     */
+    private int getLevel(Behavior behavior, String level) {
 
+        if (level == null) {
+            return behavior.getLevel();
+        }
+        int index;
         try {
-            Thread.sleep(timeToSleep);
-        } catch (InterruptedException e) {
-            LOGGER.error("InterruptedException during sleep" + SENDING_BACK_ERROR, e);
-            return createResponseEntity(ERROR_RESPONSE_CODE, e.getMessage());
+            index = Integer.parseInt(level);
+        } catch (NumberFormatException e) {
+            return -1;
         }
 
-        return createResponseEntity(mockStatusCode, mockReponseBody);
+        return (index >= 0 && index < behavior.getLevelCount()) ? index : -1;
     }
 
-    private ResponseEntity<String> createTimeoutResponse(Timeout timeout) {
+    private DeferredResult<ResponseEntity<?>> createFailureResponse(Failure failure, double delayMultiplier) throws IOException {
+
+        // Get the mock response, encoded when the config was loaded
+        MockResponse mockResponse = failure.getMockResponse();
+        if (failure.getMockResponseBody() == null && failure.getMockResponseFile() == null && failure.getMockResponseGenerator() == null) {
+            LOGGER.warn("No mock response body in configuration, setting to empty body...");
+        }
 
-        int timeToSleep = getTimeToSleep(timeout.getDelay());
+        long timeToSleep = getTimeToSleep(failure.getDelay(), delayMultiplier);
 
-        LOGGER.info("Mocking timeout scenario waiting {} ms then responding", timeToSleep);
+        Throttle throttle = failure.getThrottle();
+        if (throttle != null && throttle.isValid()) {
+            LOGGER.info("Mocking failure scenario waiting {} ms then responding with {} status code with {} byte body at {} bytes/sec", new Object[]{timeToSleep / 1e6, mockResponse.getStatusCode(), mockResponse.getContentLength(), throttle.getBytesPerSec()});
+            return respondThrottled(timeToSleep, mockResponse, throttle);
+        }
 
-        try {
-            Thread.sleep(timeToSleep);
-        } catch (InterruptedException e) {
-            LOGGER.error("InterruptedException during sleep" + SENDING_BACK_ERROR, e);
-            return createResponseEntity(ERROR_RESPONSE_CODE, e.getMessage());
+        LOGGER.info("Mocking failure scenario waiting {} ms then responding with {} status code with {} byte body", new Object[]{timeToSleep / 1e6, mockResponse.getStatusCode(), mockResponse.getContentLength()});
+
+        return respondAfter(timeToSleep, mockResponse.getResponseEntity());
+    }
+
+    private DeferredResult<ResponseEntity<?>> createTimeoutResponse(Timeout timeout, double delayMultiplier) {
+
+        long timeToSleep = getTimeToSleep(timeout.getDelay(), delayMultiplier);
+
+        if (timeout.getMode() != TimeoutMode.RESPOND) {
+            LOGGER.warn("Timeout mode {} is handled by the timeout server, which the client isn't configured to call - responding with 500 status code instead", timeout.getMode());
         }
 
-        return createResponseEntity(500, "");
+        LOGGER.info("Mocking timeout scenario waiting {} ms then responding", timeToSleep / 1e6);
+
+        return respondAfter(timeToSleep, MockResponse.TIMEOUT.getResponseEntity());
     }
 
     @ResponseBody
     @RequestMapping(value="/mock", method= RequestMethod.GET)
-    public ResponseEntity<String> mockDownstreamGet(@RequestParam("token") String token) throws InterruptedException {
+    public DeferredResult<ResponseEntity<?>> mockDownstreamGet(@RequestParam("token") String token) {
 
         try {
 
@@ -218,7 +342,7 @@ public class DrSquidController {
             if (paramMap == null) {
                 String message = "Bad token!";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
             String clientName = paramMap.get(CLIENT_NAME);
             String downstreamPattern = paramMap.get(DOWNSTREAM_PATTERN);
@@ -227,25 +351,25 @@ public class DrSquidController {
             if (clientName == null || downstreamPattern == null || profile == null || status == null) {
                 String message = "Bad token!";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
             // Get the Dr. Squid configuration for the client and profile
             String configName = new StringJoiner(".").add("drsquid").add(clientName).add(profile).toString();
 
             // Check configuration exists
-            DrSquidConfig drSquidConfig = fileSystemConfigRetriever.getConfig(configName);
+            DrSquidConfig drSquidConfig = configRetriever.getConfig(configName);
             if (drSquidConfig == null) {
                 String message = "DrSquid configuration \"" + configName + "\" is missing";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
             // Check Dr. Squid is enabled
             if (!drSquidConfig.isEnabled()) {
                 String message = "DrSquid is not enabled for client name \"" + clientName + "\" in profile \"" + profile + "\"";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
             // Check services exist
@@ -253,7 +377,7 @@ public class DrSquidController {
             if (services == null) {
                 String message = "No services defined in configuration \"" + configName + "\"";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
             // Get target service
@@ -269,7 +393,7 @@ public class DrSquidController {
             if (targetService == null) {
                 String message = "No service in configuration \"" + configName + "\" has the requested pattern \"" + downstreamPattern + "\"";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
             // Check target service is enabled
@@ -277,7 +401,7 @@ public class DrSquidController {
             if (!targetService.isEnabled()) {
                 String message = "Target service \"" + targetServiceName + "\" not enabled in configuration \"" + configName + "\"";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
             // Check target service's behavior
@@ -285,22 +409,37 @@ public class DrSquidController {
             if (behavior == null) {
                 String message = "No behavior defined for service \"" + targetServiceName + "\" in configuration \"" + configName + "\"";
                 LOGGER.error(message + SENDING_BACK_ERROR);
-                return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
+            }
+
+            // Check the level of the behavior's schedule
+            int level = getLevel(behavior, paramMap.get(LEVEL));
+            if (level < 0) {
+                String message = "Unsupported schedule level \"" + paramMap.get(LEVEL) + "\" for service \"" + targetServiceName + "\" in configuration \"" + configName + "\"";
+                LOGGER.error(message + SENDING_BACK_ERROR);
+                return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
+            double delayMultiplier = behavior.getDelayMultiplier(level);
 
             LOGGER.info("Emulating {} scenario for service \"{}\" in configuration \"{}\"", new Object[]{status, targetServiceName, configName});
 
             switch (status) {
                 case SUCCESS_FIELD:
-                    return createSuccessResponse(behavior.getSuccess());
+                    return createSuccessResponse(behavior.getSuccess(), delayMultiplier);
                 case FAILURE_FIELD:
-                    return createFailureResponse(behavior.getFailure());
+                    Failure failure = getFailureVariant(behavior, paramMap.get(VARIANT));
+                    if (failure == null) {
+                        String message = "Unsupported failure variant \"" + paramMap.get(VARIANT) + "\" for service \"" + targetServiceName + "\" in configuration \"" + configName + "\"";
+                        LOGGER.error(message + SENDING_BACK_ERROR);
+                        return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
+                    }
+                    return createFailureResponse(failure, delayMultiplier);
                 case TIMEOUT_FIELD:
-                    return createTimeoutResponse(behavior.getTimeout());
+                    return createTimeoutResponse(behavior.getTimeout(), delayMultiplier);
                 default:
                     String message = "Unsupported status type \"" + status + "\" for service \"" + targetServiceName + "\" in configuration \"" + configName + "\"";
                     LOGGER.error(message + SENDING_BACK_ERROR);
-                    return createResponseEntity(ERROR_RESPONSE_CODE, message);
+                    return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
             }
 
         } catch (Exception e) {
@@ -308,13 +447,13 @@ public class DrSquidController {
             // Unknown issue with configuration
             String message = "Unknown issue with configuration of Dr. Squid";
             LOGGER.error(message + SENDING_BACK_ERROR, e);
-            return createResponseEntity(ERROR_RESPONSE_CODE, message);
+            return respond(createResponseEntity(ERROR_RESPONSE_CODE, message));
         }
     }
 
     @ResponseBody
     @RequestMapping(value="/mock", method= RequestMethod.POST)
-    public ResponseEntity<String> mockDownstreamPost(@RequestParam("token") String token) throws InterruptedException {
+    public DeferredResult<ResponseEntity<?>> mockDownstreamPost(@RequestParam("token") String token) {
         return mockDownstreamGet(token);
     }
 
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.converter;
+
+import com.expediagroup.drsquidutils.response.MockResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+
+/**
+ * Writes mock responses whose body is a memory-mapped file or generated. Mapped bodies go from the mapped pages to
+ * the response through a small buffer and generated ones are written chunk by chunk, so neither is ever loaded onto
+ * the heap. Picked up by Spring Boot, ahead of the default converters, because it is a bean.
+ *
+ * When Tomcat supports sendfile for the request, a file body isn't written at all: the file is handed to Tomcat, which
+ * has the kernel copy it straight from the page cache to the socket once the response is complete.
+ */
+@Component
+public class MockResponseHttpMessageConverter extends AbstractHttpMessageConverter<MockResponse> {
+
+    // Request attributes of Tomcat's sendfile support, as used by its DefaultServlet.
+    protected static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    protected static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    protected static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    protected static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    public MockResponseHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MockResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected MockResponse readInternal(Class<? extends MockResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Mock responses are only ever written.", inputMessage);
+    }
+
+    @Override
+    protected MediaType getDefaultContentType(MockResponse mockResponse) {
+        return mockResponse.getHeaders().getContentType();
+    }
+
+    @Override
+    protected Long getContentLength(MockResponse mockResponse, MediaType contentType) {
+        return mockResponse.getContentLength();
+    }
+
+    @Override
+    protected void writeInternal(MockResponse mockResponse, HttpOutputMessage outputMessage) throws IOException {
+        if (mockResponse.getFile() != null && sendFile(mockResponse)) {
+            return;
+        }
+        mockResponse.writeBody(outputMessage.getBody());
+    }
+
+    /**
+     * Hands the file body of a mock response to Tomcat, if it supports sendfile for the current request.
+     * @param mockResponse mock response whose body is a file
+     * @return true if Tomcat sends the body, false if it has to be written
+     */
+    private boolean sendFile(MockResponse mockResponse) {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return false;
+        }
+
+        attributes.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, mockResponse.getFile().toAbsolutePath().toString(), RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(SENDFILE_START_ATTRIBUTE, 0L, RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(SENDFILE_END_ATTRIBUTE, mockResponse.getContentLength(), RequestAttributes.SCOPE_REQUEST);
+        return true;
+    }
+}
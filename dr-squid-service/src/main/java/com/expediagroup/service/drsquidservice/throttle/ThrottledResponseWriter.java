@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.throttle;
+
+import com.expediagroup.drsquidutils.model.Throttle;
+import com.expediagroup.drsquidutils.response.MockResponse;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends mock responses at a throttled rate: the headers and first chunk go once the delay is over, then the rest of
+ * the body follows at the throttle's rate. Writes are non-blocking and paced by the {@link DelayScheduler}, so
+ * thousands of slow responses don't need a thread each.
+ *
+ * The response is written under a deferred result which Spring's async request handling manages, so its timeouts
+ * and errors go through Spring as usual. Writing starts once Spring has put the request in async mode, and the
+ * result is set empty once the body has been sent, as there is nothing left for Spring to write.
+ */
+@Component
+public class ThrottledResponseWriter {
+
+    private static final long TIMEOUT_MARGIN_IN_MILLIS = 10000;
+
+    @Autowired
+    private DelayScheduler delayScheduler;
+
+    /**
+     * Prepares a response, to be sent once the returned result is handed to Spring by the handler.
+     * @param request request being answered
+     * @param response response to send
+     * @param mockResponse status, headers and body to send
+     * @param throttle rate and chunk size to send the body with
+     * @param delayInNanos time to wait before sending the first byte, in nanoseconds
+     * @return result to return from the handler, set empty once the body has been sent
+     * @throws IOException if the response can't be written to
+     */
+    public DeferredResult<ResponseEntity<?>> write(HttpServletRequest request, HttpServletResponse response, MockResponse mockResponse, Throttle throttle, long delayInNanos) throws IOException {
+
+        long firstByteNanos = System.nanoTime() + delayInNanos;
+
+        // Time out well after the transfer should be over, so that the async timeout never cuts it short.
+        long durationInNanos = delayInNanos + throttle.getTransferTimeNanos(mockResponse.getContentLength());
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(TimeUnit.NANOSECONDS.toMillis(durationInNanos) + TIMEOUT_MARGIN_IN_MILLIS);
+
+        response.setStatus(mockResponse.getStatusCode());
+        mockResponse.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+
+        ServletOutputStream outputStream = response.getOutputStream();
+        ThrottledWriteListener writeListener = new ThrottledWriteListener(outputStream, mockResponse.openBody(), throttle.getChunkSizeInBytes(),
+                throttle.getBytesPerSec(), firstByteNanos, delayScheduler, () -> result.setResult(null));
+
+        // The response has been started, so a timeout or error only stops sending it, rather than sending another.
+        result.onTimeout(() -> writeListener.onError(new TimeoutException("The async request timed out.")));
+        result.onError(writeListener::onError);
+
+        // Non-blocking writes need the request in async mode, which Spring only starts once the handler returns.
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(ThrottledResponseWriter.class.getName(), new DeferredResultProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest webRequest, DeferredResult<T> deferredResult) {
+                if (deferredResult == result) {
+                    outputStream.setWriteListener(writeListener);
+                }
+            }
+        });
+        return result;
+    }
+}
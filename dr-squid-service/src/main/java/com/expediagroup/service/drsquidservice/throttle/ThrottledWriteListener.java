@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.throttle;
+
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a body in chunks at a fixed rate with non-blocking writes. Chunks are written while the connection can take
+ * them and they are due; when the next one isn't due yet, writing resumes from the delay scheduler, and when the
+ * connection is full, from the container once it drains. No thread is held in between.
+ *
+ * The container buffers what is written, 8KB for Tomcat, so each chunk is flushed as soon as the connection is ready
+ * for it: otherwise small chunks would go out in bursts of a whole buffer. The headers are flushed on their own once
+ * the first byte is due, so they are sent on time even if the body takes a while to read.
+ *
+ * Only one of those ever resumes writing at a time, but they are different threads, so writing is synchronized.
+ */
+public class ThrottledWriteListener implements WriteListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThrottledWriteListener.class);
+
+    private final ServletOutputStream outputStream;
+    private final InputStream body;
+    private final byte[] chunk;
+    private final double nanosPerByte;
+    private final long firstByteNanos;
+    private final DelayScheduler delayScheduler;
+    private final Runnable onComplete;
+
+    private long sent;
+    private boolean committed;
+    private boolean unflushed;
+    private boolean done;
+
+    /**
+     * @param outputStream non-blocking stream of the response
+     * @param body stream of the body to send, closed once sent
+     * @param chunkSize size of each write in bytes
+     * @param bytesPerSec rate to send the body at
+     * @param firstByteNanos time to send the first chunk at, from {@link System#nanoTime()}
+     * @param delayScheduler scheduler to resume writing on once the next chunk is due
+     * @param onComplete called once, when the body has been sent or sending it failed
+     */
+    public ThrottledWriteListener(ServletOutputStream outputStream, InputStream body, int chunkSize, long bytesPerSec,
+                                  long firstByteNanos, DelayScheduler delayScheduler, Runnable onComplete) {
+        this.outputStream = outputStream;
+        this.body = body;
+        this.chunk = new byte[chunkSize];
+        this.nanosPerByte = (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSec;
+        this.firstByteNanos = firstByteNanos;
+        this.delayScheduler = delayScheduler;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public synchronized void onWritePossible() throws IOException {
+
+        while (!done && outputStream.isReady()) {
+
+            // Only flushed once the connection is ready again, as flushing a stream which isn't ready fails.
+            if (unflushed) {
+                unflushed = false;
+                outputStream.flush();
+                continue;
+            }
+
+            long wait = firstByteNanos + (long) (sent * nanosPerByte) - System.nanoTime();
+            if (wait > 0) {
+                delayScheduler.schedule(this::resume, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            // Flushing before any body commits the headers.
+            if (!committed) {
+                committed = true;
+                unflushed = true;
+                continue;
+            }
+
+            int read = body.read(chunk);
+            if (read < 0) {
+                finish();
+                return;
+            }
+            outputStream.write(chunk, 0, read);
+            sent += read;
+            unflushed = true;
+        }
+        // Not ready, so the container calls back once the connection drains.
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        LOGGER.warn("Stopped sending a throttled body after {} bytes: {}", sent, throwable.getMessage());
+        finish();
+    }
+
+    public synchronized long getSent() {
+        return sent;
+    }
+
+    private void resume() {
+        try {
+            onWritePossible();
+        } catch (IOException e) {
+            onError(e);
+        }
+    }
+
+    private void finish() {
+
+        if (done) {
+            return;
+        }
+        done = true;
+        try {
+            body.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close a throttled body: {}", e.getMessage());
+        }
+        onComplete.run();
+    }
+}
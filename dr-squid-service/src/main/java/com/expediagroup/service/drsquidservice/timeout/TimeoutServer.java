@@ -0,0 +1,429 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.timeout;
+
+import com.expediagroup.drsquidutils.model.TimeoutMode;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP server for timeouts which don't respond: it hangs, closes, resets or stalls connections as the token of each
+ * request says. Servlet containers always answer a request somehow, so these are handled on their own port, below HTTP.
+ *
+ * One selector thread serves every connection, and delays are waited out on the {@link DelayScheduler}, which hands
+ * the close, reset or stall back to the selector thread. A held connection costs a socket and a few bytes, not a thread.
+ * Once the maximum number of connections is held, the oldest is closed for each new one.
+ *
+ * drsquid.timeout-server.port - port to listen on, the server isn't started if it isn't set
+ * drsquid.timeout-server.address - address to listen on, defaults to server.address, or every address if neither is set
+ * drsquid.timeout-server.backlog - maximum number of connections waiting to be accepted, defaults to 100
+ * drsquid.timeout-server.max-connections - maximum number of connections held, defaults to 10000
+ */
+@Component
+public class TimeoutServer implements InitializingBean, DisposableBean, Runnable {
+
+    public static final String PORT_PROPERTY = "drsquid.timeout-server.port";
+    public static final String ADDRESS_PROPERTY = "drsquid.timeout-server.address";
+    public static final String BACKLOG_PROPERTY = "drsquid.timeout-server.backlog";
+    public static final String MAX_CONNECTIONS_PROPERTY = "drsquid.timeout-server.max-connections";
+    private static final String SERVER_ADDRESS_PROPERTY = "server.address";
+    private static final int DEFAULT_BACKLOG = 100;
+    private static final int DEFAULT_MAX_CONNECTIONS = 10000;
+    protected static final String MODE = "mode";
+    protected static final String DELAY_IN_NANOS = "delayInNanos";
+    protected static final String STALL_AFTER_BYTES = "stallAfterBytes";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeoutServer.class);
+    private static final String TOKEN_PARAM = "token=";
+    private static final int MAX_REQUEST_LINE_LENGTH = 8192;
+    private static final byte FILLER = ' ';
+    private static final String STALL_HEADERS = "HTTP/1.1 200 OK\r\n"
+            + "Content-Type: text/plain;charset=UTF-8\r\n"
+            + "Transfer-Encoding: chunked\r\n"
+            + "\r\n";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private DelayScheduler delayScheduler;
+
+    // Closes, resets and stalls which are due, run on the selector thread.
+    private final Queue<Runnable> dueActions = new ConcurrentLinkedQueue<>();
+
+    // Only used on the selector thread.
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+
+    // Connections held, oldest first. Only used on the selector thread.
+    private final LinkedHashSet<SelectionKey> connections = new LinkedHashSet<>();
+
+    private int backlog = DEFAULT_BACKLOG;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+    public TimeoutServer() {
+    }
+
+    public TimeoutServer(DelayScheduler delayScheduler) {
+        this.delayScheduler = delayScheduler;
+    }
+
+    public TimeoutServer(DelayScheduler delayScheduler, int backlog, int maxConnections) {
+        this.delayScheduler = delayScheduler;
+        this.backlog = backlog;
+        this.maxConnections = maxConnections;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        Integer port = environment.getProperty(PORT_PROPERTY, Integer.class);
+        if (port != null) {
+            backlog = environment.getProperty(BACKLOG_PROPERTY, Integer.class, DEFAULT_BACKLOG);
+            maxConnections = environment.getProperty(MAX_CONNECTIONS_PROPERTY, Integer.class, DEFAULT_MAX_CONNECTIONS);
+            start(environment.getProperty(ADDRESS_PROPERTY, environment.getProperty(SERVER_ADDRESS_PROPERTY)), port);
+        }
+    }
+
+    /**
+     * Starts listening on every address.
+     * @param port port to listen on, 0 for any free port
+     * @throws IOException if the port can't be listened on
+     */
+    public void start(int port) throws IOException {
+        start(null, port);
+    }
+
+    /**
+     * Starts listening.
+     * @param address host name or IP address to listen on, null for every address
+     * @param port port to listen on, 0 for any free port
+     * @throws IOException if the address can't be resolved or the port can't be listened on
+     */
+    public void start(String address, int port) throws IOException {
+
+        InetSocketAddress socketAddress = (address == null) ? new InetSocketAddress(port) : new InetSocketAddress(InetAddress.getByName(address), port);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(socketAddress, backlog);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        thread = new Thread(this, "drsquid-timeout-server");
+        thread.setDaemon(true);
+        thread.start();
+
+        LOGGER.info("Timeout server listening on {}:{}", getAddress().getHostAddress(), getPort());
+    }
+
+    public InetAddress getAddress() {
+        return serverChannel.socket().getInetAddress();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (thread != null) {
+            running = false;
+            selector.wakeup();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Override
+    public void run() {
+
+        try {
+            while (running) {
+                selector.select();
+
+                Runnable action;
+                while ((action = dueActions.poll()) != null) {
+                    action.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isValid() && key.isAcceptable()) {
+                            accept();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(key);
+                        }
+                    } catch (IOException e) {
+                        LOGGER.debug("Closing timeout connection: {}", e.getMessage());
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Timeout server stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not close the timeout server selector: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        if (connections.size() >= maxConnections) {
+            LOGGER.debug("Holding the maximum of {} timeout connections - closing the oldest...", maxConnections);
+            close(connections.iterator().next());
+        }
+        channel.configureBlocking(false);
+        connections.add(channel.register(selector, SelectionKey.OP_READ, new TimeoutConnection()));
+    }
+
+    /**
+     * Reads the request line, then keeps reading and discarding whatever else the client sends, to notice when it
+     * gives up and closes the connection.
+     */
+    private void read(SelectionKey key) throws IOException {
+
+        TimeoutConnection connection = (TimeoutConnection) key.attachment();
+        readBuffer.clear();
+        if (((SocketChannel) key.channel()).read(readBuffer) < 0) {
+            close(key);
+            return;
+        }
+        if (connection.requestLine == null) {
+            return;
+        }
+
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            char c = (char) readBuffer.get();
+            if (c == '\n') {
+                String requestLine = connection.requestLine.toString();
+                connection.requestLine = null;
+                timeOut(key, requestLine);
+                return;
+            }
+            if (connection.requestLine.length() == MAX_REQUEST_LINE_LENGTH) {
+                LOGGER.error("Request line longer than {} characters - closing the connection...", MAX_REQUEST_LINE_LENGTH);
+                close(key);
+                return;
+            }
+            connection.requestLine.append(c);
+        }
+    }
+
+    private void write(SelectionKey key) throws IOException {
+
+        TimeoutConnection connection = (TimeoutConnection) key.attachment();
+        ((SocketChannel) key.channel()).write(connection.output);
+        if (connection.output.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            connection.output = null;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void timeOut(SelectionKey key, String requestLine) throws IOException {
+
+        Map<String, String> paramMap = decodeToken(requestLine);
+        TimeoutMode mode;
+        long delayInNanos;
+        int stallAfterBytes;
+        try {
+            mode = TimeoutMode.valueOf(paramMap.get(MODE));
+            delayInNanos = Long.parseLong(paramMap.get(DELAY_IN_NANOS));
+            stallAfterBytes = Integer.parseInt(paramMap.getOrDefault(STALL_AFTER_BYTES, "0"));
+        } catch (RuntimeException e) {
+            LOGGER.error("Bad token in request \"{}\" - closing the connection...", requestLine);
+            close(key);
+            return;
+        }
+
+        LOGGER.info("Mocking {} timeout scenario waiting {} ms", mode, delayInNanos / 1e6);
+
+        switch (mode) {
+            case HANG:
+                // Nothing to do until the client closes the connection.
+                break;
+            case CLOSE:
+                runAfter(delayInNanos, () -> close(key));
+                break;
+            case RESET:
+                runAfter(delayInNanos, () -> reset(key));
+                break;
+            case STALL:
+                runAfter(delayInNanos, () -> stall(key, stallAfterBytes));
+                break;
+            default:
+                LOGGER.error("Timeout mode {} is answered by dr-squid-service, not the timeout server - closing the connection...", mode);
+                close(key);
+        }
+    }
+
+    private void runAfter(long delayInNanos, Runnable action) {
+
+        if (delayInNanos <= 0) {
+            action.run();
+            return;
+        }
+        delayScheduler.schedule(() -> {
+            dueActions.add(action);
+            selector.wakeup();
+        }, delayInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void reset(SelectionKey key) {
+
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            // Closing with a zero linger time sends a reset instead of the normal close handshake.
+            ((SocketChannel) key.channel()).setOption(StandardSocketOptions.SO_LINGER, 0);
+        } catch (IOException e) {
+            LOGGER.warn("Could not reset a timeout connection, closing it instead: {}", e.getMessage());
+        }
+        close(key);
+    }
+
+    private void stall(SelectionKey key, int stallAfterBytes) {
+
+        if (!key.isValid()) {
+            return;
+        }
+
+        // A chunked body never says how long it is, so the client waits for the next chunk until it gives up.
+        byte[] headers = STALL_HEADERS.getBytes(StandardCharsets.US_ASCII);
+        byte[] chunkHeader = (stallAfterBytes == 0) ? new byte[0] : (Integer.toHexString(stallAfterBytes) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer output = ByteBuffer.allocate(headers.length + chunkHeader.length + stallAfterBytes);
+        output.put(headers).put(chunkHeader);
+        byte[] body = new byte[stallAfterBytes];
+        Arrays.fill(body, FILLER);
+        output.put(body).flip();
+
+        ((TimeoutConnection) key.attachment()).output = output;
+        try {
+            write(key);
+        } catch (IOException e) {
+            LOGGER.debug("Closing timeout connection: {}", e.getMessage());
+            close(key);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        connections.remove(key);
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close timeout connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes the token in a request line, e.g. "GET /?token=... HTTP/1.1", into params.
+     * @param requestLine first line of the request
+     * @return map of query param name to query param value, empty if there's no valid token
+     */
+    protected static Map<String, String> decodeToken(String requestLine) {
+
+        Map<String, String> paramMap = new HashMap<>();
+        int start = requestLine.indexOf(TOKEN_PARAM);
+        if (start < 0) {
+            return paramMap;
+        }
+        start += TOKEN_PARAM.length();
+        int end = start;
+        while (end < requestLine.length() && requestLine.charAt(end) != '&' && requestLine.charAt(end) != ' ') {
+            end++;
+        }
+
+        try {
+            // Tokens are sent unencoded, so a "+" is part of the token rather than an encoded space.
+            String token = URLDecoder.decode(requestLine.substring(start, end).replace("+", "%2B"), StandardCharsets.UTF_8.name());
+            String decodedString = new String(Base64.getDecoder().decode(token), StandardCharsets.UTF_8);
+            for (String param : decodedString.split("&")) {
+                String[] paramKVP = param.split("=");
+                if (paramKVP.length == 2) {
+                    paramMap.put(paramKVP[0], paramKVP[1]);
+                }
+            }
+        } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+            LOGGER.error("Could not decode token: {}", e.getMessage());
+        }
+        return paramMap;
+    }
+
+    /**
+     * State of a connection, only used on the selector thread.
+     */
+    private static class TimeoutConnection {
+
+        // The request line read so far, null once it has been read.
+        private StringBuilder requestLine = new StringBuilder();
+
+        // Output still to be written, null if there's none.
+        private ByteBuffer output;
+    }
+}
@@ -15,14 +15,59 @@
  */
 package com.expediagroup.service.drsquidservice.controller;
 
+import com.expediagroup.drsquidutils.configretriever.ConfigRetriever;
+import com.expediagroup.drsquidutils.configretriever.FileSystemConfigRetriever;
+import com.expediagroup.drsquidutils.delaydriver.FixedDelayDriver;
+import com.expediagroup.drsquidutils.delaydriver.NormalDelayDriver;
+import com.expediagroup.drsquidutils.model.Behavior;
+import com.expediagroup.drsquidutils.model.DrSquidConfig;
+import com.expediagroup.drsquidutils.model.FixedDelay;
+import com.expediagroup.drsquidutils.model.Service;
+import com.expediagroup.drsquidutils.model.Success;
+import com.expediagroup.drsquidutils.model.Throttle;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import com.expediagroup.service.drsquidservice.throttle.ThrottledResponseWriter;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DrSquidControllerTest {
@@ -31,6 +76,83 @@ public class DrSquidControllerTest {
     @InjectMocks
     DrSquidController drSquidController = new DrSquidController();
 
+    @Mock
+    private ConfigRetriever configRetriever;
+
+    @Mock
+    private FixedDelayDriver fixedDelayDriver;
+
+    @Mock
+    private NormalDelayDriver normalDelayDriver;
+
+    @Spy
+    private DelayScheduler delayScheduler = new DelayScheduler();
+
+    @Spy
+    private ThrottledResponseWriter throttledResponseWriter = new ThrottledResponseWriter();
+
+    @After
+    public void tearDown() {
+        delayScheduler.destroy();
+    }
+
+    /**
+     * MockHttpServletResponse doesn't take write listeners, so this wraps its output stream with one which does, and
+     * which is always ready, calling the listener back on a thread of its own like a servlet container would.
+     */
+    private static class NonBlockingResponseFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+
+            ServletOutputStream delegate = response.getOutputStream();
+            ServletOutputStream outputStream = new ServletOutputStream() {
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    new Thread(() -> {
+                        try {
+                            writeListener.onWritePossible();
+                        } catch (IOException e) {
+                            writeListener.onError(e);
+                        }
+                    }).start();
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    delegate.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    delegate.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    delegate.flush();
+                }
+            };
+            filterChain.doFilter(request, new HttpServletResponseWrapper(response) {
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return outputStream;
+                }
+            });
+        }
+    }
+
+    private String encodeToken(String status) {
+        String token = "clientName=service&downstreamPattern=http://www.testservice.com/*&profile=test&status=" + status;
+        return new String(Base64.getEncoder().encode(token.getBytes()), Charset.forName("UTF-8"));
+    }
+
     @Test
     public void shouldReturnSuccessResponseBody(){
         //arrange
@@ -57,6 +179,90 @@ public class DrSquidControllerTest {
         Assert.assertEquals(responseEntity.getStatusCodeValue(),500);
     }
 
+    @Test
+    public void shouldRespondAfterDelayWithoutBlocking() throws Exception {
+        //arrange
+        when(configRetriever.getConfig(eq("drsquid.service.test"))).thenReturn(new FileSystemConfigRetriever().getConfig("drsquid.service.test"));
+        when(fixedDelayDriver.getDelayTimeNanos(any())).thenReturn(TimeUnit.MILLISECONDS.toNanos(500));
+        //act
+        long start = System.currentTimeMillis();
+        DeferredResult<ResponseEntity<?>> result = drSquidController.mockDownstreamGet(encodeToken("timeout"));
+        long returnedAfter = System.currentTimeMillis() - start;
+        //assert
+        Assert.assertTrue(returnedAfter < 500);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.hasResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start >= 500);
+        Assert.assertEquals(500, ((ResponseEntity<?>) result.getResult()).getStatusCodeValue());
+    }
 
-}
+    @Test
+    public void shouldRespondImmediatelyToBadToken() {
+        //arrange
+        String token = new String(Base64.getEncoder().encode("clientName=service".getBytes()), Charset.forName("UTF-8"));
+        //act
+        DeferredResult<ResponseEntity<?>> result = drSquidController.mockDownstreamGet(token);
+        //assert
+        Assert.assertTrue(result.hasResult());
+        Assert.assertEquals(418, ((ResponseEntity<?>) result.getResult()).getStatusCodeValue());
+    }
+
+    @Test
+    public void shouldRespondImmediatelyToUnknownFailureVariant() {
+        //arrange
+        when(configRetriever.getConfig(eq("drsquid.service.test"))).thenReturn(new FileSystemConfigRetriever().getConfig("drsquid.service.test"));
+        //act
+        DeferredResult<ResponseEntity<?>> result = drSquidController.mockDownstreamGet(encodeToken("failure&variant=1"));
+        //assert
+        Assert.assertTrue(result.hasResult());
+        Assert.assertEquals(418, ((ResponseEntity<?>) result.getResult()).getStatusCodeValue());
+    }
+
+    @Test
+    public void shouldRespondImmediatelyToUnknownScheduleLevel() {
+        //arrange
+        when(configRetriever.getConfig(eq("drsquid.service.test"))).thenReturn(new FileSystemConfigRetriever().getConfig("drsquid.service.test"));
+        //act
+        DeferredResult<ResponseEntity<?>> result = drSquidController.mockDownstreamGet(encodeToken("timeout&level=1"));
+        //assert
+        Assert.assertTrue(result.hasResult());
+        Assert.assertEquals(418, ((ResponseEntity<?>) result.getResult()).getStatusCodeValue());
+    }
+
+    @Test
+    public void shouldRespondWithPreEncodedSuccessBody() {
+        //arrange
+        when(configRetriever.getConfig(eq("drsquid.service.test"))).thenReturn(new FileSystemConfigRetriever().getConfig("drsquid.service.test"));
+        //act
+        ResponseEntity<?> first = (ResponseEntity<?>) drSquidController.mockDownstreamGet(encodeToken("success")).getResult();
+        ResponseEntity<?> second = (ResponseEntity<?>) drSquidController.mockDownstreamGet(encodeToken("success")).getResult();
+        //assert
+        Assert.assertEquals(200, first.getStatusCodeValue());
+        Assert.assertArrayEquals("Success Body".getBytes(StandardCharsets.UTF_8), (byte[]) first.getBody());
+        Assert.assertEquals(12, first.getHeaders().getContentLength());
+        Assert.assertSame(first.getBody(), second.getBody());
+    }
 
+    @Test
+    public void shouldSendThrottledBodyThroughAsyncDispatch() throws Exception {
+        //arrange
+        ReflectionTestUtils.setField(throttledResponseWriter, "delayScheduler", delayScheduler);
+        Success success = new Success(100, true, "Throttled Body", null, null, 200, new FixedDelay(100.0), new Throttle(1000, 4));
+        DrSquidConfig drSquidConfig = new DrSquidConfig(true, null, Collections.singletonList(
+                new Service("TestService", null, "http://www.testservice.com/*", null, null, true, null, new Behavior(success, null, null))), null);
+        when(configRetriever.getConfig(eq("drsquid.service.test"))).thenReturn(drSquidConfig);
+        when(fixedDelayDriver.getDelayTimeNanos(any())).thenReturn(TimeUnit.MILLISECONDS.toNanos(100));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(drSquidController).addFilters(new NonBlockingResponseFilter()).build();
+        //act
+        MvcResult mvcResult = mockMvc.perform(get("/v1/mock").param("token", encodeToken("success")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //assert
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 14))
+                .andExpect(content().string("Throttled Body"));
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.converter;
+
+import com.expediagroup.drsquidutils.response.MockResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MockResponseHttpMessageConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockResponseHttpMessageConverter converter = new MockResponseHttpMessageConverter();
+
+    @Test
+    public void shouldWriteMappedFileBody() throws Exception {
+        //arrange
+        byte[] content = "{\"hotels\": [{\"name\": \"Squid Inn\"}]}".getBytes(StandardCharsets.UTF_8);
+        Path path = folder.getRoot().toPath().resolve("hotels.json");
+        Files.write(path, content);
+        MockResponse mockResponse = MockResponse.fromFile(200, path);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(mockResponse.getHeaders());
+        HttpOutputMessage outputMessage = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        //act
+        converter.write(mockResponse, null, outputMessage);
+        //assert
+        Assert.assertArrayEquals(content, body.toByteArray());
+        Assert.assertEquals(content.length, headers.getContentLength());
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldHandFileBodyToTomcatWhenSendfileIsSupported() throws Exception {
+        //arrange
+        byte[] content = "{\"hotels\": [{\"name\": \"Squid Inn\"}]}".getBytes(StandardCharsets.UTF_8);
+        Path path = folder.getRoot().toPath().resolve("hotels.json");
+        Files.write(path, content);
+        MockResponse mockResponse = MockResponse.fromFile(200, path);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(MockResponseHttpMessageConverter.SENDFILE_SUPPORTED_ATTRIBUTE, Boolean.TRUE);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        HttpOutputMessage outputMessage = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        //act
+        converter.write(mockResponse, null, outputMessage);
+        //assert
+        Assert.assertEquals(0, body.size());
+        Assert.assertEquals(content.length, headers.getContentLength());
+        Assert.assertEquals(path.toAbsolutePath().toString(), request.getAttribute(MockResponseHttpMessageConverter.SENDFILE_FILENAME_ATTRIBUTE));
+        Assert.assertEquals(0L, request.getAttribute(MockResponseHttpMessageConverter.SENDFILE_START_ATTRIBUTE));
+        Assert.assertEquals((long) content.length, request.getAttribute(MockResponseHttpMessageConverter.SENDFILE_END_ATTRIBUTE));
+    }
+
+    @Test
+    public void shouldOnlyWriteMockResponses() {
+        //assert
+        Assert.assertTrue(converter.canWrite(MockResponse.class, null));
+        Assert.assertFalse(converter.canWrite(String.class, null));
+        Assert.assertFalse(converter.canRead(MockResponse.class, null));
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.throttle;
+
+import com.expediagroup.drsquidutils.model.Throttle;
+import com.expediagroup.drsquidutils.response.MockResponse;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a throttled response from an embedded Tomcat, whose output buffer would hold back small chunks unless they
+ * are flushed, and reads it from a plain socket to see when each part arrives. The servlet starts and finishes the
+ * async request through Spring's WebAsyncManager, like the DispatcherServlet does for the controller.
+ */
+public class ThrottledResponseWriterTest {
+
+    private static final int BODY_SIZE = 20000;
+    private static final int CHUNK_SIZE = 1000;
+    private static final long BYTES_PER_SEC = 10000;
+    private static final long DELAY_IN_MILLIS = 200;
+    // A chunk is due every 100 ms: chunks held back in Tomcat's 8KB buffer would arrive 800 ms apart.
+    private static final long MAX_GAP_IN_MILLIS = 400;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DelayScheduler delayScheduler = new DelayScheduler();
+    private final ThrottledResponseWriter throttledResponseWriter = new ThrottledResponseWriter();
+    private Tomcat tomcat;
+
+    @Before
+    public void setUp() throws Exception {
+        ReflectionTestUtils.setField(throttledResponseWriter, "delayScheduler", delayScheduler);
+        MockResponse mockResponse = new MockResponse(200, String.join("", Collections.nCopies(BODY_SIZE, "a")));
+        Throttle throttle = new Throttle(BYTES_PER_SEC, CHUNK_SIZE);
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(folder.getRoot().getAbsolutePath());
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "throttled", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+                // Handles the result the way Spring's DispatcherServlet does for a handler returning it.
+                WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+                if (asyncManager.hasConcurrentResult()) {
+                    asyncManager.clearConcurrentResult();
+                    return;
+                }
+                DeferredResult<?> result = throttledResponseWriter.write(request, response, mockResponse, throttle, TimeUnit.MILLISECONDS.toNanos(DELAY_IN_MILLIS));
+                asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+                try {
+                    asyncManager.startDeferredResultProcessing(result);
+                } catch (Exception e) {
+                    throw new ServletException(e);
+                }
+            }
+        }).setAsyncSupported(true);
+        context.addServletMappingDecoded("/", "throttled");
+        tomcat.getConnector();
+        tomcat.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+        delayScheduler.destroy();
+    }
+
+    @Test
+    public void shouldSendEachChunkWhenDue() throws Exception {
+        //arrange
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        // Time each read returned, in milliseconds from the request, and the bytes received up to then.
+        List<long[]> arrivals = new ArrayList<>();
+        //act
+        try (Socket socket = new Socket("localhost", tomcat.getConnector().getLocalPort())) {
+            socket.setSoTimeout(10000);
+            long start = System.nanoTime();
+            socket.getOutputStream().write("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            InputStream inputStream = socket.getInputStream();
+            byte[] buffer = new byte[BODY_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                response.write(buffer, 0, read);
+                arrivals.add(new long[] {TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), response.size()});
+            }
+        }
+        //assert
+        String text = new String(response.toByteArray(), StandardCharsets.US_ASCII);
+        int headersSize = text.indexOf("\r\n\r\n") + 4;
+        Assert.assertTrue(text.startsWith("HTTP/1.1 200"));
+        Assert.assertEquals(headersSize + BODY_SIZE, response.size());
+        Assert.assertTrue("Headers after " + arrivals.get(0)[0] + " ms", arrivals.get(0)[0] >= DELAY_IN_MILLIS);
+
+        long previousMillis = arrivals.get(0)[0];
+        for (long[] arrival : arrivals) {
+            long bodyBytes = Math.max(0, arrival[1] - headersSize);
+            long chunks = (bodyBytes + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            long lastChunkDueMillis = DELAY_IN_MILLIS + Math.max(0, chunks - 1) * CHUNK_SIZE * 1000 / BYTES_PER_SEC;
+            Assert.assertTrue(bodyBytes + " bytes after " + arrival[0] + " ms", arrival[0] >= lastChunkDueMillis);
+            Assert.assertTrue("Nothing for " + (arrival[0] - previousMillis) + " ms", arrival[0] - previousMillis < MAX_GAP_IN_MILLIS);
+            previousMillis = arrival[0];
+        }
+    }
+}
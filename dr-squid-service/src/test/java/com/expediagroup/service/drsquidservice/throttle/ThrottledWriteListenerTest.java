@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.throttle;
+
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ThrottledWriteListenerTest {
+
+    private final DelayScheduler delayScheduler = new DelayScheduler();
+
+    @After
+    public void tearDown() {
+        delayScheduler.destroy();
+    }
+
+    /**
+     * Output stream which is ready until told otherwise, like a connection whose buffer fills up.
+     */
+    private static class FakeOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private volatile boolean ready = true;
+        private int flushes;
+        private int unflushedWrites;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            written.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            written.write(b, off, len);
+            unflushedWrites++;
+        }
+
+        @Override
+        public synchronized void flush() {
+            flushes++;
+            unflushedWrites = 0;
+        }
+
+        synchronized byte[] getWritten() {
+            return written.toByteArray();
+        }
+    }
+
+    @Test
+    public void shouldSendBodyAtThrottledRate() throws Exception {
+        //arrange
+        byte[] body = new byte[1000];
+        new Random(42).nextBytes(body);
+        FakeOutputStream outputStream = new FakeOutputStream();
+        CountDownLatch completed = new CountDownLatch(1);
+        long start = System.nanoTime();
+        ThrottledWriteListener listener = new ThrottledWriteListener(outputStream, new ByteArrayInputStream(body), 100, 5000,
+                start, delayScheduler, completed::countDown);
+        //act
+        listener.onWritePossible();
+        boolean finished = completed.await(5, TimeUnit.SECONDS);
+        long elapsedInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        //assert
+        Assert.assertTrue(finished);
+        Assert.assertArrayEquals(body, outputStream.getWritten());
+        // The last chunk is due 900 bytes in, at 5000 bytes/sec.
+        Assert.assertTrue("Sent in " + elapsedInMillis + " ms", elapsedInMillis >= 180);
+    }
+
+    @Test
+    public void shouldWaitForFirstByteTime() throws Exception {
+        //arrange
+        FakeOutputStream outputStream = new FakeOutputStream();
+        CountDownLatch completed = new CountDownLatch(1);
+        ThrottledWriteListener listener = new ThrottledWriteListener(outputStream, new ByteArrayInputStream(new byte[10]), 100, 1000,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200), delayScheduler, completed::countDown);
+        //act
+        listener.onWritePossible();
+        //assert
+        Assert.assertEquals(0, outputStream.getWritten().length);
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(10, outputStream.getWritten().length);
+    }
+
+    @Test
+    public void shouldFlushHeadersThenEachChunk() throws Exception {
+        //arrange
+        FakeOutputStream outputStream = new FakeOutputStream();
+        CountDownLatch completed = new CountDownLatch(1);
+        ThrottledWriteListener listener = new ThrottledWriteListener(outputStream, new ByteArrayInputStream(new byte[300]), 100, 10000,
+                System.nanoTime(), delayScheduler, completed::countDown);
+        //act
+        listener.onWritePossible();
+        boolean finished = completed.await(5, TimeUnit.SECONDS);
+        //assert
+        Assert.assertTrue(finished);
+        Assert.assertEquals(4, outputStream.flushes);
+        Assert.assertEquals(0, outputStream.unflushedWrites);
+    }
+
+    @Test
+    public void shouldResumeWhenConnectionDrains() throws Exception {
+        //arrange
+        FakeOutputStream outputStream = new FakeOutputStream();
+        outputStream.ready = false;
+        CountDownLatch completed = new CountDownLatch(1);
+        ThrottledWriteListener listener = new ThrottledWriteListener(outputStream, new ByteArrayInputStream(new byte[300]), 100, 1000000,
+                System.nanoTime(), delayScheduler, completed::countDown);
+        listener.onWritePossible();
+        //act
+        outputStream.ready = true;
+        listener.onWritePossible();
+        //assert
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(300, listener.getSent());
+    }
+
+    @Test
+    public void shouldCompleteOnceOnError() throws Exception {
+        //arrange
+        FakeOutputStream outputStream = new FakeOutputStream();
+        int[] completions = new int[1];
+        ThrottledWriteListener listener = new ThrottledWriteListener(outputStream, new ByteArrayInputStream(new byte[300]), 100, 1000,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(10), delayScheduler, () -> completions[0]++);
+        //act
+        listener.onError(new IOException("Broken pipe"));
+        listener.onError(new IOException("Broken pipe"));
+        listener.onWritePossible();
+        //assert
+        Assert.assertEquals(1, completions[0]);
+        Assert.assertEquals(0, outputStream.getWritten().length);
+    }
+}
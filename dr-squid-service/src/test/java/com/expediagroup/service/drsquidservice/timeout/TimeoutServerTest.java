@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.service.drsquidservice.timeout;
+
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+public class TimeoutServerTest {
+
+    private final DelayScheduler delayScheduler = new DelayScheduler();
+    private TimeoutServer timeoutServer;
+
+    @Before
+    public void setUp() throws IOException {
+        timeoutServer = new TimeoutServer(delayScheduler);
+        timeoutServer.start(0);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        timeoutServer.destroy();
+        delayScheduler.destroy();
+    }
+
+    private Socket request(String queryString) throws IOException {
+        Socket socket = new Socket("localhost", timeoutServer.getPort());
+        socket.setSoTimeout(1000);
+        String token = Base64.getEncoder().encodeToString(queryString.getBytes(StandardCharsets.UTF_8));
+        socket.getOutputStream().write(("GET /?token=" + token + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    /**
+     * Reads until the connection is closed or nothing is received for a second.
+     */
+    private String readUntilTimeout(Socket socket) throws IOException {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        InputStream inputStream = socket.getInputStream();
+        try {
+            int b;
+            while ((b = inputStream.read()) >= 0) {
+                received.write(b);
+            }
+            Assert.fail("Connection closed after \"" + received + "\"");
+        } catch (SocketTimeoutException e) {
+            // Expected.
+        }
+        return new String(received.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void shouldHangWithoutResponding() throws Exception {
+        //arrange
+        try (Socket socket = request("mode=HANG&delayInNanos=0&stallAfterBytes=0")) {
+            //act
+            String received = readUntilTimeout(socket);
+            //assert
+            Assert.assertEquals("", received);
+        }
+    }
+
+    @Test
+    public void shouldCloseAfterDelay() throws Exception {
+        //arrange
+        long start = System.nanoTime();
+        try (Socket socket = request("mode=CLOSE&delayInNanos=200000000&stallAfterBytes=0")) {
+            //act
+            int read = socket.getInputStream().read();
+            long elapsedInMillis = (System.nanoTime() - start) / 1000000;
+            //assert
+            Assert.assertEquals(-1, read);
+            Assert.assertTrue("Closed after " + elapsedInMillis + " ms", elapsedInMillis >= 190);
+        }
+    }
+
+    @Test(expected = SocketException.class)
+    public void shouldResetAfterDelay() throws Exception {
+        //arrange
+        try (Socket socket = request("mode=RESET&delayInNanos=100000000&stallAfterBytes=0")) {
+            //act
+            socket.getInputStream().read();
+        }
+    }
+
+    @Test
+    public void shouldStallAfterPartialResponse() throws Exception {
+        //arrange
+        try (Socket socket = request("mode=STALL&delayInNanos=0&stallAfterBytes=16")) {
+            //act
+            String received = readUntilTimeout(socket);
+            //assert
+            Assert.assertTrue(received.startsWith("HTTP/1.1 200 OK\r\n"));
+            Assert.assertTrue(received.contains("Transfer-Encoding: chunked\r\n"));
+            Assert.assertTrue(received.endsWith("\r\n\r\n10\r\n                "));
+        }
+    }
+
+    @Test
+    public void shouldCloseOldestConnectionOverMaximum() throws Exception {
+        //arrange
+        timeoutServer.destroy();
+        timeoutServer = new TimeoutServer(delayScheduler, 10, 1);
+        timeoutServer.start(0);
+        try (Socket oldest = request("mode=HANG&delayInNanos=0&stallAfterBytes=0")) {
+            Thread.sleep(100);
+            //act
+            try (Socket newest = request("mode=HANG&delayInNanos=0&stallAfterBytes=0")) {
+                int read = oldest.getInputStream().read();
+                //assert
+                Assert.assertEquals(-1, read);
+                Assert.assertEquals("", readUntilTimeout(newest));
+            }
+        }
+    }
+
+    @Test
+    public void shouldListenOnConfiguredAddress() throws Exception {
+        //arrange
+        timeoutServer.destroy();
+        timeoutServer = new TimeoutServer(delayScheduler);
+        //act
+        timeoutServer.start("127.0.0.1", 0);
+        //assert
+        Assert.assertTrue(timeoutServer.getAddress().isLoopbackAddress());
+    }
+
+    @Test
+    public void shouldCloseOnBadToken() throws Exception {
+        //arrange
+        try (Socket socket = request("mode=SLEEP&delayInNanos=0")) {
+            //act
+            int read = socket.getInputStream().read();
+            //assert
+            Assert.assertEquals(-1, read);
+        }
+    }
+
+    @Test
+    public void shouldDecodeToken() {
+        //arrange
+        String token = Base64.getEncoder().encodeToString("mode=RESET&delayInNanos=5".getBytes(StandardCharsets.UTF_8));
+        //act
+        Map<String, String> paramMap = TimeoutServer.decodeToken("POST /timeout?token=" + token + "&x=y HTTP/1.1\r");
+        //assert
+        Assert.assertEquals("RESET", paramMap.get(TimeoutServer.MODE));
+        Assert.assertEquals("5", paramMap.get(TimeoutServer.DELAY_IN_NANOS));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.expediagroup.drsquidutils.advice;
 
+import com.expediagroup.drsquidutils.configretriever.ConfigRetriever;
 import com.expediagroup.drsquidutils.configretriever.FileSystemConfigRetriever;
 import com.expediagroup.drsquidutils.model.Database;
 import com.expediagroup.drsquidutils.model.DatabaseType;
@@ -45,7 +46,7 @@ public class DatabaseMockingAdvice {
     private Environment environment;
 
     @Autowired
-    private FileSystemConfigRetriever configRetriever;
+    private ConfigRetriever configRetriever;
 
     private DrSquidConfig getConfig(String name) {
         if (configRetriever == null) {
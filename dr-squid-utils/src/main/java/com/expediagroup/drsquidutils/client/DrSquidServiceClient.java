@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP client for calls to dr-squid-service. Connections are pooled and kept alive between calls, and the
+ * pool size and timeouts are configured separately from the application's own clients:
+ *
+ * drsquid.client.max-connections - maximum number of open connections (default 200)
+ * drsquid.client.max-connections-per-route - maximum number of open connections to one host (default 100)
+ * drsquid.client.connect-timeout-ms - timeout for opening a connection (default 1000)
+ * drsquid.client.connection-request-timeout-ms - timeout for getting a connection from the pool (default 1000)
+ * drsquid.client.read-timeout-ms - timeout for reading the response, must exceed the longest mocked delay (default 60000)
+ * drsquid.client.keep-alive-ms - how long idle connections are kept open (default 30000)
+ */
+@Component
+public class DrSquidServiceClient implements InitializingBean, DisposableBean {
+
+    public static final String MAX_CONNECTIONS_PROPERTY = "drsquid.client.max-connections";
+    public static final String MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "drsquid.client.max-connections-per-route";
+    public static final String CONNECT_TIMEOUT_PROPERTY = "drsquid.client.connect-timeout-ms";
+    public static final String CONNECTION_REQUEST_TIMEOUT_PROPERTY = "drsquid.client.connection-request-timeout-ms";
+    public static final String READ_TIMEOUT_PROPERTY = "drsquid.client.read-timeout-ms";
+    public static final String KEEP_ALIVE_PROPERTY = "drsquid.client.keep-alive-ms";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 100;
+    private static final int DEFAULT_CONNECT_TIMEOUT = 1000;
+    private static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 1000;
+    private static final int DEFAULT_READ_TIMEOUT = 60000;
+    private static final long DEFAULT_KEEP_ALIVE = 30000;
+
+    @Autowired
+    private Environment environment;
+
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    public DrSquidServiceClient() {
+    }
+
+    public DrSquidServiceClient(int maxConnections, int maxConnectionsPerRoute, int connectTimeoutInMillis,
+                                int connectionRequestTimeoutInMillis, int readTimeoutInMillis, long keepAliveInMillis) {
+        init(maxConnections, maxConnectionsPerRoute, connectTimeoutInMillis, connectionRequestTimeoutInMillis, readTimeoutInMillis, keepAliveInMillis);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        init(environment.getProperty(MAX_CONNECTIONS_PROPERTY, Integer.class, DEFAULT_MAX_CONNECTIONS),
+                environment.getProperty(MAX_CONNECTIONS_PER_ROUTE_PROPERTY, Integer.class, DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                environment.getProperty(CONNECT_TIMEOUT_PROPERTY, Integer.class, DEFAULT_CONNECT_TIMEOUT),
+                environment.getProperty(CONNECTION_REQUEST_TIMEOUT_PROPERTY, Integer.class, DEFAULT_CONNECTION_REQUEST_TIMEOUT),
+                environment.getProperty(READ_TIMEOUT_PROPERTY, Integer.class, DEFAULT_READ_TIMEOUT),
+                environment.getProperty(KEEP_ALIVE_PROPERTY, Long.class, DEFAULT_KEEP_ALIVE));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (requestFactory != null) {
+            requestFactory.destroy();
+        }
+    }
+
+    private void init(int maxConnections, int maxConnectionsPerRoute, int connectTimeoutInMillis,
+                      int connectionRequestTimeoutInMillis, int readTimeoutInMillis, long keepAliveInMillis) {
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutInMillis)
+                .setConnectionRequestTimeout(connectionRequestTimeoutInMillis)
+                .setSocketTimeout(readTimeoutInMillis)
+                .build();
+
+        // Keep connections for as long as the server allows, up to the configured keep-alive.
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return (serverKeepAlive > 0) ? Math.min(serverKeepAlive, keepAliveInMillis) : keepAliveInMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveInMillis, TimeUnit.MILLISECONDS)
+                .build();
+
+        this.requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Sends a request to Dr. Squid Service over a pooled connection.
+     * @param drSquidRequest request to Dr. Squid Service, only its URI and method are used
+     * @param body body to send
+     * @return the response from Dr. Squid Service
+     * @throws IOException if the call fails
+     */
+    public ClientHttpResponse execute(HttpRequest drSquidRequest, byte[] body) throws IOException {
+
+        ClientHttpRequest request = requestFactory.createRequest(drSquidRequest.getURI(), drSquidRequest.getMethod());
+        if (body != null && body.length > 0) {
+            request.getBody().write(body);
+        }
+        return request.execute();
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.configretriever;
+
+import com.expediagroup.drsquidutils.model.DrSquidConfig;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caching implementation of ConfigRetriever. Each config is parsed once into a snapshot that is shared by all callers,
+ * so the YAML is no longer parsed on every intercepted call.
+ *
+ * If the "drsquid.config.directory" property is set, configs are read from that directory (falling back to the
+ * classpath) and the directory is watched: when a config file changes, it is parsed again and the new snapshot
+ * replaces the old one. Readers never lock, they only see one snapshot or the other.
+ */
+@Primary
+@Component
+public class CachingConfigRetriever implements ConfigRetriever, InitializingBean, DisposableBean {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(CachingConfigRetriever.class));
+    public static final String CONFIG_DIRECTORY_PROPERTY = "drsquid.config.directory";
+
+    private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private FileSystemConfigRetriever fileSystemConfigRetriever;
+
+    private Path configDirectory;
+    private WatchService watchService;
+
+    public CachingConfigRetriever() {
+    }
+
+    public CachingConfigRetriever(FileSystemConfigRetriever fileSystemConfigRetriever, Path configDirectory) {
+        this.fileSystemConfigRetriever = fileSystemConfigRetriever;
+        this.configDirectory = configDirectory;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+
+        String directory = environment.getProperty(CONFIG_DIRECTORY_PROPERTY);
+        if (StringUtils.isNotBlank(directory)) {
+            configDirectory = Paths.get(directory);
+        }
+        startWatching();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    @Override
+    public DrSquidConfig getConfig(String name) {
+
+        Snapshot snapshot = snapshots.get(name);
+        if (snapshot == null) {
+            snapshot = snapshots.computeIfAbsent(name, this::load);
+        }
+        return snapshot.config;
+    }
+
+    /**
+     * Starts a daemon thread which reloads cached configs whenever their file in the config directory changes.
+     * Does nothing if no config directory is configured.
+     * @throws IOException if the directory can't be watched
+     */
+    public void startWatching() throws IOException {
+
+        if (configDirectory == null || watchService != null) {
+            return;
+        }
+
+        if (!Files.isDirectory(configDirectory)) {
+            LOGGER.error("Dr. Squid config directory \"{}\" does not exist - configs will only be read from the classpath", configDirectory);
+            configDirectory = null;
+            return;
+        }
+
+        watchService = configDirectory.getFileSystem().newWatchService();
+        configDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        Thread watcher = new Thread(this::watch, "drsquid-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        snapshots.keySet().forEach(this::reload);
+                    } else {
+                        reload(event.context().toString());
+                    }
+                }
+                if (!key.reset()) {
+                    LOGGER.error("Dr. Squid config directory \"{}\" is no longer accessible - stopped watching for changes", configDirectory);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Stopped watching Dr. Squid config directory");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parses a config again and swaps in the new snapshot. Only configs that were already requested are reloaded,
+     * and a config that fails to parse keeps its last good snapshot.
+     * @param name name of the config file that changed
+     */
+    protected void reload(String name) {
+
+        Snapshot current = snapshots.get(name);
+        if (current == null) {
+            return;
+        }
+
+        Snapshot reloaded = load(name);
+        if (reloaded.config == null && current.config != null && Files.exists(configDirectory.resolve(name))) {
+            LOGGER.error("Dr. Squid config \"{}\" could not be reloaded - keeping the previous version", name);
+            return;
+        }
+
+        if (reloaded.config != null) {
+            reloaded.config.continueSchedules(current.config);
+        }
+        snapshots.put(name, reloaded);
+        LOGGER.info("Reloaded Dr. Squid config \"{}\"", name);
+    }
+
+    private Snapshot load(String name) {
+
+        if (configDirectory != null) {
+            Path path = configDirectory.resolve(name);
+            if (Files.exists(path)) {
+                return new Snapshot(fileSystemConfigRetriever.getConfig(path));
+            }
+        }
+        return new Snapshot(fileSystemConfigRetriever.getConfig(name));
+    }
+
+    /**
+     * Holds a parsed config, or null if the config is missing, so that missing configs are cached as well.
+     */
+    private static final class Snapshot {
+
+        private final DrSquidConfig config;
+
+        private Snapshot(DrSquidConfig config) {
+            this.config = config;
+        }
+    }
+}
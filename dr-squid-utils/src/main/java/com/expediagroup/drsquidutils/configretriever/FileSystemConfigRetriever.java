@@ -19,14 +19,13 @@ import com.expediagroup.drsquidutils.model.DrSquidConfig;
 import com.expediagroup.drsquidutils.utils.FilteredLogger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
-import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * This is the file system based implementation of ConfigDriver.
@@ -36,6 +35,9 @@ public class FileSystemConfigRetriever implements ConfigRetriever {
 
     private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(FileSystemConfigRetriever.class));
 
+    // Configured once and shared, ObjectMapper is thread-safe for reads.
+    private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory());
+
     @Override
     public DrSquidConfig getConfig(String name) {
 
@@ -45,18 +47,43 @@ public class FileSystemConfigRetriever implements ConfigRetriever {
             return null;
         }
 
-        DrSquidConfig drSquidConfig;
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        StringWriter writer = new StringWriter();
+        return parseConfig(stream);
+    }
+
+    /**
+     * Reads a config from a file outside of the classpath. Relative mock response files in it are resolved against the
+     * directory of the file.
+     * @param path path of the config file
+     * @return the parsed config, or null if the file is missing or can't be parsed
+     */
+    public DrSquidConfig getConfig(Path path) {
+
+        if (!Files.isRegularFile(path)) {
+            LOGGER.error("The config file \"{}\" could not be found.", path);
+            return null;
+        }
+
+        DrSquidConfig config;
         try {
-            IOUtils.copy(stream, writer, Charset.defaultCharset());
-            String fileString = writer.toString();
-            drSquidConfig = mapper.readValue(fileString, DrSquidConfig.class);
+            config = parseConfig(Files.newInputStream(path));
         } catch (IOException e) {
             LOGGER.error(e.getMessage(), e);
             return null;
         }
 
-        return drSquidConfig;
+        if (config != null) {
+            config.setConfigDirectory(path.toAbsolutePath().getParent());
+        }
+        return config;
+    }
+
+    private DrSquidConfig parseConfig(InputStream stream) {
+
+        try (InputStream input = stream) {
+            return MAPPER.readValue(input, DrSquidConfig.class);
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+            return null;
+        }
     }
 }
@@ -17,10 +17,22 @@ package com.expediagroup.drsquidutils.delaydriver;
 
 import com.expediagroup.drsquidutils.model.Delay;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This is an interface for different type of delays Dr Squid can handle. Clients can have their own delay implementations.
  * It has a function, getDelayTime which returns the time the service can sleep depending on delay type.
  */
 public interface DelayDriver {
     int getDelayTime(Delay delay);
+
+    /**
+     * Gets the time to sleep with sub-millisecond precision. Defaults to the whole milliseconds of getDelayTime, for
+     * drivers which have nothing finer to give.
+     * @param delay delay config
+     * @return time to sleep in nanoseconds
+     */
+    default long getDelayTimeNanos(Delay delay) {
+        return TimeUnit.MILLISECONDS.toNanos(getDelayTime(delay));
+    }
 }
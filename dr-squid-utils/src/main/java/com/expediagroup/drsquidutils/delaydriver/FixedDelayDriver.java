@@ -47,4 +47,20 @@ public class FixedDelayDriver implements DelayDriver {
 
         return timeToSleep;
     }
+
+    @Override
+    public long getDelayTimeNanos(Delay delay) {
+
+        if (!(delay instanceof FixedDelay)) {
+            return 0;
+        }
+
+        long timeToSleep = ((FixedDelay) delay).getValueInNanos();
+        if (timeToSleep < 0) {
+            LOGGER.error("Value is negative for fixed delay. Setting time to sleep to 0.");
+            return 0;
+        }
+
+        return timeToSleep;
+    }
 }
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.delaydriver;
+
+import com.expediagroup.drsquidutils.model.Delay;
+import com.expediagroup.drsquidutils.model.InverseCdfDelay;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.expediagroup.drsquidutils.utils.RandomNumberGenerator;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is the implementation of Dr Squid DelayDriver for delay types precomputed as inverse CDF tables:
+ * lognormal, exponential, pareto, mixture, percentile and histogram.
+ */
+
+@Component
+public class InverseCdfDelayDriver implements DelayDriver {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(InverseCdfDelayDriver.class));
+
+    @Autowired
+    RandomNumberGenerator random;
+
+    @Override
+    public int getDelayTime(Delay delay) {
+        return (int) TimeUnit.NANOSECONDS.toMillis(getDelayTimeNanos(delay));
+    }
+
+    @Override
+    public long getDelayTimeNanos(Delay delay) {
+
+        if (!(delay instanceof InverseCdfDelay)) {
+            return 0;
+        }
+
+        InverseCdfTable inverseCdfTable = ((InverseCdfDelay) delay).getInverseCdfTable();
+        if (inverseCdfTable == null) {
+            LOGGER.error("The {} delay is not configured properly. Setting time to sleep to 0.", delay.getType());
+            return 0;
+        }
+
+        return Math.round(inverseCdfTable.sample(random.nextDouble()) * 1000000);
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.delaydriver;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A delay distribution, precomputed as a table of its quantiles so that drawing a delay only costs a table lookup and
+ * a linear interpolation, however expensive the distribution's inverse CDF is to compute.
+ *
+ * Latencies are mostly decided by their tail, so the probabilities in the table are spaced by octaves of 1 - p, like
+ * HdrHistogram buckets: LEVEL_SIZE evenly spaced entries for p in [0, 1/2), as many in [1/2, 3/4), [3/4, 7/8) and
+ * so on for LEVELS octaves. The p99 and p999 are then as accurate as the median. Unbounded distributions have no
+ * quantile at probability 1, so the last entry holds the quantile at 1 - 2^-LEVELS, capping the slowest draws at
+ * roughly the 99.9996th percentile.
+ */
+public class InverseCdfTable {
+
+    public static final int LEVELS = 18;
+    public static final int LEVEL_SIZE = 256;
+    private static final int SIZE = LEVELS * LEVEL_SIZE;
+    private static final double TAIL = Math.scalb(1.0, -LEVELS);
+
+    // Coefficients of Acklam's rational approximation of the standard normal inverse CDF.
+    private static final double[] A = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    private static final double[] B = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+    private static final double[] C = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    private static final double[] D = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+    private static final double P_LOW = 0.02425;
+
+    private final double[] quantiles;
+
+    /**
+     * Builds the table from a distribution's inverse CDF.
+     * @param inverseCdf quantile of the distribution for a probability in [0,1), non-decreasing
+     */
+    public InverseCdfTable(DoubleUnaryOperator inverseCdf) {
+
+        quantiles = new double[SIZE + 1];
+        for (int i = 0; i <= SIZE; i++) {
+            quantiles[i] = Math.max(0, inverseCdf.applyAsDouble(probability(i)));
+        }
+
+        // Guard against rounding making the table decrease anywhere.
+        for (int i = 1; i <= SIZE; i++) {
+            quantiles[i] = Math.max(quantiles[i], quantiles[i - 1]);
+        }
+    }
+
+    /**
+     * Builds the table from recorded delays, e.g. a latency histogram, each delay being anywhere in its bucket.
+     * @param lows lowest delay of each bucket, in increasing order
+     * @param highs delay just past each bucket, at most the next bucket's lowest
+     * @param counts number of delays recorded in each bucket, at least one of them positive
+     * @return the table
+     */
+    public static InverseCdfTable fromBuckets(double[] lows, double[] highs, long[] counts) {
+
+        long[] cumulativeCounts = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+            cumulativeCounts[i] = total;
+        }
+        double totalCount = total;
+
+        return new InverseCdfTable(probability -> {
+            // First bucket whose cumulative count passes the target, then evenly within it.
+            double target = probability * totalCount;
+            int low = 0;
+            int high = cumulativeCounts.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulativeCounts[middle] > target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            double before = cumulativeCounts[low] - counts[low];
+            double fraction = Math.min(1, (target - before) / counts[low]);
+            return lows[low] + fraction * (highs[low] - lows[low]);
+        });
+    }
+
+    /**
+     * Gets the probability of a table entry: entry t of level j is at 1 - p = 2^-j * (1 - t / (2 * LEVEL_SIZE)).
+     */
+    private static double probability(int index) {
+        int level = index / LEVEL_SIZE;
+        int offset = index % LEVEL_SIZE;
+        return 1 - Math.scalb(1 - offset / (2.0 * LEVEL_SIZE), -level);
+    }
+
+    /**
+     * Draws a delay.
+     * @param probability uniformly distributed random value in [0,1)
+     * @return the delay, never negative
+     */
+    public double sample(double probability) {
+        double tail = 1 - probability;
+        if (tail <= TAIL) {
+            return quantiles[SIZE];
+        }
+        // 1 - p is in [2^-(level + 1), 2^-level), and scaling it by 2^(level + 1) gives the position in the level.
+        int level = Math.max(0, -Math.getExponent(tail) - 1);
+        double position = level * LEVEL_SIZE + (2 - Math.scalb(tail, level + 1)) * LEVEL_SIZE;
+        int index = (int) position;
+        return quantiles[index] + (position - index) * (quantiles[index + 1] - quantiles[index]);
+    }
+
+    /**
+     * Gets the probability of a delay being at most a value, the inverse of {@link #sample(double)}.
+     * @param value delay
+     * @return probability in [0,1]
+     */
+    public double cdf(double value) {
+
+        if (value < quantiles[0]) {
+            return 0;
+        }
+        if (value >= quantiles[SIZE]) {
+            return 1;
+        }
+
+        // Last entry at most the value, so the next one is above it.
+        int index = Arrays.binarySearch(quantiles, value);
+        if (index >= 0) {
+            while (index < SIZE && quantiles[index + 1] == value) {
+                index++;
+            }
+        } else {
+            index = -index - 2;
+        }
+        double fraction = (value - quantiles[index]) / (quantiles[index + 1] - quantiles[index]);
+        return probability(index) + fraction * (probability(index + 1) - probability(index));
+    }
+
+    /**
+     * Gets the smallest delay in the table.
+     * @return the delay at probability 0
+     */
+    public double getMin() {
+        return quantiles[0];
+    }
+
+    /**
+     * Gets the largest delay in the table.
+     * @return the delay the tail is capped at
+     */
+    public double getMax() {
+        return quantiles[SIZE];
+    }
+
+    /**
+     * Computes the inverse CDF of the standard normal distribution (Acklam's approximation, relative error below
+     * 1.2e-9), the building block of normal and log-normal delays.
+     * @param probability probability in [0,1]
+     * @return the quantile, infinite at 0 and 1
+     */
+    public static double normalInverseCdf(double probability) {
+
+        if (probability <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (probability >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        if (probability < P_LOW) {
+            double q = Math.sqrt(-2 * Math.log(probability));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        if (probability > 1 - P_LOW) {
+            double q = Math.sqrt(-2 * Math.log(1 - probability));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        double q = probability - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+                / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+    }
+}
@@ -23,6 +23,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This is the normal delay type implementation of Dr Squid DelayDriver.
  */
@@ -37,6 +39,11 @@ public class NormalDelayDriver implements DelayDriver {
 
     @Override
     public int getDelayTime(Delay delay) {
+        return (int) TimeUnit.NANOSECONDS.toMillis(getDelayTimeNanos(delay));
+    }
+
+    @Override
+    public long getDelayTimeNanos(Delay delay) {
 
         if (!(delay instanceof NormalDelay)) {
             return 0;
@@ -56,6 +63,7 @@ public class NormalDelayDriver implements DelayDriver {
             return 0;
         }
 
-        return (int) (random.nextGaussian() * stdDev + mean);
+        // A delay can't be negative, however far below the mean the draw lands.
+        return Math.max(0, Math.round((random.nextGaussian() * stdDev + mean) * 1000000));
     }
 }
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous version of {@link DrSquidInterceptor}, for AsyncRestTemplate. Makes the same decisions, but delays
+ * are scheduled on the {@link DelayScheduler} instead of blocking the calling thread. Once a delay is over, the
+ * request is sent from an executor rather than the timer thread, as sending it may block, e.g. on connection setup.
+ */
+@Component
+@SuppressWarnings("deprecation")
+public class DrSquidAsyncInterceptor implements AsyncClientHttpRequestInterceptor {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(DrSquidAsyncInterceptor.class));
+
+    @Autowired
+    private DrSquidInterceptor drSquidInterceptor;
+
+    @Autowired
+    private DelayScheduler delayScheduler;
+
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * Sets the executor to send delayed requests from, e.g. the one behind the AsyncRestTemplate's request factory.
+     * Defaults to the common fork-join pool.
+     * @param executor executor to send delayed requests from
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The Dr. Squid Async Interceptor. Intercepts outgoing requests and either does nothing, spoofs the request
+     * using Dr. Squid Service, or schedules the original request to be sent after a delay.
+     * @param interceptedRequest request being intercepted
+     * @param interceptedRequestBody body of the request being intercepted
+     * @param execution context of HTTP request execution, used to execute the returned response
+     * @return future of the response from the executed request
+     * @throws IOException IOException is wrapped around any exception thrown to match inheriting signature.
+     */
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest interceptedRequest, byte[] interceptedRequestBody, AsyncClientHttpRequestExecution execution) throws IOException {
+
+        Interception interception;
+        try {
+            interception = drSquidInterceptor.decide(interceptedRequest, interceptedRequestBody);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+
+        switch (interception.getAction()) {
+            case DELAY_THEN_PROCEED:
+                LOGGER.debug("Scheduling request after {} ns delay...", interception.getDelayInNanos());
+                SettableListenableFuture<ClientHttpResponse> response = new SettableListenableFuture<>();
+                Runnable proceed = () -> {
+                    LOGGER.info("Performing non-spoofed success {}...", interception.getContext());
+                    try {
+                        execution.executeAsync(interceptedRequest, interceptedRequestBody).addCallback(response::set, response::setException);
+                    } catch (Exception e) {
+                        response.setException(e);
+                    }
+                };
+                delayScheduler.schedule(() -> {
+                    try {
+                        executor.execute(proceed);
+                    } catch (RuntimeException e) {
+                        response.setException(e);
+                    }
+                }, interception.getDelayInNanos(), TimeUnit.NANOSECONDS);
+                return response;
+            case RESPOND:
+                LOGGER.debug("Scheduling mock response after {} ns delay...", interception.getDelayInNanos());
+                SettableListenableFuture<ClientHttpResponse> mockResponse = new SettableListenableFuture<>();
+                delayScheduler.schedule(() -> mockResponse.set(new DrSquidClientHttpResponse(interception.getMockResponse())), interception.getDelayInNanos(), TimeUnit.NANOSECONDS);
+                return mockResponse;
+            case SPOOF:
+            case REDIRECT:
+                return execution.executeAsync(new DrSquidRequest(interceptedRequest, interception.getDrSquidUri()), interceptedRequestBody);
+            default:
+                return execution.executeAsync(interceptedRequest, interceptedRequestBody);
+        }
+    }
+}
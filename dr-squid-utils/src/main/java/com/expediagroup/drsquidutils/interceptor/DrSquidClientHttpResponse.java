@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import com.expediagroup.drsquidutils.response.MockResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.InputStream;
+
+/**
+ * Mock response built inside the interceptor in local mode, the same as dr-squid-service would have sent back.
+ */
+public class DrSquidClientHttpResponse implements ClientHttpResponse {
+
+    private final MockResponse mockResponse;
+
+    public DrSquidClientHttpResponse(int statusCode, String body) {
+        this(new MockResponse(statusCode, body));
+    }
+
+    /**
+     * Wraps a mock response compiled when the config was loaded, streaming its body without copying it.
+     * @param mockResponse the mock response
+     */
+    public DrSquidClientHttpResponse(MockResponse mockResponse) {
+        this.mockResponse = mockResponse;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(mockResponse.getStatusCode());
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return mockResponse.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() {
+        HttpStatus status = HttpStatus.resolve(mockResponse.getStatusCode());
+        return (status == null) ? "" : status.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return mockResponse.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() {
+        return mockResponse.openBody();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release.
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import com.expediagroup.drsquidutils.response.MockResponse;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import com.expediagroup.drsquidutils.scheduler.TimingWheel;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebClient version of {@link DrSquidInterceptor}. Makes the same decisions, but delays are scheduled on the
+ * {@link DelayScheduler} instead of blocking a thread, and the request or mock response then carries on from its timer
+ * thread.
+ *
+ * The request body isn't available to a filter, so services configured with a body keyword are never spoofed here.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.web.reactive.function.client.ExchangeFilterFunction")
+public class DrSquidExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(DrSquidExchangeFilterFunction.class));
+    private static final byte[] NO_BODY = new byte[0];
+    private static final DefaultDataBufferFactory BUFFER_FACTORY = new DefaultDataBufferFactory();
+    private static final int GENERATED_BUFFER_SIZE = 1 << 16;
+
+    @Autowired
+    private DrSquidInterceptor drSquidInterceptor;
+
+    @Autowired
+    private DelayScheduler delayScheduler;
+
+    /**
+     * Filters outgoing requests and either does nothing, spoofs the request using Dr. Squid Service, or sends the
+     * original request after a delay - all dependent on the behavior configured in the Dr. Squid Config.
+     * @param request request being filtered
+     * @param next the next exchange function in the chain
+     * @return the response from the executed request
+     */
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+
+        return Mono.defer(() -> {
+
+            Interception interception;
+            try {
+                interception = drSquidInterceptor.decide(new ClientRequestAdapter(request), NO_BODY);
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+
+            switch (interception.getAction()) {
+                case DELAY_THEN_PROCEED:
+                    LOGGER.debug("Delaying request by {} ns...", interception.getDelayInNanos());
+                    return delay(interception).then(Mono.defer(() -> {
+                        LOGGER.info("Performing non-spoofed success {}...", interception.getContext());
+                        return next.exchange(request);
+                    }));
+                case RESPOND:
+                    LOGGER.debug("Delaying mock response by {} ns...", interception.getDelayInNanos());
+                    return delay(interception).then(Mono.fromSupplier(() -> createMockResponse(interception)));
+                case SPOOF:
+                case REDIRECT:
+                    return next.exchange(ClientRequest.from(request).url(interception.getDrSquidUri()).build());
+                default:
+                    return next.exchange(request);
+            }
+        });
+    }
+
+    /**
+     * Completes after the interception's delay, on the delay scheduler. Cancelling the subscription cancels the delay.
+     * @param interception interception holding the delay
+     * @return mono completing empty after the delay
+     */
+    private Mono<Void> delay(Interception interception) {
+        return Mono.create(sink -> {
+            TimingWheel.Task task = delayScheduler.schedule(sink::success, interception.getDelayInNanos(), TimeUnit.NANOSECONDS);
+            sink.onCancel(task::cancel);
+        });
+    }
+
+    /**
+     * Creates the mock response, wrapping its encoded body rather than copying it, or reading generated bodies in
+     * chunks as they are consumed.
+     * @param interception interception holding the mock response
+     * @return client response
+     */
+    private ClientResponse createMockResponse(Interception interception) {
+        MockResponse mockResponse = interception.getMockResponse();
+        ByteBuffer bodyBuffer = mockResponse.getBodyBuffer();
+        Flux<DataBuffer> body = (bodyBuffer == null)
+                ? DataBufferUtils.readInputStream(mockResponse::openBody, BUFFER_FACTORY, GENERATED_BUFFER_SIZE)
+                : Flux.just(BUFFER_FACTORY.wrap(bodyBuffer));
+        return ClientResponse.create(HttpStatus.valueOf(mockResponse.getStatusCode()))
+                .headers(headers -> headers.putAll(mockResponse.getHeaders()))
+                .body(body)
+                .build();
+    }
+
+    /**
+     * Exposes a WebClient request as an HttpRequest, which is what Dr. Squid decides on.
+     */
+    private static class ClientRequestAdapter implements HttpRequest {
+
+        private final ClientRequest request;
+
+        ClientRequestAdapter(ClientRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.method();
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.method().name();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.url();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.headers();
+        }
+    }
+}
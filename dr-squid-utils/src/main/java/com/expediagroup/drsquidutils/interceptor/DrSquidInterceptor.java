@@ -15,9 +15,11 @@
  */
 package com.expediagroup.drsquidutils.interceptor;
 
-import com.expediagroup.drsquidutils.configretriever.FileSystemConfigRetriever;
+import com.expediagroup.drsquidutils.client.DrSquidServiceClient;
+import com.expediagroup.drsquidutils.configretriever.ConfigRetriever;
 import com.expediagroup.drsquidutils.delaydriver.DelayDriver;
 import com.expediagroup.drsquidutils.delaydriver.FixedDelayDriver;
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfDelayDriver;
 import com.expediagroup.drsquidutils.delaydriver.NormalDelayDriver;
 import com.expediagroup.drsquidutils.delaydriver.RangeDelayDriver;
 import com.expediagroup.drsquidutils.model.Behavior;
@@ -25,9 +27,17 @@ import com.expediagroup.drsquidutils.model.Delay;
 import com.expediagroup.drsquidutils.model.DrSquidConfig;
 import com.expediagroup.drsquidutils.model.Failure;
 import com.expediagroup.drsquidutils.model.LoggingLevel;
+import com.expediagroup.drsquidutils.model.Sampling;
 import com.expediagroup.drsquidutils.model.Service;
 import com.expediagroup.drsquidutils.model.Success;
 import com.expediagroup.drsquidutils.model.Timeout;
+import com.expediagroup.drsquidutils.model.TimeoutMode;
+import com.expediagroup.drsquidutils.response.MockResponse;
+import com.expediagroup.drsquidutils.sampler.ConsistentHash;
+import com.expediagroup.drsquidutils.sampler.Outcome;
+import com.expediagroup.drsquidutils.sampler.OutcomeSampler;
+import com.expediagroup.drsquidutils.sampler.OutcomeSequence;
+import com.expediagroup.drsquidutils.scheduler.PreciseWaiter;
 import com.expediagroup.drsquidutils.utils.ConfigUtils;
 import com.expediagroup.drsquidutils.utils.FilteredLogger;
 import com.expediagroup.drsquidutils.utils.RandomNumberGenerator;
@@ -37,22 +47,22 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
 import java.util.StringJoiner;
-import java.util.regex.Pattern;
 
 /**
  * HTTP request interceptor that reads a configuration and determines whether the request should be forwarded to dr-squid-service.
@@ -61,16 +71,31 @@ import java.util.regex.Pattern;
 public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
 
     private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(DrSquidInterceptor.class));
-    private static final Integer SUCCESS_BUCKET_INDEX = 0;
-    private static final Integer FAILURE_BUCKET_INDEX = 1;
     public static final String DELAY_FIXED = "fixed";
     public static final String DELAY_RANGE = "range";
     public static final String DELAY_NORMAL = "normal";
+    public static final String DELAY_LOGNORMAL = "lognormal";
+    public static final String DELAY_EXPONENTIAL = "exponential";
+    public static final String DELAY_PARETO = "pareto";
+    public static final String DELAY_MIXTURE = "mixture";
+    public static final String DELAY_PERCENTILE = "percentile";
+    public static final String DELAY_HISTOGRAM = "histogram";
     public static final String FIXED_VALUE_IN_MSECS = "fixed_value_in_msecs";
     public static final String MEAN_VALUE_IN_MSECS = "mean_value_in_msecs";
     public static final String STD_VALUE_IN_MSECS = "std_value_in_msecs";
     public static final String MIN_VALUE_IN_MSECS = "min_value_in_msecs";
     public static final String MAX_VALUE_IN_MSECS = "max_value_in_msecs";
+    public static final String ALPHA = "alpha";
+    public static final String COMPONENTS = "components";
+    public static final String WEIGHT = "weight";
+    public static final String DELAY = "delay";
+    public static final String FILE = "file";
+    public static final String UNIT = "unit";
+    public static final String MODE_PROPERTY = "drsquid.mode";
+    public static final String MODE_LOCAL = "local";
+    public static final String TIMEOUT_URL_PROPERTY = "drsquid.timeout-url";
+    private static final String EXECUTING_INTERCEPTED_REQUEST = "Executing originally intercepted request...";
+    private static final String CHARSET_PARAMETER = "charset=";
 
     @Autowired
     private Environment environment;
@@ -88,58 +113,22 @@ public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
     private NormalDelayDriver normalDelayDriver;
 
     @Autowired
-    private FileSystemConfigRetriever configRetriever;
+    private InverseCdfDelayDriver inverseCdfDelayDriver;
 
-    /**
-     * Produces an array of upper bucket boundaries given an array of percentages. This aids in bucketing logic.
-     * @param percentages array of percentages, should all be positive and sum to 100
-     * @return array of bucket boundaries if percentages are valid (none are negative and they sum to 100), otherwise null
-     */
-    protected int[] getBuckets(int[] percentages) {
-
-        int[] buckets = new int[percentages.length];
-
-        int sumPercentage = 0;
-        for (int i = 0; i < percentages.length; i++) {
-            if (percentages[i] < 0) {
-                LOGGER.error("No negative percentages allowed. {} percentage found in bucket {}.", Integer.toString(percentages[i]), i);
-                return new int[0];
-            }
-            sumPercentage += percentages[i];
-            buckets[i] = sumPercentage;
-        }
-
-        if (sumPercentage != 100) {
-            LOGGER.error("Sum of success, failure and timeout percentages should be 100. Current sum is {}.", Integer.toString(sumPercentage));
-            return new int[0];
-        }
-
-        return buckets;
-    }
+    @Autowired
+    private ConfigRetriever configRetriever;
 
-    /**
-     * Produces a status given an array of upper bucket boundaries.
-     * @param buckets array of upper bucket boundaries
-     * @return string status, either "success", "failure", or "timeout"
-     */
-    protected String getStatus(int[] buckets) {
+    @Autowired
+    private DrSquidServiceClient drSquidServiceClient;
 
-        if (buckets.length == 0) {
-            return null;
-        }
+    @Autowired
+    private PreciseWaiter preciseWaiter;
 
-        String status;
-        int randomNumber = (random.nextInt(100) + 1);
-        if (randomNumber <= buckets[SUCCESS_BUCKET_INDEX]) {
-            status = "success";
-        } else if (randomNumber > buckets[SUCCESS_BUCKET_INDEX] && randomNumber <= buckets[FAILURE_BUCKET_INDEX]) {
-            status = "failure";
-        } else {
-            status = "timeout";
-        }
+    // Resolved on the first intercepted call.
+    private volatile ConfigName configName;
 
-        return status;
-    }
+    // Last charset named by a Content-Type, so that requests in the same charset don't look it up again.
+    private volatile NamedCharset lastCharset = new NamedCharset(StandardCharsets.UTF_8.name(), StandardCharsets.UTF_8);
 
     /**
      * Produces a query string from set parameters.
@@ -159,6 +148,52 @@ public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
                 .toString();
     }
 
+    /**
+     * Produces a query string from set parameters, for a drawn outcome.
+     * @param clientName name of the client using Dr. Squid
+     * @param downstreamPattern pattern that the downstream matched
+     * @param profile Dr. Squid profile
+     * @param outcome outcome to mock
+     * @return query string for the parameters, only holding the failure variant if it isn't the first failure
+     */
+    protected String getQueryString(String clientName, String downstreamPattern, String profile, Outcome outcome) {
+
+        String queryString = getQueryString(clientName, downstreamPattern, profile, outcome.getStatus().getName());
+        return (outcome.getVariant() == 0) ? queryString : queryString + "&variant=" + outcome.getVariant();
+    }
+
+    /**
+     * Produces a query string from set parameters, for an outcome drawn at a level of the behavior's schedule.
+     * @param clientName name of the client using Dr. Squid
+     * @param downstreamPattern pattern that the downstream matched
+     * @param profile Dr. Squid profile
+     * @param outcome outcome to mock
+     * @param level level of the schedule the outcome was drawn at, or -1 if the behavior has no schedule
+     * @return query string for the parameters, holding the level if there is one, so that dr-squid-service multiplies
+     * the delay by the same level as the interceptor drew the outcome at
+     */
+    protected String getQueryString(String clientName, String downstreamPattern, String profile, Outcome outcome, int level) {
+
+        String queryString = getQueryString(clientName, downstreamPattern, profile, outcome);
+        return (level < 0) ? queryString : queryString + "&level=" + level;
+    }
+
+    /**
+     * Produces a query string for the timeout server, which carries everything it needs as it doesn't read configs.
+     * @param mode how the call times out
+     * @param delayInNanos time to wait before closing, resetting or stalling the connection, in nanoseconds
+     * @param stallAfterBytes number of body bytes to send before stalling
+     * @return query string for the parameters
+     */
+    protected String getTimeoutQueryString(TimeoutMode mode, long delayInNanos, int stallAfterBytes) {
+
+        return new StringJoiner("&")
+                .add("mode=" + mode)
+                .add("delayInNanos=" + delayInNanos)
+                .add("stallAfterBytes=" + stallAfterBytes)
+                .toString();
+    }
+
     /**
      * Produces an encoded token for the given query string
      * @param queryString query string to encode
@@ -169,6 +204,21 @@ public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
         return new String(encodedBytes, Charset.forName("UTF-8"));
     }
 
+    /**
+     * Creates the URI of a call to Dr. Squid Service
+     * @param drSquidMockEndpoint the url of Dr. Squid Service mock endpoint
+     * @param token encoded token
+     * @return URI to call, or null if it isn't a valid URI
+     */
+    protected URI getDrSquidUri(String drSquidMockEndpoint, String token) {
+
+        try {
+            return new URI(drSquidMockEndpoint + "?token=" + token);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
     /**
      * Creates a request to Dr. Squid Service
      * @param originalRequest the original intercepted request
@@ -179,37 +229,100 @@ public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
      */
     protected HttpRequest createDrSquidRequest(HttpRequest originalRequest, String drSquidMockEndpoint, String token) throws IOException {
 
-        drSquidMockEndpoint += "?token=" + token;
-
-        URI uri;
-        try {
-            uri = new URI(drSquidMockEndpoint);
-        } catch (URISyntaxException e) {
+        URI uri = getDrSquidUri(drSquidMockEndpoint, token);
+        if (uri == null) {
             return originalRequest;
         }
 
-        return new SimpleClientHttpRequestFactory().createRequest(uri, originalRequest.getMethod());
+        return createDrSquidRequest(originalRequest, uri);
+    }
+
+    /**
+     * Creates a request to Dr. Squid Service
+     * @param originalRequest the original intercepted request
+     * @param drSquidUri the URI of the Dr. Squid Service call, including the token
+     * @return request to Dr. Squid. Service
+     */
+    protected HttpRequest createDrSquidRequest(HttpRequest originalRequest, URI drSquidUri) {
+        return new DrSquidRequest(originalRequest, drSquidUri);
     }
 
     /**
      * Matches a downstream URL to a configured service
-     * @param services list of all services
+     * @param drSquidConfig config holding the services
      * @param downstreamUrl downstream URL to match
-     * @return enabled service which matched the URL, otherwise null
+     * @return first enabled service which matched the URL, otherwise null
      */
-    protected Service matchDownstream(List<Service> services, String downstreamUrl) {
+    protected Service matchDownstream(DrSquidConfig drSquidConfig, String downstreamUrl) {
+        return drSquidConfig.getServiceRouter().match(downstreamUrl);
+    }
 
-        for (Service service : services) {
-            if (service == null) {
-                continue;
+    /**
+     * Gets the value to draw the outcome of a call with: a hash of the configured header and the service name for
+     * consistent sampling, so the same header value always gets the same outcome, otherwise a random value.
+     * @param interceptedRequest the original intercepted request
+     * @param matchingService the service the request matched
+     * @return uniformly distributed 64-bit value
+     */
+    protected long getSamplingBits(HttpRequest interceptedRequest, Service matchingService) {
+
+        Behavior behavior = matchingService.getBehavior();
+        if (behavior.getSampling() == Sampling.CONSISTENT) {
+            HttpHeaders headers = interceptedRequest.getHeaders();
+            String key = (headers == null) ? null : headers.getFirst(behavior.getHashHeader());
+            if (key != null) {
+                return ConsistentHash.combine(ConsistentHash.hash(key), matchingService.getNameHash());
             }
-            String downstreamPattern = service.getUrlPattern();
-            downstreamPattern = downstreamPattern.replaceAll("\\*", "(.*)");
-            if (Pattern.compile(downstreamPattern).matcher(downstreamUrl).find() && service.isEnabled()) {
-                return service;
+            if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                LOGGER.debug("No \"{}\" header to hash - drawing the outcome at random.", behavior.getHashHeader());
             }
         }
-        return null;
+        return random.nextLong();
+    }
+
+    /**
+     * Gets the charset of the intercepted request's body from its Content-Type
+     * @param interceptedRequest the original intercepted request
+     * @return the charset, UTF-8 if none is given or it isn't supported
+     */
+    protected Charset getCharset(HttpRequest interceptedRequest) {
+
+        HttpHeaders headers = interceptedRequest.getHeaders();
+        String contentType = (headers == null) ? null : headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (contentType == null) {
+            return StandardCharsets.UTF_8;
+        }
+
+        // Only the charset parameter is read, rather than parsing the whole Content-Type on every call.
+        int start = StringUtils.indexOfIgnoreCase(contentType, CHARSET_PARAMETER);
+        while (start == 0 || start > 0 && contentType.charAt(start - 1) != ';' && !Character.isWhitespace(contentType.charAt(start - 1))) {
+            start = StringUtils.indexOfIgnoreCase(contentType, CHARSET_PARAMETER, start + 1);
+        }
+        if (start <= 0) {
+            return StandardCharsets.UTF_8;
+        }
+        start += CHARSET_PARAMETER.length();
+        if (start < contentType.length() && contentType.charAt(start) == '"') {
+            start++;
+        }
+        int end = start;
+        while (end < contentType.length() && contentType.charAt(end) != ';' && contentType.charAt(end) != '"' && !Character.isWhitespace(contentType.charAt(end))) {
+            end++;
+        }
+
+        NamedCharset cached = lastCharset;
+        if (cached.name.length() == end - start && contentType.regionMatches(true, start, cached.name, 0, end - start)) {
+            return cached.charset;
+        }
+        try {
+            String name = contentType.substring(start, end);
+            Charset charset = Charset.forName(name);
+            lastCharset = new NamedCharset(name, charset);
+            return charset;
+        } catch (IllegalArgumentException e) {
+            // Malformed or unsupported charset.
+            return StandardCharsets.UTF_8;
+        }
     }
 
     /**
@@ -218,6 +331,41 @@ public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
      * @return time to sleep
      */
     protected int getTimeToSleep(Delay delay) {
+        DelayDriver delayDriver = getDelayDriver(delay);
+        return (delayDriver == null) ? 0 : delayDriver.getDelayTime(delay);
+    }
+
+    /**
+     * Gets the time to sleep given a delay config, with sub-millisecond precision.
+     * @param delay delay config
+     * @return time to sleep in nanoseconds
+     */
+    protected long getTimeToSleepNanos(Delay delay) {
+        DelayDriver delayDriver = getDelayDriver(delay);
+        return (delayDriver == null) ? 0 : delayDriver.getDelayTimeNanos(delay);
+    }
+
+    /**
+     * Gets the time to sleep given a delay config, multiplied by the behavior's schedule.
+     * @param delay delay config
+     * @param delayMultiplier multiplier for the current level of the schedule
+     * @return time to sleep in nanoseconds
+     */
+    protected long getTimeToSleepNanos(Delay delay, double delayMultiplier) {
+        long timeToSleep = getTimeToSleepNanos(delay);
+        return (delayMultiplier == 1) ? timeToSleep : Math.round(timeToSleep * delayMultiplier);
+    }
+
+    /**
+     * Gets the driver for a type of delay.
+     * @param delay delay config
+     * @return the driver, or null if there's no delay or its type isn't supported
+     */
+    private DelayDriver getDelayDriver(Delay delay) {
+
+        if (delay == null) {
+            return null;
+        }
 
         String type = delay.getType();
         DelayDriver delayDriver;
@@ -231,167 +379,347 @@ public class DrSquidInterceptor implements ClientHttpRequestInterceptor {
             case DELAY_NORMAL:
                 delayDriver = normalDelayDriver;
                 break;
+            case DELAY_LOGNORMAL:
+            case DELAY_EXPONENTIAL:
+            case DELAY_PARETO:
+            case DELAY_MIXTURE:
+            case DELAY_PERCENTILE:
+            case DELAY_HISTOGRAM:
+                delayDriver = inverseCdfDelayDriver;
+                break;
             default:
                 LOGGER.error("Config not setup properly. Unsupported delay type \"{}\".", type);
-                return 0;
+                return null;
         }
 
-        return delayDriver.getDelayTime(delay);
+        return delayDriver;
     }
 
     /**
-     * The Dr. Squid Interceptor. Intercepts outgoing requests and either does nothing, spoofs the request
-     * using Dr. Squid Service, or waits before sending the original request - all dependent on the behavior
-     * configured in the Dr. Squid Config.
+     * Creates the mock response dr-squid-service would have sent back for a spoofed outcome, for local mode.
+     * @param outcome the outcome being spoofed
+     * @param behavior the configured behavior of the matching service
+     * @param level level of the behavior's schedule the outcome was drawn at
+     * @param context description of the client and service, for logging
+     * @return interception responding with the mock response, or null if the outcome isn't configured
+     */
+    protected Interception createLocalResponse(Outcome outcome, Behavior behavior, int level, String context) {
+
+        double delayMultiplier = behavior.getDelayMultiplier(level);
+
+        switch (outcome.getStatus()) {
+            case SUCCESS:
+                Success success = behavior.getSuccess();
+                return (success == null) ? null : Interception.respond(getTimeToSleepNanos(success.getDelay(), delayMultiplier), success.getMockResponse(), context);
+            case FAILURE:
+                List<Failure> failures = behavior.getFailures();
+                Failure failure = (outcome.getVariant() < failures.size()) ? failures.get(outcome.getVariant()) : null;
+                return (failure == null) ? null : Interception.respond(getTimeToSleepNanos(failure.getDelay(), delayMultiplier), failure.getMockResponse(), context);
+            case TIMEOUT:
+                Timeout timeout = behavior.getTimeout();
+                return (timeout == null) ? null : Interception.respond(getTimeToSleepNanos(timeout.getDelay(), delayMultiplier), MockResponse.TIMEOUT, context);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Creates a redirect of a call to the timeout server, for a timeout which doesn't respond.
+     * @param timeout timeout configuration
+     * @param delayMultiplier multiplier for the level of the schedule
+     * @param context description of the client and service, for logging
+     * @return the interception, or null if the timeout server isn't configured and dr-squid-service should respond
+     */
+    private Interception createTimeoutInterception(Timeout timeout, double delayMultiplier, String context) {
+
+        String timeoutUrl = environment.getProperty(TIMEOUT_URL_PROPERTY);
+        if (StringUtils.isBlank(timeoutUrl)) {
+            LOGGER.warn("Can't {} the connection as \"{}\" is not defined - drsquid-service will respond with a 500 status code instead.", timeout.getMode(), TIMEOUT_URL_PROPERTY);
+            return null;
+        }
+
+        long delayInNanos = getTimeToSleepNanos(timeout.getDelay(), delayMultiplier);
+        String token = getToken(getTimeoutQueryString(timeout.getMode(), delayInNanos, timeout.getStallAfterBytes()));
+        URI timeoutUri = getDrSquidUri(timeoutUrl, token);
+        if (timeoutUri == null) {
+            LOGGER.error("Can't {} the connection as \"{}\" is not a valid URL - drsquid-service will respond with a 500 status code instead.", timeout.getMode(), TIMEOUT_URL_PROPERTY);
+            return null;
+        }
+
+        LOGGER.info("Calling the timeout server to {} the connection {}...", timeout.getMode(), context);
+        return Interception.redirect(timeoutUri, context);
+    }
+
+    /**
+     * Gets the Dr. Squid config name, along with its parts and log context. Resolved from the environment once, as
+     * the properties it depends on don't change while the application runs, so intercepting a call doesn't rebuild it.
+     * A name without a client isn't kept, so calls made before the profile is available don't disable Dr. Squid for
+     * good.
+     * @return the config name
+     */
+    private ConfigName getConfigName() {
+
+        ConfigName resolved = configName;
+        if (resolved == null) {
+            resolved = new ConfigName(ConfigUtils.getDrSquidConfigName(environment));
+            if (resolved.client != null) {
+                configName = resolved;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Decides what to do with an intercepted request: leave it alone, delay it, or spoof it using Dr. Squid Service -
+     * all dependent on the behavior configured in the Dr. Squid Config. Shared by all the Dr. Squid clients, which
+     * only differ in how they carry the decision out.
      * @param interceptedRequest request being intercepted
      * @param interceptedRequestBody body of the request being intercepted
-     * @param execution context of HTTP request execution, used to execute the returned response
-     * @return the response from the executed request
-     * @throws IOException IOException is wrapped around any exception thrown to match inheriting signature.
+     * @return what to do with the request
+     * @throws IOException if the URL of the request is invalid
      */
-    @Override
-    public ClientHttpResponse intercept(HttpRequest interceptedRequest, byte[] interceptedRequestBody, ClientHttpRequestExecution execution) throws IOException {
+    public Interception decide(HttpRequest interceptedRequest, byte[] interceptedRequestBody) throws IOException {
 
-        try {
+        // Get the downstream URL of the intercepted call
+        String downstreamUrl = interceptedRequest.getURI().toString();
 
-            final String executingInterceptedRequest = "Executing originally intercepted request...";
+        // Get Dr. Squid config name
+        ConfigName configName = getConfigName();
+        if (configName.client == null) {
+            LOGGER.error("No active profile, can't set Dr. Squid profile - {}", EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
 
-            // Get the downstream URL of the intercepted call
-            String downstreamUrl = interceptedRequest.getURI().toURL().toString();
+        // Retrieve Dr. Squid config
+        DrSquidConfig drSquidConfig = configRetriever.getConfig(configName.name);
+        if (drSquidConfig == null) {
+            LOGGER.error("Dr. Squid config \"{}\" cannot be found - {}", configName.name, EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
 
-            // Get Dr. Squid config name
-            String configName = ConfigUtils.getDrSquidConfigName(environment);
-            String[] nameParts = configName.split("\\.");
-            if (nameParts.length == 0) {
-                LOGGER.error("No active profile, can't set Dr. Squid profile - {}", executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
-            }
+        String client = configName.client;
+        String profile = configName.profile;
+        if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+            LOGGER.debug("Client \"{}\" is using Dr. Squid profile \"{}\", accessing config \"{}\"", client, profile, configName.name);
+        }
 
-            // Retrieve Dr. Squid config
-            DrSquidConfig drSquidConfig = configRetriever.getConfig(configName);
-            if (drSquidConfig == null) {
-                LOGGER.error("Dr. Squid config \"{}\" cannot be found - {}", configName, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
+        // Check if Dr. Squid is enabled globally.
+        if (BooleanUtils.isNotTrue(drSquidConfig.isEnabled())) {
+            if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                LOGGER.debug("Dr. Squid is not enabled {} - {}", configName.forClientInProfile, EXECUTING_INTERCEPTED_REQUEST);
             }
+            return Interception.PROCEED;
+        }
 
-            String client = nameParts[1];
-            String profile = nameParts[2];
-            LOGGER.debug("Client \"{}\" is using Dr. Squid profile \"{}\", accessing config \"{}\"", client, profile, configName);
-            String forClientInProfile = String.format("for client \"%s\" in profile \"%s\"", client, profile);
+        // Set the configured global logging level (default ERROR).
+        LoggingLevel loggingLevel = drSquidConfig.getLoggingLevel();
+        if (loggingLevel != null) {
+            FilteredLogger.setLoggingLevel(loggingLevel);
+        }
 
-            // Check if Dr. Squid is enabled globally.
-            if (BooleanUtils.isNotTrue(drSquidConfig.isEnabled())) {
-                LOGGER.debug("Dr. Squid is not enabled {} - {}", forClientInProfile, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
-            }
+        // Get configured services.
+        List<Service> services = drSquidConfig.getServices();
+        if (CollectionUtils.isEmpty(services)) {
+            LOGGER.error("No services configured {} - {}", configName.forClientInProfile, EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
 
-            // Set the configured global logging level (default ERROR).
-            LoggingLevel loggingLevel = drSquidConfig.getLoggingLevel();
-            if (loggingLevel != null) {
-                FilteredLogger.setLoggingLevel(loggingLevel);
+        // Find matching service for the current URL.
+        Service matchingService = matchDownstream(drSquidConfig, downstreamUrl);
+        if (matchingService == null) {
+            if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                LOGGER.debug("No enabled service matching downstream url \"{}\" configured {} - {}", downstreamUrl, configName.forClientInProfile, EXECUTING_INTERCEPTED_REQUEST);
             }
+            return Interception.PROCEED;
+        }
 
-            // Get configured services.
-            List<Service> services = drSquidConfig.getServices();
-            if (CollectionUtils.isEmpty(services)) {
-                LOGGER.error("No services configured {} - {}", forClientInProfile, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
-            }
+        // Set logging level to the service logging level if present.
+        loggingLevel = matchingService.getLoggingLevel();
+        if (loggingLevel != null) {
+            FilteredLogger.setLoggingLevel(loggingLevel);
+        }
 
-            // Find matching service for the current URL.
-            Service matchingService = matchDownstream(services, downstreamUrl);
-            if (matchingService == null) {
-                LOGGER.debug("No enabled service matching downstream url \"{}\" configured {} - {}", downstreamUrl, forClientInProfile, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
+        String matchingServiceName = matchingService.getName();
+        String downstreamPattern = matchingService.getUrlPattern();
+
+        if (LOGGER.isEnabled(LoggingLevel.INFO)) {
+            LOGGER.info("Downstream url \"{}\" matched enabled service \"{}\" {}...", downstreamUrl, matchingServiceName, configName.forClientInProfile);
+        }
+
+        // Check method, if configured.
+        HttpMethod configuredMethod = matchingService.getMethod();
+        HttpMethod actualMethod = interceptedRequest.getMethod();
+        if (configuredMethod != null && configuredMethod != actualMethod) {
+            if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                LOGGER.debug("The method's don't match - configured: \"{}\", actual: \"{}\" - {}", configuredMethod, actualMethod, EXECUTING_INTERCEPTED_REQUEST);
             }
+            return Interception.PROCEED;
+        }
 
-            // Set logging level to the service logging level if present.
-            loggingLevel = matchingService.getLoggingLevel();
-            if (loggingLevel != null) {
-                FilteredLogger.setLoggingLevel(loggingLevel);
+        // Check body keyword is contained in the body, searching the raw bytes for the keyword in the body's charset.
+        String bodyKeyword = matchingService.getBodyKeyword();
+        if (bodyKeyword != null && !matchingService.getBodyKeywordSearcher(getCharset(interceptedRequest)).isFoundIn(interceptedRequestBody)) {
+            if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                LOGGER.debug("The request body doesn't contain the keyword \"{}\" - {}", bodyKeyword, EXECUTING_INTERCEPTED_REQUEST);
             }
+            return Interception.PROCEED;
+        }
+
+        // From here on the call is Dr. Squid's, so the log context is worth building.
+        String forClientCallingServiceInProfile = String.format("for client \"%s\" calling service \"%s\" with drsquid.profile \"%s\"", client, matchingServiceName, profile);
 
-            String matchingServiceName = matchingService.getName();
-            String forClientCallingServiceInProfile = String.format("for client \"%s\" calling service \"%s\" with drsquid.profile \"%s\"", client, matchingServiceName, profile);
-            String downstreamPattern = matchingService.getUrlPattern();
+        // Get configured behavior for this service.
+        Behavior behavior = matchingService.getBehavior();
+        if (behavior == null) {
+            LOGGER.error("Behavior not configured {} - {}", forClientCallingServiceInProfile, EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
 
-            LOGGER.info("Downstream url \"{}\" matched enabled service \"{}\" {}...", downstreamUrl, matchingServiceName, forClientInProfile);
+        // Get which outcome we will mock, drawn by the sampler built when the config was loaded for the current level
+        // of the behavior's schedule, or next in line for deterministic sampling.
+        int level = behavior.getLevel();
+        OutcomeSampler outcomeSampler = behavior.getOutcomeSampler(level);
+        if (outcomeSampler == null) {
+            LOGGER.error("Behavior percentages are invalid {}, see the error logged when the config was loaded - {}", forClientCallingServiceInProfile, EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
+        OutcomeSequence outcomeSequence = behavior.getOutcomeSequence(level);
+        Outcome outcome = (outcomeSequence != null) ? outcomeSequence.next() : outcomeSampler.sample(getSamplingBits(interceptedRequest, matchingService));
+        Success success = behavior.getSuccess();
 
-            // Check method, if configured.
-            HttpMethod configuredMethod = matchingService.getMethod();
-            HttpMethod actualMethod = interceptedRequest.getMethod();
-            if (configuredMethod != null && configuredMethod != actualMethod) {
-                LOGGER.debug("The method's don't match - configured: \"{}\", actual: \"{}\" - {}", configuredMethod, actualMethod, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
-            }
+        if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+            LOGGER.debug("Landed in {} bucket at schedule level {} {}...", outcome, level, forClientCallingServiceInProfile);
+        }
+
+        // Handle non-spoofed success (doesn't call Dr. Squid Service).
+        if (outcome.getStatus() == Outcome.Status.SUCCESS && success != null && !success.isSpoofed()) {
 
-            // Check body keyword is contained in the body
-            String bodyString = new String(interceptedRequestBody);
-            String bodyKeyword = matchingService.getBodyKeyword();
-            if (bodyKeyword != null && !bodyString.contains(bodyKeyword)) {
-                LOGGER.debug("The request body doesn't contain the keyword \"{}\" - {}", bodyKeyword, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
+            LOGGER.debug("Success is not spoofed {} - will call real service", forClientCallingServiceInProfile);
+            Delay delay = success.getDelay();
+            if (delay == null) {
+                LOGGER.warn("Delay not configured for non-spoofed success {} - Defaulting to no delay.", forClientCallingServiceInProfile);
+                return Interception.PROCEED;
             }
 
-            // Get configured behavior for this service.
-            Behavior behavior = matchingService.getBehavior();
-            if (behavior == null) {
-                LOGGER.error("Behavior not configured {} - {}", forClientCallingServiceInProfile, executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
+            return Interception.delayThenProceed(getTimeToSleepNanos(delay, behavior.getDelayMultiplier(level)), forClientCallingServiceInProfile);
+        }
+
+        // In local mode, respond with the mock response straight from the interceptor.
+        if (MODE_LOCAL.equals(environment.getProperty(MODE_PROPERTY))) {
+            LOGGER.info("Mocking {} scenario locally {}...", outcome, forClientCallingServiceInProfile);
+            Interception localResponse = createLocalResponse(outcome, behavior, level, forClientCallingServiceInProfile);
+            if (localResponse == null) {
+                LOGGER.error("The {} scenario is not configured {} - {}", outcome, forClientCallingServiceInProfile, EXECUTING_INTERCEPTED_REQUEST);
+                return Interception.PROCEED;
             }
+            return localResponse;
+        }
 
-            // Get success, failure, and timeout configs.
-            Success success = behavior.getSuccess();
-            Failure failure = behavior.getFailure();
-            Timeout timeout = behavior.getTimeout();
-            int successPercentage = (success == null) ? 0 : success.getPercentage();
-            int failurePercentage = (failure == null) ? 0 : failure.getPercentage();
-            int timeoutPercentage = (timeout == null) ? 0 : timeout.getPercentage();
-
-            // Get which status we will mock.
-            int[] percentageBuckets = getBuckets(new int[]{successPercentage, failurePercentage, timeoutPercentage});
-            String status = getStatus(percentageBuckets);
-            if (status == null) {
-                return execution.execute(interceptedRequest, interceptedRequestBody); // Message already logged, see getBuckets
+        // Timeouts which don't respond are sent to the timeout server, which holds connections without a thread each.
+        Timeout timeout = behavior.getTimeout();
+        if (outcome.getStatus() == Outcome.Status.TIMEOUT && timeout != null && timeout.getMode() != TimeoutMode.RESPOND) {
+            Interception timeoutInterception = createTimeoutInterception(timeout, behavior.getDelayMultiplier(level), forClientCallingServiceInProfile);
+            if (timeoutInterception != null) {
+                return timeoutInterception;
             }
+        }
 
-            LOGGER.debug("Landed in {} bucket {}...", status, forClientCallingServiceInProfile);
+        // Get the Dr. Squid Service url.
+        String drSquidUrl = environment.getProperty("drsquid.url");
+        if (StringUtils.isBlank(drSquidUrl)) {
+            LOGGER.error("Can't call drsquid-service as \"drsquid.url\" environment variable is not defined - {}", EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
 
-            // Handle non-spoofed success (doesn't call Dr. Squid Service).
-            if (status.equals("success") && success != null && !success.isSpoofed()) {
+        // Call Dr. Squid Service for spoofed success, failure, and timeout.
+        LOGGER.info("Calling drsquid-service to spoof {} scenario {}...", outcome, forClientCallingServiceInProfile);
+        String queryString = getQueryString(client, downstreamPattern, profile, outcome, (behavior.getLevelCount() > 1) ? level : -1);
+        String token = getToken(queryString);
+        URI drSquidUri = getDrSquidUri(drSquidUrl, token);
+        if (drSquidUri == null) {
+            LOGGER.error("Can't call drsquid-service as \"drsquid.url\" is not a valid URL - {}", EXECUTING_INTERCEPTED_REQUEST);
+            return Interception.PROCEED;
+        }
+        return Interception.spoof(drSquidUri, forClientCallingServiceInProfile);
+    }
 
-                LOGGER.debug("Success is not spoofed {} - will call real service", forClientCallingServiceInProfile);
-                Delay delay = success.getDelay();
-                if (delay == null) {
-                    LOGGER.warn("Delay not configured for non-spoofed success {} - Defaulting to no delay.", forClientCallingServiceInProfile);
-                    return execution.execute(interceptedRequest, interceptedRequestBody);
-                }
+    /**
+     * The Dr. Squid Interceptor. Intercepts outgoing requests and either does nothing, spoofs the request
+     * using Dr. Squid Service, or waits before sending the original request - all dependent on the behavior
+     * configured in the Dr. Squid Config.
+     * @param interceptedRequest request being intercepted
+     * @param interceptedRequestBody body of the request being intercepted
+     * @param execution context of HTTP request execution, used to execute the returned response
+     * @return the response from the executed request
+     * @throws IOException IOException is wrapped around any exception thrown to match inheriting signature.
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest interceptedRequest, byte[] interceptedRequestBody, ClientHttpRequestExecution execution) throws IOException {
 
-                int timeToSleep = getTimeToSleep(delay);
-                LOGGER.debug("Sleeping for {} ms delay...", timeToSleep);
-                Thread.sleep(timeToSleep);
-                LOGGER.info("Performing non-spoofed success {}...", forClientCallingServiceInProfile);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
-            }
+        try {
 
-            // Get the Dr. Squid Service url.
-            String drSquidUrl = environment.getProperty("drsquid.url");
-            if (StringUtils.isBlank(drSquidUrl)) {
-                LOGGER.error("Can't call drsquid-service as \"drsquid.url\" environment variable is not defined - {}" + executingInterceptedRequest);
-                return execution.execute(interceptedRequest, interceptedRequestBody);
+            Interception interception = decide(interceptedRequest, interceptedRequestBody);
+            switch (interception.getAction()) {
+                case DELAY_THEN_PROCEED:
+                    if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                        LOGGER.debug("Sleeping for {} ns delay...", interception.getDelayInNanos());
+                    }
+                    preciseWaiter.waitFor(interception.getDelayInNanos());
+                    LOGGER.info("Performing non-spoofed success {}...", interception.getContext());
+                    return execution.execute(interceptedRequest, interceptedRequestBody);
+                case RESPOND:
+                    if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+                        LOGGER.debug("Sleeping for {} ns delay...", interception.getDelayInNanos());
+                    }
+                    preciseWaiter.waitFor(interception.getDelayInNanos());
+                    return new DrSquidClientHttpResponse(interception.getMockResponse());
+                case SPOOF:
+                    HttpRequest drSquidRequest = createDrSquidRequest(interceptedRequest, interception.getDrSquidUri());
+                    return drSquidServiceClient.execute(drSquidRequest, interceptedRequestBody);
+                case REDIRECT:
+                    // Through the application's client rather than Dr. Squid's, whose read timeout would cut it short.
+                    return execution.execute(createDrSquidRequest(interceptedRequest, interception.getDrSquidUri()), interceptedRequestBody);
+                default:
+                    return execution.execute(interceptedRequest, interceptedRequestBody);
             }
 
-            // Call Dr. Squid Service for spoofed success, failure, and timeout.
-            LOGGER.info("Calling drsquid-service to spoof {} scenario {}...", status, forClientCallingServiceInProfile);
-            String queryString = getQueryString(client, downstreamPattern, profile, status);
-            String token = getToken(queryString);
-            HttpRequest drSquidRequest = createDrSquidRequest(interceptedRequest, drSquidUrl, token);
-            return execution.execute(drSquidRequest, interceptedRequestBody);
-
         } catch (Exception e) {
             // Rethrow as IOException, since this method can only throw IOException.
             // This is so that non Dr. Squid related errors propagate up instead of looking like Dr. Squid errors.
             throw new IOException(e);
         }
     }
+
+    /**
+     * A charset and the name it was given by.
+     */
+    private static class NamedCharset {
+
+        private final String name;
+        private final Charset charset;
+
+        NamedCharset(String name, Charset charset) {
+            this.name = name;
+            this.charset = charset;
+        }
+    }
+
+    /**
+     * A resolved Dr. Squid config name: "drsquid.<client>.<profile>".
+     */
+    private static class ConfigName {
+
+        private final String name;
+        private final String client;
+        private final String profile;
+        private final String forClientInProfile;
+
+        ConfigName(String name) {
+            this.name = name;
+            String[] nameParts = name.split("\\.");
+            this.client = (nameParts.length > 2) ? nameParts[1] : null;
+            this.profile = (nameParts.length > 2) ? nameParts[2] : null;
+            this.forClientInProfile = String.format("for client \"%s\" in profile \"%s\"", client, profile);
+        }
+    }
 }
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+import java.net.URI;
+
+/**
+ * The intercepted request, sent to Dr. Squid Service instead.
+ */
+class DrSquidRequest extends HttpRequestWrapper {
+
+    private final URI drSquidUri;
+
+    DrSquidRequest(HttpRequest originalRequest, URI drSquidUri) {
+        super(originalRequest);
+        this.drSquidUri = drSquidUri;
+    }
+
+    @Override
+    public URI getURI() {
+        return drSquidUri;
+    }
+}
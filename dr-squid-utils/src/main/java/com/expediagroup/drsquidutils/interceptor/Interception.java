@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import com.expediagroup.drsquidutils.response.MockResponse;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * What Dr. Squid decided to do with an intercepted request. Produced by {@link DrSquidInterceptor#decide}, so that
+ * the blocking interceptor and the asynchronous clients all behave the same way and only differ in how they wait.
+ */
+public final class Interception {
+
+    public enum Action {
+        PROCEED, DELAY_THEN_PROCEED, SPOOF, REDIRECT, RESPOND
+    }
+
+    /**
+     * Shared instance for requests Dr. Squid leaves alone.
+     */
+    public static final Interception PROCEED = new Interception(Action.PROCEED, 0, null, null, null);
+
+    private final Action action;
+    private final long delayInNanos;
+    private final URI drSquidUri;
+    private final MockResponse mockResponse;
+    private final String context;
+
+    private Interception(Action action, long delayInNanos, URI drSquidUri, MockResponse mockResponse, String context) {
+        this.action = action;
+        this.delayInNanos = delayInNanos;
+        this.drSquidUri = drSquidUri;
+        this.mockResponse = mockResponse;
+        this.context = context;
+    }
+
+    /**
+     * The original request should be sent after waiting, as a non-spoofed success.
+     * @param delayInNanos time to wait before sending the original request, in nanoseconds
+     * @param context description of the client and service, for logging
+     * @return the interception
+     */
+    public static Interception delayThenProceed(long delayInNanos, String context) {
+        return new Interception(Action.DELAY_THEN_PROCEED, delayInNanos, null, null, context);
+    }
+
+    /**
+     * The request should be sent to dr-squid-service instead.
+     * @param drSquidUri dr-squid-service mock endpoint, including the token
+     * @param context description of the client and service, for logging
+     * @return the interception
+     */
+    public static Interception spoof(URI drSquidUri, String context) {
+        return new Interception(Action.SPOOF, 0, drSquidUri, null, context);
+    }
+
+    /**
+     * The request should be sent to another Dr. Squid URL, the timeout server, with the application's own client, so
+     * that its own timeouts are the ones tested.
+     * @param drSquidUri URI to send the request to, including the token
+     * @param context description of the client and service, for logging
+     * @return the interception
+     */
+    public static Interception redirect(URI drSquidUri, String context) {
+        return new Interception(Action.REDIRECT, 0, drSquidUri, null, context);
+    }
+
+    /**
+     * A mock response should be returned after waiting, without sending any request.
+     * @param delayInNanos time to wait before responding, in nanoseconds
+     * @param mockResponse the mock response, already encoded
+     * @param context description of the client and service, for logging
+     * @return the interception
+     */
+    public static Interception respond(long delayInNanos, MockResponse mockResponse, String context) {
+        return new Interception(Action.RESPOND, delayInNanos, null, mockResponse, context);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public long getDelayInNanos() {
+        return delayInNanos;
+    }
+
+    public Duration getDelay() {
+        return Duration.ofNanos(delayInNanos);
+    }
+
+    public URI getDrSquidUri() {
+        return drSquidUri;
+    }
+
+    public MockResponse getMockResponse() {
+        return mockResponse;
+    }
+
+    public String getContext() {
+        return context;
+    }
+}
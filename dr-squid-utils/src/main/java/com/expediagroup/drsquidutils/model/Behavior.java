@@ -15,36 +15,361 @@
  */
 package com.expediagroup.drsquidutils.model;
 
+import com.expediagroup.drsquidutils.sampler.Outcome;
+import com.expediagroup.drsquidutils.sampler.OutcomeSampler;
+import com.expediagroup.drsquidutils.sampler.OutcomeSequence;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.expediagroup.drsquidutils.utils.PercentageUtils;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Behavior {
 
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(Behavior.class));
+
+    /**
+     * Number of steps a schedule's level is rounded to, between the configured behavior and its peak.
+     */
+    public static final int SCHEDULE_STEPS = 32;
+
+    // Percentages between the configured ones and the peak are rounded to 0.01%, so deterministic cycles stay short.
+    private static final int SCHEDULE_PARTS_PER_MILLION = 100;
+
     private Success success;
-    private Failure failure;
+    private List<Failure> failures;
     private Timeout timeout;
+    private Sampling sampling;
+    private String hashHeader;
+    private Schedule schedule;
+
+    // Built once when the config is loaded for every level of the schedule, or just level 0 without one. Null if the
+    // percentages aren't valid.
+    private OutcomeSampler[] outcomeSamplers;
+    private double[] delayMultipliers;
+
+    // Only built for deterministic sampling.
+    private OutcomeSequence[] outcomeSequences;
+
+    // When the schedule started, from the monotonic clock. Carried over from the previous version on reloads.
+    private long startNanos = System.nanoTime();
+
+    public Behavior(Success success, Failure failure, Timeout timeout) {
+        this(success, failure, null, timeout, null, null, null);
+    }
+
+    public Behavior(Success success, Failure failure, List<Failure> failures, Timeout timeout, Sampling sampling, String hashHeader) {
+        this(success, failure, failures, timeout, sampling, hashHeader, null);
+    }
 
     @JsonCreator
     public Behavior(
             @JsonProperty(required = false, value = "success") Success success,
             @JsonProperty(required = false, value = "failure") Failure failure,
-            @JsonProperty(required = false, value = "timeout") Timeout timeout) {
+            @JsonProperty(required = false, value = "failures") List<Failure> failures,
+            @JsonProperty(required = false, value = "timeout") Timeout timeout,
+            @JsonProperty(required = false, value = "sampling") Sampling sampling,
+            @JsonProperty(required = false, value = "hash_header") String hashHeader,
+            @JsonProperty(required = false, value = "schedule") Schedule schedule) {
         this.success = success;
-        this.failure = failure;
+        this.failures = new ArrayList<>();
+        if (failure != null) {
+            this.failures.add(failure);
+        }
+        if (failures != null) {
+            for (Failure variant : failures) {
+                if (variant != null) {
+                    this.failures.add(variant);
+                }
+            }
+        }
+        this.failures = Collections.unmodifiableList(this.failures);
         this.timeout = timeout;
+        this.sampling = (sampling == null) ? Sampling.RANDOM : sampling;
+        this.hashHeader = hashHeader;
+        if (this.sampling == Sampling.CONSISTENT && (hashHeader == null || hashHeader.isEmpty())) {
+            LOGGER.error("Consistent sampling needs a hash_header to hash. Falling back to random sampling.");
+            this.sampling = Sampling.RANDOM;
+        }
+        this.schedule = schedule;
+        createOutcomeSamplers();
+    }
+
+    /**
+     * Validates the percentages and builds the sampler which draws the outcome of each call, along with the sequence
+     * handing them out for deterministic sampling. Percentages are converted to parts per million, so that fractions
+     * of a percent are drawn exactly.
+     *
+     * With a schedule, a sampler, sequence and delay multiplier are built for each of its levels, interpolated
+     * between the configured behavior and its peak, so that following the schedule only costs picking the level.
+     */
+    private void createOutcomeSamplers() {
+
+        int count = failures.size() + 2;
+        Outcome[] outcomes = new Outcome[count];
+        double[] percentages = new double[count];
+
+        outcomes[0] = Outcome.SUCCESS;
+        percentages[0] = (success == null) ? 0 : success.getPercentage();
+        for (int i = 0; i < failures.size(); i++) {
+            outcomes[i + 1] = Outcome.failure(i);
+            percentages[i + 1] = failures.get(i).getPercentage();
+        }
+        outcomes[count - 1] = Outcome.TIMEOUT;
+        percentages[count - 1] = (timeout == null) ? 0 : timeout.getPercentage();
+
+        int[] partsPerMillion = toPartsPerMillion(percentages, "Sum of success, failure and timeout percentages should be 100. Current sum is {}.");
+        if (partsPerMillion == null) {
+            return;
+        }
+
+        int[] peakPartsPerMillion = null;
+        if (schedule != null && schedule.isValid()) {
+            peakPartsPerMillion = toPartsPerMillion(getPeakPercentages(percentages), "Sum of the schedule's peak success, failure and timeout percentages should be 100. Current sum is {} - the behavior will not change over time.");
+        }
+
+        int levels = (peakPartsPerMillion == null) ? 1 : SCHEDULE_STEPS + 1;
+        this.outcomeSamplers = new OutcomeSampler[levels];
+        this.delayMultipliers = new double[levels];
+        if (this.sampling == Sampling.DETERMINISTIC) {
+            this.outcomeSequences = new OutcomeSequence[levels];
+        }
+
+        int[] previousWeights = null;
+        for (int level = 0; level < levels; level++) {
+
+            int[] weights;
+            if (level == 0) {
+                weights = partsPerMillion;
+            } else if (level == levels - 1) {
+                weights = peakPartsPerMillion;
+            } else {
+                weights = interpolate(partsPerMillion, peakPartsPerMillion, (double) level / SCHEDULE_STEPS);
+            }
+
+            // Levels with the same percentages share a sampler, and a sequence so that its cycle isn't cut short.
+            if (Arrays.equals(weights, previousWeights)) {
+                outcomeSamplers[level] = outcomeSamplers[level - 1];
+                if (outcomeSequences != null) {
+                    outcomeSequences[level] = outcomeSequences[level - 1];
+                }
+            } else {
+                outcomeSamplers[level] = new OutcomeSampler(outcomes, weights);
+                if (outcomeSequences != null) {
+                    outcomeSequences[level] = new OutcomeSequence(outcomes, weights);
+                }
+            }
+            previousWeights = weights;
+
+            delayMultipliers[level] = (levels == 1) ? 1 : 1 + (schedule.getPeakDelayMultiplier() - 1) * level / SCHEDULE_STEPS;
+        }
+    }
+
+    /**
+     * Gets the percentages at the peak of the schedule, falling back to the configured ones where it has none.
+     * @param percentages configured percentages: success, failures then timeout
+     * @return peak percentages in the same order
+     */
+    private double[] getPeakPercentages(double[] percentages) {
+
+        double[] peakPercentages = percentages.clone();
+        if (schedule.getPeakSuccessPercentage() != null) {
+            peakPercentages[0] = schedule.getPeakSuccessPercentage();
+        }
+        List<Double> peakFailurePercentages = schedule.getPeakFailurePercentages();
+        for (int i = 0; i < failures.size() && i < peakFailurePercentages.size(); i++) {
+            if (peakFailurePercentages.get(i) != null) {
+                peakPercentages[i + 1] = peakFailurePercentages.get(i);
+            }
+        }
+        if (schedule.getPeakTimeoutPercentage() != null) {
+            peakPercentages[percentages.length - 1] = schedule.getPeakTimeoutPercentage();
+        }
+        return peakPercentages;
+    }
+
+    /**
+     * Validates percentages and converts them to parts per million.
+     * @param percentages percentages to convert
+     * @param sumError error logged if they don't sum to 100, given the sum
+     * @return the parts per million, or null if the percentages aren't valid
+     */
+    private static int[] toPartsPerMillion(double[] percentages, String sumError) {
+
+        int[] partsPerMillion = new int[percentages.length];
+        long sumPartsPerMillion = 0;
+        for (int i = 0; i < percentages.length; i++) {
+            try {
+                partsPerMillion[i] = PercentageUtils.toPartsPerMillion(percentages[i]);
+            } catch (IllegalArgumentException e) {
+                LOGGER.error(e.getMessage());
+                return null;
+            }
+            sumPartsPerMillion += partsPerMillion[i];
+        }
+
+        if (sumPartsPerMillion != PercentageUtils.TOTAL_PARTS_PER_MILLION) {
+            LOGGER.error(sumError, Double.toString(PercentageUtils.toPercentage(sumPartsPerMillion)));
+            return null;
+        }
+        return partsPerMillion;
+    }
+
+    /**
+     * Interpolates between two sets of parts per million, each rounded to 0.01% and the rounding error taken up by
+     * the largest, so that they still sum to a million.
+     * @param from parts per million at 0
+     * @param to parts per million at 1
+     * @param fraction how far from one to the other, in the range [0,1]
+     * @return interpolated parts per million
+     */
+    private static int[] interpolate(int[] from, int[] to, double fraction) {
+
+        int[] weights = new int[from.length];
+        long sum = 0;
+        int largest = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double weight = from[i] + (to[i] - from[i]) * fraction;
+            weights[i] = (int) Math.round(weight / SCHEDULE_PARTS_PER_MILLION) * SCHEDULE_PARTS_PER_MILLION;
+            sum += weights[i];
+            if (weights[i] > weights[largest]) {
+                largest = i;
+            }
+        }
+        weights[largest] += PercentageUtils.TOTAL_PARTS_PER_MILLION - sum;
+        return weights;
     }
 
     public Success getSuccess() {
         return success;
     }
 
+    /**
+     * Gets the first configured failure.
+     * @return the failure, or null if none is configured
+     */
     public Failure getFailure() {
-        return failure;
+        return failures.isEmpty() ? null : failures.get(0);
+    }
+
+    /**
+     * Gets every configured failure: "failure" first, if configured, followed by the "failures" variants.
+     * @return the failures, indexed by {@link Outcome#getVariant()}
+     */
+    public List<Failure> getFailures() {
+        return failures;
     }
 
     public Timeout getTimeout() {
         return timeout;
     }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    /**
+     * Gets the request header whose value is hashed to draw the outcome of each call, for consistent sampling.
+     * @return the header name
+     */
+    public String getHashHeader() {
+        return hashHeader;
+    }
+
+    /**
+     * Gets how the behavior changes over time.
+     * @return the schedule, or null if the behavior doesn't change
+     */
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Gets the current level of the schedule, from the monotonic clock.
+     * @return level in the range [0, {@link #getLevelCount()}), always 0 without a schedule
+     */
+    public int getLevel() {
+        return getLevel(System.nanoTime());
+    }
+
+    /**
+     * Gets the level of the schedule at a time.
+     * @param nanoTime time from {@link System#nanoTime()}
+     * @return level in the range [0, {@link #getLevelCount()}), always 0 without a schedule
+     */
+    public int getLevel(long nanoTime) {
+        if (delayMultipliers == null || delayMultipliers.length == 1) {
+            return 0;
+        }
+        return (int) Math.round(schedule.getLevel(nanoTime - startNanos) * SCHEDULE_STEPS);
+    }
+
+    /**
+     * Carries on the schedule of the behavior this one replaces when its config is reloaded, so that editing a config
+     * doesn't restart ramps and cycles from level 0. Only called before the reloaded config is shared.
+     * @param previous behavior of the same service in the previous version of the config
+     */
+    public void continueSchedule(Behavior previous) {
+        if (previous != null && schedule != null && previous.schedule != null) {
+            startNanos = previous.startNanos;
+        }
+    }
+
+    /**
+     * Gets the number of levels the behavior has samplers for.
+     * @return {@link #SCHEDULE_STEPS} + 1 with a schedule, otherwise 1, or 0 if the percentages aren't valid
+     */
+    public int getLevelCount() {
+        return (delayMultipliers == null) ? 0 : delayMultipliers.length;
+    }
+
+    /**
+     * Gets the sampler drawing the outcome of each call.
+     * @return the sampler, or null if the percentages aren't valid (out of range, finer than 0.0001%, or not summing to 100)
+     */
+    public OutcomeSampler getOutcomeSampler() {
+        return getOutcomeSampler(0);
+    }
+
+    /**
+     * Gets the sampler drawing the outcome of each call at a level of the schedule.
+     * @param level level from {@link #getLevel()}
+     * @return the sampler, or null if the percentages aren't valid
+     */
+    public OutcomeSampler getOutcomeSampler(int level) {
+        return (outcomeSamplers == null) ? null : outcomeSamplers[level];
+    }
+
+    /**
+     * Gets the sequence handing out the outcome of each call, for deterministic sampling.
+     * @return the sequence, or null if sampling is random or the percentages aren't valid
+     */
+    public OutcomeSequence getOutcomeSequence() {
+        return getOutcomeSequence(0);
+    }
+
+    /**
+     * Gets the sequence handing out the outcome of each call at a level of the schedule, for deterministic sampling.
+     * @param level level from {@link #getLevel()}
+     * @return the sequence, or null if sampling is random or the percentages aren't valid
+     */
+    public OutcomeSequence getOutcomeSequence(int level) {
+        return (outcomeSequences == null) ? null : outcomeSequences[level];
+    }
+
+    /**
+     * Gets what delays are multiplied by at a level of the schedule.
+     * @param level level from {@link #getLevel()}
+     * @return the multiplier, 1 without a schedule
+     */
+    public double getDelayMultiplier(int level) {
+        return (delayMultipliers == null) ? 1 : delayMultipliers[level];
+    }
 }
@@ -15,14 +15,18 @@
  */
 package com.expediagroup.drsquidutils.model;
 
+import com.expediagroup.drsquidutils.routing.ServiceRouter;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Configuration for drsquid.
+ * Configuration for drsquid. Instances are shared between threads once loaded, so they must not be modified.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class DrSquidConfig {
@@ -31,8 +35,10 @@ public class DrSquidConfig {
     private LoggingLevel loggingLevel;
     private List<Service> services;
     private List<Database> databases;
+    private ServiceRouter serviceRouter;
 
     public DrSquidConfig() {
+        this.serviceRouter = new ServiceRouter(null);
     }
 
     @JsonCreator
@@ -43,8 +49,9 @@ public class DrSquidConfig {
             @JsonProperty(required = false, value = "databases") List<Database> databases) {
         this.enabled = enabled;
         this.loggingLevel = loggingLevel;
-        this.services = services;
-        this.databases = databases;
+        this.services = (services == null) ? null : Collections.unmodifiableList(services);
+        this.databases = (databases == null) ? null : Collections.unmodifiableList(databases);
+        this.serviceRouter = new ServiceRouter(services);
     }
 
     public boolean isEnabled() {
@@ -62,4 +69,58 @@ public class DrSquidConfig {
     public List<Service> getServices() {
         return services;
     }
+
+    /**
+     * Carries on the schedules of the services of the config this one replaces, matched by name, so that schedules
+     * keep running from when their service was first loaded. Only called before the reloaded config is shared.
+     * @param previous previous version of the config
+     */
+    public void continueSchedules(DrSquidConfig previous) {
+        if (services == null || previous == null || previous.services == null) {
+            return;
+        }
+        for (Service service : services) {
+            if (service == null || service.getBehavior() == null) {
+                continue;
+            }
+            for (Service previousService : previous.services) {
+                if (previousService != null && Objects.equals(service.getName(), previousService.getName())) {
+                    service.getBehavior().continueSchedule(previousService.getBehavior());
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the directory the relative mock response files of every success and failure are resolved against. Only
+     * called before the config is shared.
+     * @param configDirectory directory of the config file
+     */
+    public void setConfigDirectory(Path configDirectory) {
+        if (services == null) {
+            return;
+        }
+        for (Service service : services) {
+            Behavior behavior = (service == null) ? null : service.getBehavior();
+            if (behavior == null) {
+                continue;
+            }
+            if (behavior.getSuccess() != null) {
+                behavior.getSuccess().setConfigDirectory(configDirectory);
+            }
+            for (Failure failure : behavior.getFailures()) {
+                if (failure != null) {
+                    failure.setConfigDirectory(configDirectory);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the index used to match downstream URLs to the enabled services, built when the config was loaded.
+     */
+    public ServiceRouter getServiceRouter() {
+        return serviceRouter;
+    }
 }
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An exponential delay on top of a minimum: the minimum plus a delay with the given mean, mostly short with the odd
+ * long one.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExponentialDelay implements InverseCdfDelay {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(ExponentialDelay.class));
+
+    private double mean;
+    private double min;
+    private InverseCdfTable inverseCdfTable;
+
+    @JsonCreator
+    public ExponentialDelay(
+            @JsonProperty(required = true, value = DrSquidInterceptor.MEAN_VALUE_IN_MSECS) double mean,
+            @JsonProperty(required = false, value = DrSquidInterceptor.MIN_VALUE_IN_MSECS) double min) {
+        this.mean = mean;
+        this.min = min;
+
+        if (mean <= 0 || min < 0) {
+            LOGGER.error("Mean must be positive and minimum not negative for exponential delay.");
+            return;
+        }
+
+        this.inverseCdfTable = new InverseCdfTable(p -> min - mean * Math.log(1 - p));
+    }
+
+    @Override
+    public String getType() {
+        return DrSquidInterceptor.DELAY_EXPONENTIAL;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    @Override
+    public InverseCdfTable getInverseCdfTable() {
+        return inverseCdfTable;
+    }
+}
@@ -23,11 +23,11 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class FixedDelay implements Delay {
 
-    private int value;
+    private double value;
 
     @JsonCreator
     public FixedDelay(
-            @JsonProperty(required = true, value = DrSquidInterceptor.FIXED_VALUE_IN_MSECS) int value) {
+            @JsonProperty(required = true, value = DrSquidInterceptor.FIXED_VALUE_IN_MSECS) double value) {
         this.value = value;
     }
 
@@ -37,6 +37,14 @@ public class FixedDelay implements Delay {
     }
 
     public int getValue() {
-        return value;
+        return (int) value;
+    }
+
+    /**
+     * Gets the fixed delay with its fraction of a millisecond, if configured with one.
+     * @return time to wait in nanoseconds
+     */
+    public long getValueInNanos() {
+        return Math.round(value * 1000000);
     }
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.expediagroup.drsquidutils.utils.HistogramFileReader;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * A delay replayed from a recorded latency histogram, such as one captured in production, so that the delays follow
+ * the real distribution rather than an approximation of it. The histogram is read once, when the config is loaded,
+ * and each recorded value is spread evenly over the range of values HdrHistogram counts as equivalent to it.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HistogramDelay implements InverseCdfDelay {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(HistogramDelay.class));
+
+    private String file;
+    private TimeUnit unit;
+    private InverseCdfTable inverseCdfTable;
+
+    /**
+     * @param file path of an HdrHistogram log or binary histogram file, or name of a classpath resource
+     * @param unit time unit of the recorded values, e.g. "microseconds", milliseconds by default
+     */
+    @JsonCreator
+    public HistogramDelay(
+            @JsonProperty(required = true, value = DrSquidInterceptor.FILE) String file,
+            @JsonProperty(required = false, value = DrSquidInterceptor.UNIT) String unit) {
+        this.file = file;
+
+        try {
+            this.unit = (unit == null) ? TimeUnit.MILLISECONDS : TimeUnit.valueOf(unit.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Unsupported unit \"{}\" for histogram delay.", unit);
+            return;
+        }
+
+        AbstractHistogram histogram;
+        try {
+            histogram = HistogramFileReader.read(file);
+        } catch (IOException | DataFormatException | IllegalArgumentException e) {
+            LOGGER.error("Could not read the histogram file \"{}\": {}", file, e.getMessage());
+            return;
+        }
+
+        this.inverseCdfTable = toInverseCdfTable(histogram, this.unit.toNanos(1) / 1e6);
+    }
+
+    private InverseCdfTable toInverseCdfTable(AbstractHistogram histogram, double millisecondsPerUnit) {
+
+        int size = 0;
+        for (HistogramIterationValue ignored : histogram.recordedValues()) {
+            size++;
+        }
+        if (size == 0) {
+            LOGGER.error("The histogram file \"{}\" has no recorded values.", file);
+            return null;
+        }
+
+        // The iteration values are reused, so copy out each bucket as it goes.
+        double[] lows = new double[size];
+        double[] highs = new double[size];
+        long[] counts = new long[size];
+        int i = 0;
+        for (HistogramIterationValue value : histogram.recordedValues()) {
+            long recorded = value.getValueIteratedTo();
+            lows[i] = histogram.lowestEquivalentValue(recorded) * millisecondsPerUnit;
+            highs[i] = histogram.nextNonEquivalentValue(recorded) * millisecondsPerUnit;
+            counts[i] = value.getCountAddedInThisIterationStep();
+            i++;
+        }
+
+        return InverseCdfTable.fromBuckets(lows, highs, counts);
+    }
+
+    @Override
+    public String getType() {
+        return DrSquidInterceptor.DELAY_HISTOGRAM;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    @Override
+    public InverseCdfTable getInverseCdfTable() {
+        return inverseCdfTable;
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+
+/**
+ * A delay drawn from a distribution precomputed as a table of quantiles when the config is loaded.
+ */
+public interface InverseCdfDelay extends Delay {
+
+    /**
+     * Gets the precomputed distribution.
+     * @return the table, or null if the delay isn't configured properly
+     */
+    InverseCdfTable getInverseCdfTable();
+}
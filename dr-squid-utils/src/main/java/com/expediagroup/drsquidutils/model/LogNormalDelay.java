@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A log-normal delay, given by the mean and standard deviation of the delay itself. Long-tailed like most real
+ * latencies, and never negative.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LogNormalDelay implements InverseCdfDelay {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(LogNormalDelay.class));
+
+    private double mean;
+    private double stdDev;
+    private InverseCdfTable inverseCdfTable;
+
+    @JsonCreator
+    public LogNormalDelay(
+            @JsonProperty(required = true, value = DrSquidInterceptor.MEAN_VALUE_IN_MSECS) double mean,
+            @JsonProperty(required = true, value = DrSquidInterceptor.STD_VALUE_IN_MSECS) double stdDev) {
+        this.mean = mean;
+        this.stdDev = stdDev;
+
+        if (mean <= 0 || stdDev < 0) {
+            LOGGER.error("Mean must be positive and standard deviation not negative for lognormal delay.");
+            return;
+        }
+
+        // Parameters of the underlying normal distribution, from the mean and variance of the delay.
+        double sigmaSquared = Math.log(1 + (stdDev * stdDev) / (mean * mean));
+        double mu = Math.log(mean) - sigmaSquared / 2;
+        double sigma = Math.sqrt(sigmaSquared);
+        this.inverseCdfTable = new InverseCdfTable(p -> Math.exp(mu + sigma * InverseCdfTable.normalInverseCdf(p)));
+    }
+
+    @Override
+    public String getType() {
+        return DrSquidInterceptor.DELAY_LOGNORMAL;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    @Override
+    public InverseCdfTable getInverseCdfTable() {
+        return inverseCdfTable;
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A mixture of weighted delays, e.g. 95% fast and 5% slow. Components can be delays of any other type.
+ *
+ * The mixture is precomputed into a single table when the config is loaded, by inverting the weighted sum of the
+ * components' CDFs, so drawing from it costs the same as drawing from any other table.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MixtureDelay implements InverseCdfDelay {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(MixtureDelay.class));
+    private static final int BISECTION_STEPS = 60;
+
+    private List<Component> components;
+    private InverseCdfTable inverseCdfTable;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Component {
+
+        private double weight;
+        private Delay delay;
+
+        @JsonCreator
+        public Component(
+                @JsonProperty(required = true, value = DrSquidInterceptor.WEIGHT) double weight,
+                @JsonProperty(required = true, value = DrSquidInterceptor.DELAY) Delay delay) {
+            this.weight = weight;
+            this.delay = delay;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public Delay getDelay() {
+            return delay;
+        }
+    }
+
+    @JsonCreator
+    public MixtureDelay(
+            @JsonProperty(required = true, value = DrSquidInterceptor.COMPONENTS) List<Component> components) {
+        this.components = (components == null) ? Collections.<Component>emptyList() : components;
+        this.inverseCdfTable = createInverseCdfTable();
+    }
+
+    private InverseCdfTable createInverseCdfTable() {
+
+        int count = components.size();
+        InverseCdfTable[] tables = new InverseCdfTable[count];
+        double[] weights = new double[count];
+        double totalWeight = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+
+        for (int i = 0; i < count; i++) {
+            Component component = components.get(i);
+            tables[i] = toInverseCdfTable(component.getDelay());
+            weights[i] = component.getWeight();
+            if (tables[i] == null || !(weights[i] >= 0)) {
+                LOGGER.error("Mixture delay component {} is not configured properly.", Integer.toString(i));
+                return null;
+            }
+            totalWeight += weights[i];
+            min = Math.min(min, tables[i].getMin());
+            max = Math.max(max, tables[i].getMax());
+        }
+
+        if (!(totalWeight > 0)) {
+            LOGGER.error("Mixture delay needs at least one component with a positive weight.");
+            return null;
+        }
+
+        double lowest = min;
+        double highest = max;
+        double total = totalWeight;
+
+        // The quantile of the mixture is the smallest delay at which the mixture's CDF reaches the probability.
+        return new InverseCdfTable(probability -> {
+            double low = lowest;
+            double high = highest;
+            for (int step = 0; step < BISECTION_STEPS; step++) {
+                double middle = (low + high) / 2;
+                double cdf = 0;
+                for (int i = 0; i < tables.length; i++) {
+                    cdf += weights[i] * tables[i].cdf(middle);
+                }
+                if (cdf / total >= probability) {
+                    high = middle;
+                } else {
+                    low = middle;
+                }
+            }
+            return high;
+        });
+    }
+
+    /**
+     * Gets the distribution of any type of delay as a table.
+     * @param delay delay
+     * @return the table, or null if the delay type isn't supported or not configured properly
+     */
+    private static InverseCdfTable toInverseCdfTable(Delay delay) {
+
+        if (delay instanceof InverseCdfDelay) {
+            return ((InverseCdfDelay) delay).getInverseCdfTable();
+        }
+        if (delay instanceof FixedDelay) {
+            double value = ((FixedDelay) delay).getValueInNanos() / 1e6;
+            return new InverseCdfTable(probability -> value);
+        }
+        if (delay instanceof RangeDelay) {
+            int min = ((RangeDelay) delay).getMin();
+            int max = ((RangeDelay) delay).getMax();
+            return (min < 0 || min > max) ? null : new InverseCdfTable(probability -> min + probability * (max - min + 1));
+        }
+        if (delay instanceof NormalDelay) {
+            int mean = ((NormalDelay) delay).getMean();
+            int stdDev = ((NormalDelay) delay).getStdDev();
+            return (mean < 0 || stdDev < 0) ? null : new InverseCdfTable(probability -> mean + stdDev * InverseCdfTable.normalInverseCdf(probability));
+        }
+        return null;
+    }
+
+    @Override
+    public String getType() {
+        return DrSquidInterceptor.DELAY_MIXTURE;
+    }
+
+    public List<Component> getComponents() {
+        return components;
+    }
+
+    @Override
+    public InverseCdfTable getInverseCdfTable() {
+        return inverseCdfTable;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.response.BodyGenerator;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A mock response body of a configured size, generated as it is sent rather than held in memory, to stress a
+ * client's bandwidth and parsing. By default it is a JSON array repeating the configured element, padded with
+ * whitespace so that it is exactly the configured size.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MockResponseGenerator {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(MockResponseGenerator.class));
+    private static final String DEFAULT_CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private long sizeInBytes;
+    private String element;
+    private String prefix;
+    private String separator;
+    private String suffix;
+    private String contentType;
+    private BodyGenerator bodyGenerator;
+
+    /**
+     * @param sizeInBytes size of the body in bytes
+     * @param element text repeated to fill the body, e.g. a JSON object
+     * @param prefix text the body starts with, "[" by default
+     * @param separator text between elements, "," by default
+     * @param suffix text the body ends with, "]" by default
+     * @param contentType content type of the body, JSON by default
+     */
+    @JsonCreator
+    public MockResponseGenerator(
+            @JsonProperty(required = true, value = "size_in_bytes") long sizeInBytes,
+            @JsonProperty(required = true, value = "element") String element,
+            @JsonProperty(required = false, value = "prefix") String prefix,
+            @JsonProperty(required = false, value = "separator") String separator,
+            @JsonProperty(required = false, value = "suffix") String suffix,
+            @JsonProperty(required = false, value = "content_type") String contentType) {
+        this.sizeInBytes = sizeInBytes;
+        this.element = element;
+        this.prefix = (prefix == null) ? "[" : prefix;
+        this.separator = (separator == null) ? "," : separator;
+        this.suffix = (suffix == null) ? "]" : suffix;
+        this.contentType = (contentType == null) ? DEFAULT_CONTENT_TYPE : contentType;
+
+        try {
+            this.bodyGenerator = new BodyGenerator(sizeInBytes, this.prefix, (element == null) ? "" : element, this.separator, this.suffix);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid mock response generator: {}", e.getMessage());
+        }
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public String getElement() {
+        return element;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSeparator() {
+        return separator;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the generator compiled when the config was loaded.
+     * @return the body generator, or null if the configuration isn't valid
+     */
+    public BodyGenerator getBodyGenerator() {
+        return bodyGenerator;
+    }
+}
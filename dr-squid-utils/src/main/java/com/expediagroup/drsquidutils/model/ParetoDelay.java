@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Pareto delay: never below the minimum, with a heavy tail which gets heavier as alpha gets smaller. An alpha of
+ * 2 or less has no finite variance, and 1 or less no finite mean.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ParetoDelay implements InverseCdfDelay {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(ParetoDelay.class));
+
+    private double min;
+    private double alpha;
+    private InverseCdfTable inverseCdfTable;
+
+    @JsonCreator
+    public ParetoDelay(
+            @JsonProperty(required = true, value = DrSquidInterceptor.MIN_VALUE_IN_MSECS) double min,
+            @JsonProperty(required = true, value = DrSquidInterceptor.ALPHA) double alpha) {
+        this.min = min;
+        this.alpha = alpha;
+
+        if (min <= 0 || !(alpha > 0)) {
+            LOGGER.error("Minimum and alpha must be positive for pareto delay.");
+            return;
+        }
+
+        this.inverseCdfTable = new InverseCdfTable(p -> min / Math.pow(1 - p, 1 / alpha));
+    }
+
+    @Override
+    public String getType() {
+        return DrSquidInterceptor.DELAY_PARETO;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public InverseCdfTable getInverseCdfTable() {
+        return inverseCdfTable;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A delay given by some of its percentiles, e.g. "p50: 40, p99: 400, p999: 2000", rather than by the parameters of
+ * a distribution.
+ *
+ * Between two given percentiles, and from the minimum to the first one, the delay grows linearly with -ln(1 - p),
+ * so each piece is shaped like an exponential distribution and the tail keeps getting longer the way real latencies
+ * do. Above the last percentile, the last piece carries on at the same rate. Deserialized by the DelayDeserializer,
+ * since the percentiles are fields of their own.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PercentileDelay implements InverseCdfDelay {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(PercentileDelay.class));
+
+    /**
+     * Field names of percentiles: "p" then the percent without its decimal point, e.g. "p50", "p999" for 99.9.
+     */
+    public static final Pattern PERCENTILE_FIELD = Pattern.compile("p([0-9]{1,2})([0-9]*)");
+
+    private Map<String, Double> percentiles;
+    private double min;
+    private InverseCdfTable inverseCdfTable;
+
+    /**
+     * @param percentiles delay in milliseconds for each percentile field, e.g. "p99" to 400
+     * @param min delay in milliseconds at the 0th percentile
+     */
+    public PercentileDelay(Map<String, Double> percentiles, double min) {
+        this.percentiles = Collections.unmodifiableMap(new LinkedHashMap<>(percentiles));
+        this.min = min;
+
+        // Order the given delays by probability.
+        TreeMap<Double, Double> delays = new TreeMap<>();
+        for (Map.Entry<String, Double> percentile : percentiles.entrySet()) {
+            double probability = toProbability(percentile.getKey());
+            if (Double.isNaN(probability) || percentile.getValue() == null) {
+                LOGGER.error("Invalid percentile \"{}\" for percentile delay.", percentile.getKey());
+                return;
+            }
+            delays.put(probability, percentile.getValue());
+        }
+        if (delays.isEmpty() || min < 0) {
+            LOGGER.error("Percentile delay needs at least one percentile and a minimum that isn't negative.");
+            return;
+        }
+
+        // Knots of the piecewise linear delay, against -ln(1 - p), starting from the minimum at p = 0.
+        double[] knots = new double[delays.size() + 1];
+        double[] values = new double[delays.size() + 1];
+        values[0] = min;
+        int i = 1;
+        for (Map.Entry<Double, Double> delay : delays.entrySet()) {
+            knots[i] = -Math.log(1 - delay.getKey());
+            values[i] = delay.getValue();
+            if (values[i] < values[i - 1]) {
+                LOGGER.error("Percentile delay must not get shorter at higher percentiles, or be shorter than its minimum.");
+                return;
+            }
+            i++;
+        }
+
+        this.inverseCdfTable = new InverseCdfTable(p -> interpolate(knots, values, -Math.log(1 - p)));
+    }
+
+    /**
+     * Converts a percentile field name to a probability, the first two digits being the whole percent.
+     * @param field field name, e.g. "p50" or "p999"
+     * @return probability in (0,1), e.g. 0.5 or 0.999, otherwise NaN
+     */
+    public static double toProbability(String field) {
+        Matcher matcher = PERCENTILE_FIELD.matcher(field);
+        if (!matcher.matches()) {
+            return Double.NaN;
+        }
+        double percent = Double.parseDouble(matcher.group(1) + "." + matcher.group(2) + "0");
+        return (percent > 0 && !field.startsWith("p100")) ? percent / 100 : Double.NaN;
+    }
+
+    private static double interpolate(double[] knots, double[] values, double x) {
+        int i = 1;
+        while (i < knots.length - 1 && knots[i] < x) {
+            i++;
+        }
+        return values[i - 1] + (x - knots[i - 1]) * (values[i] - values[i - 1]) / (knots[i] - knots[i - 1]);
+    }
+
+    @Override
+    public String getType() {
+        return DrSquidInterceptor.DELAY_PERCENTILE;
+    }
+
+    public Map<String, Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    @Override
+    public InverseCdfTable getInverseCdfTable() {
+        return inverseCdfTable;
+    }
+}
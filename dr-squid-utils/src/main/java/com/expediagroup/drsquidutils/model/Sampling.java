@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+/**
+ * How the outcome of each call to a service is chosen.
+ * RANDOM draws each outcome independently with the configured percentages.
+ * DETERMINISTIC hands out outcomes in a fixed order which matches the configured percentages exactly.
+ * CONSISTENT draws each outcome from a hash of a request header and the service name, so every call carrying the same
+ * header value gets the same outcome from a service, in every JVM.
+ */
+public enum Sampling {
+    RANDOM, DETERMINISTIC, CONSISTENT
+}
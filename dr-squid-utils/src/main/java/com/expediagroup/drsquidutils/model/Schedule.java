@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a behavior changes over time, from the configured percentages and delays towards a peak and back, e.g. a
+ * downstream slowly degrading or having a brownout every few minutes.
+ *
+ * The schedule gives a level between 0 and 1 for the time elapsed since the service was first loaded: at 0 the
+ * behavior is as configured, at 1 it has the peak percentages and its delays are multiplied by the peak delay
+ * multiplier, and in between both are interpolated. The level is a plain function of elapsed time, so it needs no
+ * state. Reloading a config keeps each service's schedule running, even if the schedule itself was edited, so it only
+ * restarts when its service is renamed, loses its schedule, or the application restarts.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Schedule {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(Schedule.class));
+    private static final double[] DEFAULT_LEVELS = {0, 1};
+
+    private ScheduleType type;
+    private double durationInSecs;
+    private double burstInSecs;
+    private double[] levels;
+    private double peakDelayMultiplier;
+    private Double peakSuccessPercentage;
+    private List<Double> peakFailurePercentages;
+    private Double peakTimeoutPercentage;
+
+    // Precomputed for getLevel.
+    private double durationInNanos;
+    private double burstFraction;
+    private boolean valid;
+
+    @JsonCreator
+    public Schedule(
+            @JsonProperty(required = true, value = "type") ScheduleType type,
+            @JsonProperty(required = true, value = "duration_in_secs") double durationInSecs,
+            @JsonProperty(required = false, value = "burst_in_secs") double burstInSecs,
+            @JsonProperty(required = false, value = "levels") List<Double> levels,
+            @JsonProperty(required = false, value = "peak_delay_multiplier") Double peakDelayMultiplier,
+            @JsonProperty(required = false, value = "peak_success_percentage") Double peakSuccessPercentage,
+            @JsonProperty(required = false, value = "peak_failure_percentages") List<Double> peakFailurePercentages,
+            @JsonProperty(required = false, value = "peak_timeout_percentage") Double peakTimeoutPercentage) {
+        this.type = type;
+        this.durationInSecs = durationInSecs;
+        this.burstInSecs = burstInSecs;
+        this.levels = toLevels(levels);
+        this.peakDelayMultiplier = (peakDelayMultiplier == null) ? 1 : peakDelayMultiplier;
+        this.peakSuccessPercentage = peakSuccessPercentage;
+        this.peakFailurePercentages = (peakFailurePercentages == null) ? Collections.<Double>emptyList() : Collections.unmodifiableList(peakFailurePercentages);
+        this.peakTimeoutPercentage = peakTimeoutPercentage;
+        this.durationInNanos = durationInSecs * TimeUnit.SECONDS.toNanos(1);
+        this.burstFraction = burstInSecs / durationInSecs;
+        this.valid = validate();
+    }
+
+    private static double[] toLevels(List<Double> levels) {
+
+        if (levels == null || levels.isEmpty()) {
+            return DEFAULT_LEVELS;
+        }
+        double[] values = new double[levels.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (levels.get(i) == null) ? Double.NaN : levels.get(i);
+        }
+        return values;
+    }
+
+    private boolean validate() {
+
+        if (type == null) {
+            LOGGER.error("Schedule type is missing - the behavior will not change over time.");
+            return false;
+        }
+        if (!(durationInSecs > 0) || Double.isInfinite(durationInSecs)) {
+            LOGGER.error("Schedule duration_in_secs must be positive. {} found - the behavior will not change over time.", Double.toString(durationInSecs));
+            return false;
+        }
+        if (type == ScheduleType.BURST && !(burstInSecs > 0 && burstInSecs <= durationInSecs)) {
+            LOGGER.error("Burst schedule burst_in_secs must be positive and at most duration_in_secs. {} found - the behavior will not change over time.", Double.toString(burstInSecs));
+            return false;
+        }
+        if (type == ScheduleType.STEP) {
+            for (double level : levels) {
+                if (!(level >= 0 && level <= 1)) {
+                    LOGGER.error("Step schedule levels must be in the range [0,1]. {} found - the behavior will not change over time.", Double.toString(level));
+                    return false;
+                }
+            }
+        } else if (levels != DEFAULT_LEVELS) {
+            LOGGER.warn("Schedule levels only apply to STEP schedules - they are ignored by this {} schedule.", type);
+        }
+        if (!(peakDelayMultiplier >= 0) || Double.isInfinite(peakDelayMultiplier)) {
+            LOGGER.error("Schedule peak_delay_multiplier must not be negative. {} found - the behavior will not change over time.", Double.toString(peakDelayMultiplier));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the level of the schedule after some time.
+     * @param elapsedNanos time elapsed since the schedule started, in nanoseconds
+     * @return level in the range [0,1], always 0 if the schedule isn't valid
+     */
+    public double getLevel(long elapsedNanos) {
+
+        if (!valid) {
+            return 0;
+        }
+
+        // Elapsed time in durations: ramp lengths, steps or periods.
+        double elapsed = Math.max(0, elapsedNanos) / durationInNanos;
+        switch (type) {
+            case RAMP:
+                return Math.min(1, elapsed);
+            case STEP:
+                return levels[(int) Math.min(elapsed, levels.length - 1)];
+            case SINE:
+                return (1 - Math.cos(2 * Math.PI * elapsed)) / 2;
+            case BURST:
+                return (elapsed - Math.floor(elapsed) >= 1 - burstFraction) ? 1 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Checks whether the schedule is configured properly. Invalid schedules are logged when the config is loaded and
+     * then ignored.
+     * @return true if the schedule is valid
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public ScheduleType getType() {
+        return type;
+    }
+
+    public double getDurationInSecs() {
+        return durationInSecs;
+    }
+
+    public double getBurstInSecs() {
+        return burstInSecs;
+    }
+
+    public double getPeakDelayMultiplier() {
+        return peakDelayMultiplier;
+    }
+
+    /**
+     * Gets the success percentage at the peak of the schedule.
+     * @return the percentage, or null to keep the configured one
+     */
+    public Double getPeakSuccessPercentage() {
+        return peakSuccessPercentage;
+    }
+
+    /**
+     * Gets the failure percentages at the peak of the schedule, in the order of {@link Behavior#getFailures()}.
+     * @return the percentages, shorter than the failures or holding nulls to keep the configured ones
+     */
+    public List<Double> getPeakFailurePercentages() {
+        return peakFailurePercentages;
+    }
+
+    /**
+     * Gets the timeout percentage at the peak of the schedule.
+     * @return the percentage, or null to keep the configured one
+     */
+    public Double getPeakTimeoutPercentage() {
+        return peakTimeoutPercentage;
+    }
+}
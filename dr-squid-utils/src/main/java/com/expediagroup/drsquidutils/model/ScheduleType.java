@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+/**
+ * Shape of a behavior's schedule over time, as a level between 0 (the configured behavior) and 1 (its peak).
+ * RAMP rises linearly to the peak, then stays there.
+ * STEP moves through a list of levels, each held for the same time, then stays on the last one.
+ * SINE rises to the peak and back down again every period, smoothly.
+ * BURST jumps to the peak for a short time at the end of every period.
+ */
+public enum ScheduleType {
+    RAMP, STEP, SINE, BURST
+}
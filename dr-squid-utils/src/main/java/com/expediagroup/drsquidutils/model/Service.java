@@ -15,11 +15,19 @@
  */
 package com.expediagroup.drsquidutils.model;
 
+import com.expediagroup.drsquidutils.routing.ByteSearcher;
+import com.expediagroup.drsquidutils.sampler.ConsistentHash;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.http.HttpMethod;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Service {
 
@@ -31,6 +39,10 @@ public class Service {
     private boolean enabled;
     private LoggingLevel loggingLevel;
     private Behavior behavior;
+    private long nameHash;
+
+    // Body keyword compiled for each charset request bodies have come in, UTF-8 up front as the most likely one.
+    private final ConcurrentMap<Charset, ByteSearcher> bodyKeywordSearchers = new ConcurrentHashMap<>();
 
     @JsonCreator
     public Service(
@@ -50,12 +62,25 @@ public class Service {
         this.enabled = enabled;
         this.loggingLevel = loggingLevel;
         this.behavior = behavior;
+        this.nameHash = (name == null) ? 0 : ConsistentHash.hash(name);
+
+        if (bodyKeyword != null) {
+            getBodyKeywordSearcher(StandardCharsets.UTF_8);
+        }
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Gets the hash of the service name, combined with the hashed key for consistent sampling.
+     * @return the hash, the same in every JVM
+     */
+    public long getNameHash() {
+        return nameHash;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -72,6 +97,36 @@ public class Service {
         return bodyKeyword;
     }
 
+    /**
+     * Gets the body keyword compiled for searching request bodies encoded with a charset.
+     * @param charset charset of the request body
+     * @return the searcher, or null if no body keyword is configured
+     */
+    public ByteSearcher getBodyKeywordSearcher(Charset charset) {
+        if (bodyKeyword == null) {
+            return null;
+        }
+        // Plain get first, as computeIfAbsent locks even when the entry is already there on Java 8.
+        ByteSearcher searcher = bodyKeywordSearchers.get(charset);
+        if (searcher == null) {
+            searcher = bodyKeywordSearchers.computeIfAbsent(charset, c -> new ByteSearcher(encodeBodyKeyword(c)));
+        }
+        return searcher;
+    }
+
+    /**
+     * Encodes the body keyword as it appears within a body, without the byte order mark some charsets (e.g. UTF-16)
+     * write at the start of whatever they encode.
+     * @param charset charset of the request body
+     * @return the encoded keyword
+     */
+    private byte[] encodeBodyKeyword(Charset charset) {
+        byte[] bytes = bodyKeyword.getBytes(charset);
+        // A mark is only written once however much is encoded, so encoding the keyword twice gives away its length.
+        int markLength = 2 * bytes.length - (bodyKeyword + bodyKeyword).getBytes(charset).length;
+        return (markLength > 0 && markLength < bytes.length) ? Arrays.copyOfRange(bytes, markLength, bytes.length) : bytes;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -15,34 +15,53 @@
  */
 package com.expediagroup.drsquidutils.model;
 
+import com.expediagroup.drsquidutils.response.LazyMockResponse;
+import com.expediagroup.drsquidutils.response.MockResponse;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.nio.file.Path;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Success {
 
-    private int percentage;
+    private double percentage;
     private boolean spoofed;
     private String mockResponseBody;
+    private String mockResponseFile;
+    private MockResponseGenerator mockResponseGenerator;
     private int mockStatusCode;
     private Delay delay;
+    private Throttle throttle;
+    private LazyMockResponse mockResponse;
+
+    public Success(double percentage, boolean spoofed, String mockResponseBody, int mockStatusCode, Delay delay) {
+        this(percentage, spoofed, mockResponseBody, null, null, mockStatusCode, delay, null);
+    }
 
     @JsonCreator
     public Success(
-            @JsonProperty(required = true, value = "percentage") int percentage,
+            @JsonProperty(required = true, value = "percentage") double percentage,
             @JsonProperty(required = true, value = "spoofed") boolean spoofed,
             @JsonProperty(value = "mock_response_body", defaultValue = "spoofing success with drSquid") String mockResponseBody,
+            @JsonProperty(required = false, value = "mock_response_file") String mockResponseFile,
+            @JsonProperty(required = false, value = "mock_response_generator") MockResponseGenerator mockResponseGenerator,
             @JsonProperty(required = true, value = "mock_status_code") int mockStatusCode,
-            @JsonProperty(required = true, value = "delay") Delay delay) {
+            @JsonProperty(required = true, value = "delay") Delay delay,
+            @JsonProperty(required = false, value = "throttle") Throttle throttle) {
         this.percentage = percentage;
         this.spoofed = spoofed;
         this.mockResponseBody = mockResponseBody;
+        this.mockResponseFile = mockResponseFile;
+        this.mockResponseGenerator = mockResponseGenerator;
         this.mockStatusCode = mockStatusCode;
         this.delay = delay;
+        this.throttle = throttle;
+        this.mockResponse = new LazyMockResponse(mockStatusCode, mockResponseBody, mockResponseFile, mockResponseGenerator);
     }
 
-    public int getPercentage() {
+    public double getPercentage() {
         return percentage;
     }
 
@@ -54,6 +73,14 @@ public class Success {
         return mockResponseBody;
     }
 
+    public String getMockResponseFile() {
+        return mockResponseFile;
+    }
+
+    public MockResponseGenerator getMockResponseGenerator() {
+        return mockResponseGenerator;
+    }
+
     public int getMockStatusCode() {
         return mockStatusCode;
     }
@@ -61,4 +88,29 @@ public class Success {
     public Delay getDelay() {
         return delay;
     }
+
+    /**
+     * Gets how fast dr-squid-service sends the body.
+     * @return the throttle, or null if the body is sent at full speed
+     */
+    public Throttle getThrottle() {
+        return throttle;
+    }
+
+    /**
+     * Gets the mock response. Inline and generated bodies are encoded when the config was loaded, and a mock response
+     * file is mapped on the first call.
+     * @return the mock response
+     */
+    public MockResponse getMockResponse() {
+        return mockResponse.get();
+    }
+
+    /**
+     * Sets the directory a relative mock response file is resolved against. Only called before the config is shared.
+     * @param configDirectory directory of the config file
+     */
+    public void setConfigDirectory(Path configDirectory) {
+        mockResponse.setConfigDirectory(configDirectory);
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How fast dr-squid-service sends a mock response body once its delay is over, e.g. a degraded downstream which
+ * answers quickly but then trickles its body out. The body is sent in chunks, each one once the bytes before it
+ * have taken their share of time at the configured rate.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Throttle {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(Throttle.class));
+
+    // By default about ten chunks are sent a second, within these bounds.
+    private static final int CHUNKS_PER_SEC = 10;
+    private static final int MIN_DEFAULT_CHUNK_SIZE = 256;
+    private static final int MAX_DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private long bytesPerSec;
+    private int chunkSizeInBytes;
+    private boolean valid;
+
+    /**
+     * @param bytesPerSec rate the body is sent at
+     * @param chunkSizeInBytes size of each write, by default about a tenth of the rate
+     */
+    @JsonCreator
+    public Throttle(
+            @JsonProperty(required = true, value = "bytes_per_sec") long bytesPerSec,
+            @JsonProperty(required = false, value = "chunk_size_in_bytes") Integer chunkSizeInBytes) {
+        this.bytesPerSec = bytesPerSec;
+        this.chunkSizeInBytes = (chunkSizeInBytes == null)
+                ? (int) Math.max(MIN_DEFAULT_CHUNK_SIZE, Math.min(MAX_DEFAULT_CHUNK_SIZE, bytesPerSec / CHUNKS_PER_SEC))
+                : chunkSizeInBytes;
+        this.valid = validate();
+    }
+
+    private boolean validate() {
+
+        if (bytesPerSec <= 0) {
+            LOGGER.error("Invalid throttle - bytes_per_sec must be positive, not {}. The body will be sent at full speed.", bytesPerSec);
+            return false;
+        }
+        if (chunkSizeInBytes <= 0) {
+            LOGGER.error("Invalid throttle - chunk_size_in_bytes must be positive, not {}. The body will be sent at full speed.", chunkSizeInBytes);
+            return false;
+        }
+        return true;
+    }
+
+    public long getBytesPerSec() {
+        return bytesPerSec;
+    }
+
+    public int getChunkSizeInBytes() {
+        return chunkSizeInBytes;
+    }
+
+    /**
+     * Gets how long a body takes to send at the configured rate.
+     * @param contentLength size of the body in bytes
+     * @return transfer time in nanoseconds
+     */
+    public long getTransferTimeNanos(long contentLength) {
+        return (long) (contentLength * ((double) TimeUnit.SECONDS.toNanos(1) / bytesPerSec));
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+}
@@ -15,29 +15,60 @@
  */
 package com.expediagroup.drsquidutils.model;
 
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.LoggerFactory;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Timeout {
 
-    private int percentage;
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(Timeout.class));
+    private static final int MAX_STALL_AFTER_BYTES = 1 << 20;
+
+    private double percentage;
     private Delay delay;
+    private TimeoutMode mode;
+    private int stallAfterBytes;
+
+    public Timeout(double percentage, Delay delay) {
+        this(percentage, delay, null, null);
+    }
 
     @JsonCreator
     public Timeout(
-            @JsonProperty(required = true, value = "percentage") int percentage,
-            @JsonProperty(required = true, value = "delay") Delay delay) {
+            @JsonProperty(required = true, value = "percentage") double percentage,
+            @JsonProperty(required = true, value = "delay") Delay delay,
+            @JsonProperty(required = false, value = "mode") TimeoutMode mode,
+            @JsonProperty(required = false, value = "stall_after_bytes") Integer stallAfterBytes) {
         this.percentage = percentage;
         this.delay = delay;
+        this.mode = (mode == null) ? TimeoutMode.RESPOND : mode;
+        this.stallAfterBytes = (stallAfterBytes == null) ? 0 : stallAfterBytes;
+        if (this.stallAfterBytes < 0 || this.stallAfterBytes > MAX_STALL_AFTER_BYTES) {
+            LOGGER.error("Invalid timeout - stall_after_bytes must be between 0 and {}, not {}. No body will be sent before stalling.", MAX_STALL_AFTER_BYTES, this.stallAfterBytes);
+            this.stallAfterBytes = 0;
+        }
     }
 
-    public int getPercentage() {
+    public double getPercentage() {
         return percentage;
     }
 
     public Delay getDelay() {
         return delay;
     }
+
+    public TimeoutMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets how much of the body is sent before a STALL timeout stops sending.
+     * @return number of body bytes, 0 to send only the status line and headers
+     */
+    public int getStallAfterBytes() {
+        return stallAfterBytes;
+    }
 }
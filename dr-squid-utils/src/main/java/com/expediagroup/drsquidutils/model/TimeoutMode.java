@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+/**
+ * What a client sees when a call times out.
+ * RESPOND waits for the delay, then responds with a 500 status code.
+ * HANG never responds, holding the connection open until the client gives up.
+ * CLOSE waits for the delay, then closes the connection without responding.
+ * RESET waits for the delay, then resets the connection (TCP RST).
+ * STALL waits for the delay, then sends the status line, headers and part of the body, and never sends the rest.
+ */
+public enum TimeoutMode {
+    RESPOND, HANG, CLOSE, RESET, STALL
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates a body of an exact size by repeating an element between a prefix and a suffix, e.g. a JSON array of
+ * the same object, padded with spaces before the suffix to make up the size. Compiled once: the repeated elements
+ * are laid out in a single chunk of about 64 KB, and every body is written by sending that same chunk over and over,
+ * so bodies of any size are generated without being held in memory.
+ */
+public class BodyGenerator {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final byte PADDING = ' ';
+
+    private final long size;
+    private final long elementCount;
+    private final Segment[] segments;
+
+    /**
+     * Compiles a body generator.
+     * @param size size of the body in bytes
+     * @param prefix text the body starts with, e.g. "["
+     * @param element text repeated to fill the body, must not be empty
+     * @param separator text between elements, e.g. ","
+     * @param suffix text the body ends with, e.g. "]"
+     * @throws IllegalArgumentException if the element is empty or the size is smaller than the prefix and suffix
+     */
+    public BodyGenerator(long size, String prefix, String element, String separator, String suffix) {
+
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] elementBytes = element.getBytes(StandardCharsets.UTF_8);
+        byte[] separatorBytes = separator.getBytes(StandardCharsets.UTF_8);
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+
+        if (elementBytes.length == 0) {
+            throw new IllegalArgumentException("The element must not be empty.");
+        }
+        long frame = (long) prefixBytes.length + suffixBytes.length;
+        if (size < frame) {
+            throw new IllegalArgumentException("The size " + size + " is smaller than the prefix and suffix, " + frame + " bytes.");
+        }
+
+        // Each element after the first comes with a separator, as one unit.
+        int unitLength = separatorBytes.length + elementBytes.length;
+        long elements = (size < frame + elementBytes.length) ? 0 : 1 + (size - frame - elementBytes.length) / unitLength;
+        long filled = frame + ((elements == 0) ? 0 : elementBytes.length + (elements - 1) * unitLength);
+
+        int unitsPerChunk = Math.max(1, CHUNK_SIZE / unitLength);
+        byte[] chunk = new byte[unitsPerChunk * unitLength];
+        for (int unit = 0; unit < unitsPerChunk; unit++) {
+            System.arraycopy(separatorBytes, 0, chunk, unit * unitLength, separatorBytes.length);
+            System.arraycopy(elementBytes, 0, chunk, unit * unitLength + separatorBytes.length, elementBytes.length);
+        }
+
+        List<Segment> parts = new ArrayList<>();
+        parts.add(new Segment(prefixBytes, prefixBytes.length, 1));
+        if (elements > 0) {
+            long units = elements - 1;
+            parts.add(new Segment(elementBytes, elementBytes.length, 1));
+            parts.add(new Segment(chunk, chunk.length, units / unitsPerChunk));
+            parts.add(new Segment(chunk, (int) (units % unitsPerChunk) * unitLength, 1));
+        }
+        // Less than a unit is left over, so the padding is small.
+        byte[] padding = new byte[(int) (size - filled)];
+        Arrays.fill(padding, PADDING);
+        parts.add(new Segment(padding, padding.length, 1));
+        parts.add(new Segment(suffixBytes, suffixBytes.length, 1));
+        parts.removeIf(segment -> segment.length == 0 || segment.count == 0);
+
+        this.size = size;
+        this.elementCount = elements;
+        this.segments = parts.toArray(new Segment[0]);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Writes the whole body.
+     * @param outputStream stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        for (Segment segment : segments) {
+            for (long i = 0; i < segment.count; i++) {
+                outputStream.write(segment.bytes, 0, segment.length);
+            }
+        }
+    }
+
+    /**
+     * Opens a stream generating the body from the start.
+     * @return stream reading the body
+     */
+    public InputStream open() {
+        return new GeneratedInputStream();
+    }
+
+    /**
+     * The bytes of a segment, sent a number of times in a row.
+     */
+    private static final class Segment {
+
+        private final byte[] bytes;
+        private final int length;
+        private final long count;
+
+        Segment(byte[] bytes, int length, long count) {
+            this.bytes = bytes;
+            this.length = length;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Reads through the segments, each as many times as it is sent.
+     */
+    private final class GeneratedInputStream extends InputStream {
+
+        private int segment;
+        private long repetition;
+        private int offset;
+        private long remaining = size;
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return (read(single, 0, 1) < 0) ? -1 : (single[0] & 0xff);
+        }
+
+        @Override
+        public int read(byte[] bytes, int start, int length) {
+
+            if (length == 0) {
+                return 0;
+            }
+            if (segment == segments.length) {
+                return -1;
+            }
+
+            int read = 0;
+            while (read < length && segment < segments.length) {
+                Segment current = segments[segment];
+                int count = Math.min(length - read, current.length - offset);
+                System.arraycopy(current.bytes, offset, bytes, start + read, count);
+                read += count;
+                offset += count;
+                if (offset == current.length) {
+                    offset = 0;
+                    if (++repetition == current.count) {
+                        repetition = 0;
+                        segment++;
+                    }
+                }
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+    }
+}
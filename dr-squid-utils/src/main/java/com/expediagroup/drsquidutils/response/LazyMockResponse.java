@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.response;
+
+import com.expediagroup.drsquidutils.model.MockResponseGenerator;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The mock response of a config outcome. Inline and generated bodies are compiled when the config is loaded, but a
+ * mock response file is only mapped the first time the response is sent, so client apps which load the config but
+ * leave responding to dr-squid-service never map the files it names.
+ *
+ * Relative file paths are resolved against the directory of the config file, or against the working directory for
+ * configs read from the classpath.
+ */
+public final class LazyMockResponse {
+
+    private final int statusCode;
+    private final String body;
+    private final String file;
+    private volatile Path configDirectory;
+    private volatile MockResponse mockResponse;
+
+    /**
+     * Compiles the mock response of a config outcome, leaving its file, if it has one, to be mapped when needed.
+     * @param statusCode status code of the mock response
+     * @param body inline body, may be null
+     * @param file path of the file holding the body, may be null
+     * @param generator generator of the body, may be null
+     */
+    public LazyMockResponse(int statusCode, String body, String file, MockResponseGenerator generator) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.file = file;
+        if (file == null || generator != null) {
+            this.mockResponse = MockResponse.of(statusCode, body, null, generator);
+        }
+    }
+
+    /**
+     * Sets the directory relative file paths are resolved against. Only called before the config is shared.
+     * @param configDirectory directory of the config file
+     */
+    public void setConfigDirectory(Path configDirectory) {
+        this.configDirectory = configDirectory;
+    }
+
+    /**
+     * Gets the mock response, mapping its file on the first call.
+     * @return the mock response, with the inline body if the file can't be read
+     */
+    public MockResponse get() {
+
+        MockResponse compiled = mockResponse;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = mockResponse;
+                if (compiled == null) {
+                    compiled = MockResponse.of(statusCode, body, resolveFile().toString(), null);
+                    mockResponse = compiled;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    private Path resolveFile() {
+        Path path = Paths.get(file);
+        return (configDirectory == null) ? path : configDirectory.resolve(path);
+    }
+}
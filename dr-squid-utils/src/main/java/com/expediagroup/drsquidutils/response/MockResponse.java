@@ -0,0 +1,290 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.response;
+
+import com.expediagroup.drsquidutils.model.MockResponseGenerator;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A mock response compiled once, when the config is loaded: the body is encoded to UTF-8 and the headers, content
+ * length included, are worked out up front. Every response mocking the same outcome then shares the same bytes, so
+ * large bodies aren't re-encoded or copied per request.
+ *
+ * Bodies can also be read from a file, which is memory-mapped rather than loaded onto the heap, the first time its
+ * response is sent (see {@link LazyMockResponse}). Every config loaded from the same file then shares the same pages
+ * of the page cache, and a response only copies its body through a small per-thread buffer as it is sent, unless
+ * dr-squid-service can have the servlet container send the file itself. Or they can be generated to a configured size by a {@link BodyGenerator}, as
+ * they are sent.
+ */
+public final class MockResponse {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(MockResponse.class));
+    private static final MediaType CONTENT_TYPE = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final int WRITE_CHUNK_SIZE = 64 * 1024;
+
+    // Output streams only take arrays, so mapped bodies are copied through this, a chunk at a time.
+    private static final ThreadLocal<byte[]> WRITE_CHUNK = ThreadLocal.withInitial(() -> new byte[WRITE_CHUNK_SIZE]);
+
+    /**
+     * The response sent back once a timeout's delay is over.
+     */
+    public static final MockResponse TIMEOUT = new MockResponse(500, "");
+
+    private final int statusCode;
+    private final byte[] body;
+    private final ByteBuffer mappedBody;
+    private final Path file;
+    private final BodyGenerator bodyGenerator;
+    private final HttpHeaders headers;
+    private final ResponseEntity<?> responseEntity;
+
+    /**
+     * Compiles a mock response.
+     * @param statusCode status code of the mock response
+     * @param body body of the mock response, null for an empty body
+     */
+    public MockResponse(int statusCode, String body) {
+        this(statusCode, CONTENT_TYPE, (body == null) ? new byte[0] : body.getBytes(StandardCharsets.UTF_8), null, null, null);
+    }
+
+    private MockResponse(int statusCode, MediaType contentType, byte[] body, ByteBuffer mappedBody, Path file, BodyGenerator bodyGenerator) {
+
+        this.statusCode = statusCode;
+        this.body = body;
+        this.mappedBody = mappedBody;
+        this.file = file;
+        this.bodyGenerator = bodyGenerator;
+
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(contentType);
+        httpHeaders.setContentLength(getContentLength());
+        this.headers = HttpHeaders.readOnlyHttpHeaders(httpHeaders);
+
+        // Mapped and generated bodies are written by dr-squid-service's MockResponseHttpMessageConverter.
+        this.responseEntity = ResponseEntity.status(statusCode).headers(this.headers).body((body == null) ? this : body);
+    }
+
+    /**
+     * Compiles a mock response whose body is a file, memory-mapped once.
+     * @param statusCode status code of the mock response
+     * @param file path of the file holding the body
+     * @return the mock response
+     * @throws IOException if the file can't be read or is too large to map
+     */
+    public static MockResponse fromFile(int statusCode, Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The file is " + size + " bytes, larger than the 2 GB which can be mapped.");
+            }
+            ByteBuffer mappedBody = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asReadOnlyBuffer();
+            return new MockResponse(statusCode, CONTENT_TYPE, null, mappedBody, file, null);
+        }
+    }
+
+    /**
+     * Compiles a mock response whose body is generated as it is sent.
+     * @param statusCode status code of the mock response
+     * @param bodyGenerator generator of the body
+     * @param contentType content type of the body
+     * @return the mock response
+     */
+    public static MockResponse fromGenerator(int statusCode, BodyGenerator bodyGenerator, MediaType contentType) {
+        return new MockResponse(statusCode, contentType, null, null, null, bodyGenerator);
+    }
+
+    /**
+     * Compiles the mock response of a config outcome, from its generator if it has one, otherwise from its file if it
+     * has one, otherwise from its inline body.
+     * @param statusCode status code of the mock response
+     * @param body inline body, may be null
+     * @param file path of the file holding the body, may be null
+     * @param generator generator of the body, may be null
+     * @return the mock response, with the inline body if the generator isn't valid or the file can't be read
+     */
+    public static MockResponse of(int statusCode, String body, String file, MockResponseGenerator generator) {
+
+        if (generator != null) {
+            try {
+                if (generator.getBodyGenerator() != null) {
+                    return fromGenerator(statusCode, generator.getBodyGenerator(), MediaType.parseMediaType(generator.getContentType()));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Invalid content type \"{}\" for the mock response generator: {}", generator.getContentType(), e.getMessage());
+            }
+            LOGGER.error("The mock response generator can't be used - sending the mock response body instead.");
+            return new MockResponse(statusCode, body);
+        }
+        if (file == null) {
+            return new MockResponse(statusCode, body);
+        }
+        try {
+            return fromFile(statusCode, Paths.get(file));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not map the mock response file \"{}\" - sending the mock response body instead: {}", file, e.getMessage());
+            return new MockResponse(statusCode, body);
+        }
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the encoded body. The array is shared by every response, so it must not be modified.
+     * @return body encoded to UTF-8, or null if the body is a mapped file or generated
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets a view of the body for a single response, without copying it.
+     * @return read-only buffer positioned at the start of the body, or null if the body is generated
+     */
+    public ByteBuffer getBodyBuffer() {
+        if (bodyGenerator != null) {
+            return null;
+        }
+        return (mappedBody == null) ? ByteBuffer.wrap(body).asReadOnlyBuffer() : mappedBody.duplicate();
+    }
+
+    /**
+     * Opens a stream over the body for a single response, without copying it.
+     * @return stream reading the body from the start
+     */
+    public InputStream openBody() {
+        if (bodyGenerator != null) {
+            return bodyGenerator.open();
+        }
+        return (mappedBody == null) ? new ByteArrayInputStream(body) : new ByteBufferInputStream(mappedBody.duplicate());
+    }
+
+    /**
+     * Writes the whole body for a single response. A mapped body is copied from the mapping in 64KB chunks through a
+     * buffer reused by the thread, so it is never loaded onto the heap whole.
+     * @param outputStream stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeBody(OutputStream outputStream) throws IOException {
+
+        if (bodyGenerator != null) {
+            bodyGenerator.writeTo(outputStream);
+            return;
+        }
+        if (mappedBody == null) {
+            outputStream.write(body);
+            return;
+        }
+
+        ByteBuffer buffer = mappedBody.duplicate();
+        byte[] chunk = WRITE_CHUNK.get();
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            outputStream.write(chunk, 0, length);
+        }
+    }
+
+    public long getContentLength() {
+        if (bodyGenerator != null) {
+            return bodyGenerator.getSize();
+        }
+        return (mappedBody == null) ? body.length : mappedBody.capacity();
+    }
+
+    /**
+     * Gets the file the body is mapped from.
+     * @return path of the file, or null if the body was given inline
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the headers of the response, content type and length included.
+     * @return read-only headers
+     */
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the response for dr-squid-service to send as it is. Response entities are immutable, so it is shared.
+     * @return response entity holding the encoded body, or this mock response if the body is a mapped file or generated
+     */
+    public ResponseEntity<?> getResponseEntity() {
+        return responseEntity;
+    }
+
+    /**
+     * Reads a buffer from its position to its limit.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.routing;
+
+import java.util.Arrays;
+
+/**
+ * A keyword compiled for searching raw bytes (Boyer-Moore-Horspool), so that a request body can be checked for it
+ * without decoding the body into a String.
+ *
+ * The keyword is encoded once with the charset of the bodies it's searched in. For ASCII compatible charsets, such as
+ * UTF-8 and ISO-8859-1, finding the encoded keyword in the bytes is the same as finding the keyword in the text.
+ */
+public class ByteSearcher {
+
+    private static final int ALPHABET_SIZE = 256;
+
+    private final byte[] pattern;
+
+    // How far the search can move on when the byte under the end of the pattern is a given value.
+    private final int[] shifts;
+
+    public ByteSearcher(byte[] pattern) {
+
+        this.pattern = pattern.clone();
+        this.shifts = new int[ALPHABET_SIZE];
+
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++) {
+            shifts[pattern[i] & 0xFF] = pattern.length - 1 - i;
+        }
+    }
+
+    /**
+     * Finds the first occurrence of the pattern in the bytes.
+     * @param bytes bytes to search
+     * @return index of the first occurrence, otherwise -1
+     */
+    public int indexOf(byte[] bytes) {
+
+        if (bytes == null) {
+            return -1;
+        }
+
+        int last = pattern.length - 1;
+        int start = 0;
+        while (start <= bytes.length - pattern.length) {
+            int i = last;
+            while (i >= 0 && bytes[start + i] == pattern[i]) {
+                i--;
+            }
+            if (i < 0) {
+                return start;
+            }
+            start += shifts[bytes[start + last] & 0xFF];
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the pattern is found in the bytes.
+     * @param bytes bytes to search
+     * @return true if the bytes contain the pattern
+     */
+    public boolean isFoundIn(byte[] bytes) {
+        return indexOf(bytes) >= 0;
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.routing;
+
+import com.expediagroup.drsquidutils.model.Service;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Index of the enabled services of a config, built once when the config is loaded, which finds the first service
+ * whose URL pattern matches a downstream URL.
+ *
+ * Every pattern is indexed by a piece of text a matching URL must contain (see {@link UrlPattern#getAnchor()}).
+ * All of those are searched for at once by a single automaton (Aho-Corasick), so one pass over the URL finds the
+ * few services that could match. Only those are then checked, in config order, so the result is the same as
+ * checking every service in order.
+ */
+public class ServiceRouter {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(ServiceRouter.class));
+    private static final int ALPHABET_SIZE = 128;
+    private static final int ROOT = 0;
+    private static final int[] NO_ENTRIES = new int[0];
+
+    // Enabled services and their compiled patterns, in config order.
+    private final Service[] services;
+    private final UrlPattern[] patterns;
+
+    // Entries without an anchor, which are candidates for every URL.
+    private final long[] unanchoredEntries;
+
+    // The automaton, as a full transition table over ASCII and the entries whose anchor is found in each state.
+    private final int[][] transitions;
+    private final int[][] outputs;
+
+    // Reused candidate set, so that matching doesn't allocate.
+    private final ThreadLocal<long[]> candidates;
+
+    public ServiceRouter(List<Service> services) {
+
+        List<Service> enabledServices = new ArrayList<>();
+        List<UrlPattern> enabledPatterns = new ArrayList<>();
+        for (Service service : (services == null) ? Collections.<Service>emptyList() : services) {
+            if (service == null || !service.isEnabled() || service.getUrlPattern() == null) {
+                continue;
+            }
+            try {
+                enabledPatterns.add(new UrlPattern(service.getUrlPattern()));
+                enabledServices.add(service);
+            } catch (PatternSyntaxException e) {
+                LOGGER.error("Invalid pattern \"{}\" for service \"{}\" - it will never be matched.", service.getUrlPattern(), service.getName());
+            }
+        }
+
+        this.services = enabledServices.toArray(new Service[0]);
+        this.patterns = enabledPatterns.toArray(new UrlPattern[0]);
+
+        int words = (this.services.length + Long.SIZE - 1) / Long.SIZE;
+        this.unanchoredEntries = new long[words];
+        this.candidates = ThreadLocal.withInitial(() -> new long[words]);
+
+        // Build the trie of anchors.
+        List<int[]> trie = new ArrayList<>();
+        List<int[]> trieOutputs = new ArrayList<>();
+        trie.add(newState());
+        trieOutputs.add(NO_ENTRIES);
+        for (int entry = 0; entry < patterns.length; entry++) {
+            String anchor = patterns[entry].getAnchor();
+            if (anchor == null) {
+                unanchoredEntries[entry / Long.SIZE] |= 1L << entry;
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < anchor.length(); i++) {
+                char c = anchor.charAt(i);
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    trieOutputs.add(NO_ENTRIES);
+                }
+                state = trie.get(state)[c];
+            }
+            trieOutputs.set(state, append(trieOutputs.get(state), entry));
+        }
+
+        this.transitions = trie.toArray(new int[0][]);
+        this.outputs = trieOutputs.toArray(new int[0][]);
+
+        // Turn the trie into the automaton, breadth first: missing transitions follow the failure links, and each
+        // state also reports the anchors which end in its longest proper suffix.
+        int[] failure = new int[transitions.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            int next = transitions[ROOT][c];
+            if (next < 0) {
+                transitions[ROOT][c] = ROOT;
+            } else {
+                failure[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    outputs[next] = merge(outputs[next], outputs[failure[next]]);
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first enabled service, in config order, whose pattern matches the URL.
+     * @param url downstream URL
+     * @return the matching service, otherwise null
+     */
+    public Service match(String url) {
+
+        long[] entries = candidates.get();
+        System.arraycopy(unanchoredEntries, 0, entries, 0, entries.length);
+
+        int state = ROOT;
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            state = (c < ALPHABET_SIZE) ? transitions[state][c] : ROOT;
+            for (int entry : outputs[state]) {
+                entries[entry / Long.SIZE] |= 1L << entry;
+            }
+        }
+
+        for (int word = 0; word < entries.length; word++) {
+            long bits = entries[word];
+            while (bits != 0) {
+                int entry = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                if (patterns[entry].matches(url)) {
+                    return services[entry];
+                }
+                bits &= bits - 1;
+            }
+        }
+        return null;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET_SIZE];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static int[] append(int[] entries, int entry) {
+        int[] appended = Arrays.copyOf(entries, entries.length + 1);
+        appended[entries.length] = entry;
+        return appended;
+    }
+
+    private static int[] merge(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        int[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        return merged;
+    }
+}
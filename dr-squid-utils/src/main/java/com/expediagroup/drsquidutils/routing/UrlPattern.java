@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.routing;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled service URL pattern. Matches exactly like the pattern turned into a regex (each "*" replaced by "(.*)")
+ * and searched for anywhere in the URL, but without using regex for the common case of plain text and wildcards.
+ *
+ * Patterns are split on "*" into segments which must appear in the URL in order. A "." in a segment matches any
+ * character, as it does in the regex. Patterns using any other regex syntax fall back to a precompiled regex.
+ */
+public class UrlPattern {
+
+    private static final String REGEX_SYNTAX = "\\^$|?+()[]{}";
+    private static final char ANY_CHARACTER = '.';
+
+    private final String pattern;
+    private final char[][] segments;
+    private final Pattern regex;
+    private final String anchor;
+
+    /**
+     * Compiles a URL pattern.
+     * @param pattern service URL pattern, wildcards (*) accepted
+     * @throws java.util.regex.PatternSyntaxException if the pattern falls back to regex and isn't a valid one
+     */
+    public UrlPattern(String pattern) {
+
+        this.pattern = pattern;
+
+        if (StringUtils.containsAny(pattern, REGEX_SYNTAX)) {
+            this.regex = Pattern.compile(pattern.replaceAll("\\*", "(.*)"));
+            this.segments = null;
+            this.anchor = null;
+            return;
+        }
+
+        List<char[]> parts = new ArrayList<>();
+        String longestRun = null;
+        for (String segment : pattern.split("\\*")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            parts.add(segment.toCharArray());
+            for (String run : segment.split("\\.")) {
+                if (isAscii(run) && (longestRun == null || run.length() > longestRun.length())) {
+                    longestRun = run;
+                }
+            }
+        }
+
+        this.regex = null;
+        this.segments = parts.toArray(new char[0][]);
+        this.anchor = (longestRun == null || longestRun.isEmpty()) ? null : longestRun;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Gets a piece of plain ASCII text that every matching URL must contain, used to index the pattern.
+     * @return required text, or null if the pattern has none and must always be checked
+     */
+    public String getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * Checks whether the pattern is found in the URL.
+     * @param url URL to check
+     * @return true if the pattern matches somewhere in the URL
+     */
+    public boolean matches(String url) {
+
+        if (regex != null) {
+            return regex.matcher(url).find();
+        }
+
+        // Matching each segment at its earliest position leaves the most room for the following ones.
+        int position = 0;
+        for (char[] segment : segments) {
+            position = indexOf(url, segment, position);
+            if (position < 0) {
+                return false;
+            }
+            position += segment.length;
+        }
+        return true;
+    }
+
+    private static int indexOf(String url, char[] segment, int from) {
+
+        int last = url.length() - segment.length;
+        for (int start = from; start <= last; start++) {
+            int i = 0;
+            while (i < segment.length && (segment[i] == ANY_CHARACTER || segment[i] == url.charAt(start + i))) {
+                i++;
+            }
+            if (i == segment.length) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
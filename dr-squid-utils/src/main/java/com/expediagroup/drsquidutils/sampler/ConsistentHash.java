@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+/**
+ * Hashes for consistent sampling, which must give the same value for the same text in every JVM: 64-bit FNV-1a over
+ * the characters, and the MurmurHash3 finalizer to spread the bits of a combined hash evenly over all 64 of them.
+ */
+public class ConsistentHash {
+    private ConsistentHash() {
+        throw new IllegalStateException("Utility class - do not instantiate.");
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Hashes text with 64-bit FNV-1a, over the low byte of every character and the high byte of those beyond Latin-1,
+     * so ASCII text hashes exactly like its bytes.
+     * @param text text to hash
+     * @return the hash
+     */
+    public static long hash(CharSequence text) {
+
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            if (c > 0xFF) {
+                hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes a hash so that every bit of the input affects every bit of the output (MurmurHash3 fmix64).
+     * @param hash hash to mix
+     * @return the mixed hash, uniformly distributed over all 64 bits
+     */
+    public static long mix(long hash) {
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Combines the hash of a key with the hash of a service, so that the same key lands in different places for
+     * different services.
+     * @param keyHash hash of the key, see {@link #hash(CharSequence)}
+     * @param serviceHash hash of the service name, see {@link #hash(CharSequence)}
+     * @return uniformly distributed value to draw an outcome with
+     */
+    public static long combine(long keyHash, long serviceHash) {
+        return mix(keyHash ^ mix(serviceHash));
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+/**
+ * An outcome Dr. Squid can mock for a call: success, timeout, or one of the configured failures.
+ */
+public final class Outcome {
+
+    public enum Status {
+
+        SUCCESS("success"), FAILURE("failure"), TIMEOUT("timeout");
+
+        private final String name;
+
+        Status(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the status, as used in dr-squid-service tokens.
+         * @return "success", "failure", or "timeout"
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static final Outcome SUCCESS = new Outcome(Status.SUCCESS, 0);
+    public static final Outcome TIMEOUT = new Outcome(Status.TIMEOUT, 0);
+
+    private final Status status;
+    private final int variant;
+
+    private Outcome(Status status, int variant) {
+        this.status = status;
+        this.variant = variant;
+    }
+
+    /**
+     * Creates the outcome of one of the configured failures.
+     * @param variant index of the failure in {@link com.expediagroup.drsquidutils.model.Behavior#getFailures()}
+     * @return the outcome
+     */
+    public static Outcome failure(int variant) {
+        return new Outcome(Status.FAILURE, variant);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets which of the configured failures this is.
+     * @return index of the failure, 0 for success and timeout
+     */
+    public int getVariant() {
+        return variant;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Outcome)) {
+            return false;
+        }
+        Outcome outcome = (Outcome) other;
+        return status == outcome.status && variant == outcome.variant;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * status.hashCode() + variant;
+    }
+
+    @Override
+    public String toString() {
+        return (status == Status.FAILURE && variant > 0) ? status.getName() + " " + variant : status.getName();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Draws weighted outcomes in constant time, whatever the number of outcomes, using an alias table built once when
+ * the config is loaded.
+ *
+ * The table has a column per outcome, each holding the same share of the total weight: part of it for the column's
+ * own outcome and the rest for one other outcome, its alias. A draw picks a column with the high 32 bits of a random
+ * value, then the column's outcome or its alias with the low 32 bits.
+ */
+public class OutcomeSampler {
+
+    private static final long ONE = 1L << Integer.SIZE;
+    private static final long LOW_BITS = ONE - 1;
+
+    private final Outcome[] outcomes;
+    private final int[] aliases;
+
+    // Share of each column held by its own outcome, as a fraction of 2^32.
+    private final long[] thresholds;
+
+    /**
+     * Builds the sampler.
+     * @param outcomes outcomes to draw
+     * @param weights weight of each outcome, not negative and with a positive total, small enough that the total times
+     *                the number of outcomes fits in an int
+     * @throws IllegalArgumentException if the weights aren't valid
+     */
+    public OutcomeSampler(Outcome[] outcomes, int[] weights) {
+
+        if (outcomes.length != weights.length) {
+            throw new IllegalArgumentException("Every outcome needs a weight.");
+        }
+
+        // Outcomes which can't be drawn don't need a column.
+        int columns = 0;
+        long totalWeight = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("No negative weights allowed. " + weight + " weight found.");
+            }
+            if (weight > 0) {
+                columns++;
+                totalWeight += weight;
+            }
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("At least one outcome needs a positive weight.");
+        }
+        if (totalWeight * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total weight " + totalWeight + " is too large for " + columns + " outcomes.");
+        }
+
+        this.outcomes = new Outcome[columns];
+        this.aliases = new int[columns];
+        this.thresholds = new long[columns];
+
+        // Scale the weights by the number of columns, so that each column holds exactly the total weight.
+        long[] scaledWeights = new long[columns];
+        int column = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                this.outcomes[column] = outcomes[i];
+                scaledWeights[column] = (long) weights[i] * columns;
+                column++;
+            }
+        }
+
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < columns; i++) {
+            aliases[i] = i;
+            (scaledWeights[i] < totalWeight ? small : large).push(i);
+        }
+
+        // Fill each column short of its share from one with more than its share.
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            thresholds[less] = (scaledWeights[less] << Integer.SIZE) / totalWeight;
+            aliases[less] = more;
+            scaledWeights[more] -= totalWeight - scaledWeights[less];
+            (scaledWeights[more] < totalWeight ? small : large).push(more);
+        }
+
+        // What's left holds exactly its share.
+        while (!large.isEmpty()) {
+            thresholds[large.pop()] = ONE;
+        }
+        while (!small.isEmpty()) {
+            thresholds[small.pop()] = ONE;
+        }
+    }
+
+    /**
+     * Draws an outcome.
+     * @param randomBits uniformly distributed random value
+     * @return the outcome
+     */
+    public Outcome sample(long randomBits) {
+        int column = (int) (((randomBits >>> Integer.SIZE) * outcomes.length) >>> Integer.SIZE);
+        return ((randomBits & LOW_BITS) < thresholds[column]) ? outcomes[column] : outcomes[aliases[column]];
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out weighted outcomes in a fixed order, so that the outcomes of a run match the weights exactly rather than
+ * on average.
+ *
+ * Each outcome owns a run of slots, as many as its weight once the weights are divided by their greatest common
+ * divisor, and the slots make up one cycle. Calls take the next position from an atomic counter, so concurrent calls
+ * never share or skip a position, and visit the slots with a stride close to the cycle length divided by the golden
+ * ratio and coprime with it. Over one cycle every slot is visited exactly once, so every outcome is picked exactly
+ * its weight's worth of times, and each outcome's slots come up spread out evenly rather than in a run. The pick is
+ * worked out from the position on each call, so a sequence only holds a few numbers per outcome however long its
+ * cycle is.
+ */
+public class OutcomeSequence {
+
+    private static final double GOLDEN_RATIO_CONJUGATE = (Math.sqrt(5) - 1) / 2;
+
+    private final Outcome[] outcomes;
+
+    // End of each outcome's run of slots, the total of its weight and the weights before it.
+    private final long[] slotEnds;
+
+    private final long cycleLength;
+    private final long stride;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * Builds the sequence.
+     * @param outcomes outcomes to hand out
+     * @param weights weight of each outcome, not negative and with a positive total
+     * @throws IllegalArgumentException if the weights aren't valid
+     */
+    public OutcomeSequence(Outcome[] outcomes, int[] weights) {
+
+        if (outcomes.length != weights.length) {
+            throw new IllegalArgumentException("Every outcome needs a weight.");
+        }
+
+        long divisor = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("No negative weights allowed. " + weight + " weight found.");
+            }
+            divisor = gcd(divisor, weight);
+        }
+        if (divisor == 0) {
+            throw new IllegalArgumentException("At least one outcome needs a positive weight.");
+        }
+
+        this.outcomes = outcomes.clone();
+        this.slotEnds = new long[weights.length];
+        long totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            totalWeight += weights[i] / divisor;
+            slotEnds[i] = totalWeight;
+        }
+        if (totalWeight > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total weight " + totalWeight + " is too large.");
+        }
+        this.cycleLength = totalWeight;
+
+        long candidate = Math.round(totalWeight * GOLDEN_RATIO_CONJUGATE);
+        while (gcd(totalWeight, candidate) != 1) {
+            candidate++;
+        }
+        this.stride = candidate % totalWeight;
+    }
+
+    /**
+     * Gets the number of calls after which the sequence repeats.
+     * @return length of the cycle
+     */
+    public int getCycleLength() {
+        return (int) cycleLength;
+    }
+
+    /**
+     * Hands out the next outcome.
+     * @return the outcome
+     */
+    public Outcome next() {
+
+        // Both factors are below the total weight, which fits in an int, so the product can't overflow.
+        long slot = Math.floorMod(counter.getAndIncrement(), cycleLength) * stride % cycleLength;
+
+        // Find the first outcome whose run of slots ends after the slot. Outcomes with no weight have an empty run.
+        int low = 0;
+        int high = slotEnds.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (slotEnds[middle] > slot) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return outcomes[low];
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks after a delay on a single timer thread, so that injected delays don't hold a thread each while waiting.
+ * Tasks must be short, as they all run on that one thread: anything blocking should be handed off by the task.
+ *
+ * Backed by a {@link TimingWheel}, so hundreds of thousands of pending delays only cost a small entry each, and
+ * scheduling one costs the same however many are pending. Delays are rounded up to the wheel's tick. How late each
+ * task actually runs is recorded in {@link #getSkew()}.
+ */
+@Component
+public class DelayScheduler implements DisposableBean {
+
+    /**
+     * Default tick of the timing wheel, 100 microseconds.
+     */
+    public static final long DEFAULT_TICK_IN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final TimingWheel timingWheel;
+    private final DelaySkew skew = new DelaySkew();
+
+    public DelayScheduler() {
+        this(DEFAULT_TICK_IN_NANOS);
+    }
+
+    /**
+     * Creates a scheduler with its own tick.
+     * @param tickInNanos tick of the timing wheel in nanoseconds: shorter ticks are more precise, but wake the timer
+     *                    thread more often while delays are pending
+     */
+    public DelayScheduler(long tickInNanos) {
+        this.timingWheel = new TimingWheel(tickInNanos, "drsquid-delay-scheduler");
+    }
+
+    /**
+     * Schedules a task.
+     * @param task task to run
+     * @param delayInMillis time to wait before running the task
+     * @return the scheduled task, which can be used to cancel it
+     */
+    public TimingWheel.Task schedule(Runnable task, long delayInMillis) {
+        return schedule(task, delayInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a task, with a delay in any unit. The delay is rounded up to the tick of the timing wheel, and the
+     * timer doesn't wake up more precisely than the OS allows, so sub-millisecond delays are only approximate.
+     * @param task task to run
+     * @param delay time to wait before running the task
+     * @param unit unit of the delay
+     * @return the scheduled task, which can be used to cancel it
+     */
+    public TimingWheel.Task schedule(Runnable task, long delay, TimeUnit unit) {
+        long start = System.nanoTime();
+        long delayInNanos = unit.toNanos(delay);
+        return timingWheel.schedule(() -> {
+            skew.record(delayInNanos, System.nanoTime() - start);
+            task.run();
+        }, delay, unit);
+    }
+
+    /**
+     * Gets the skew between requested delays and when their tasks actually ran, for every task run so far.
+     * @return the skew statistics
+     */
+    public DelaySkew getSkew() {
+        return skew;
+    }
+
+    @Override
+    public void destroy() {
+        timingWheel.stop();
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running statistics of how much later than requested delayed calls were let go, updated without locking so that
+ * every waiting thread can record into it.
+ */
+public class DelaySkew {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalSkew = new LongAdder();
+    private final LongAccumulator maxSkew = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a delay.
+     * @param requestedNanos time that was asked for
+     * @param actualNanos time actually waited
+     */
+    public void record(long requestedNanos, long actualNanos) {
+        long skew = actualNanos - requestedNanos;
+        count.increment();
+        totalSkew.add(skew);
+        maxSkew.accumulate(skew);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the average time delays overran by.
+     * @return mean skew in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMeanNanos() {
+        long recorded = count.sum();
+        return (recorded == 0) ? 0 : totalSkew.sum() / recorded;
+    }
+
+    /**
+     * Gets the longest time a delay overran by.
+     * @return max skew in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxSkew.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d delays, mean skew %.1f us, max skew %.1f us", getCount(), getMeanNanos() / 1000.0, getMaxNanos() / 1000.0);
+    }
+}
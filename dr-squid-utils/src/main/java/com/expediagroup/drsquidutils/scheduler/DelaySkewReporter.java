@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs how late delays end, both the blocking waits of the {@link PreciseWaiter} and the delays of the
+ * {@link DelayScheduler}, so that the precision of injected delays can be checked on a running application. Nothing
+ * is logged for an interval without new delays.
+ *
+ * drsquid.skew.report-interval-secs - how often to log the skew (default 60, 0 to never log it)
+ *
+ * The skew belongs to the JVM rather than to a config, so it's logged whatever the configs' logging level.
+ */
+@Component
+public class DelaySkewReporter implements InitializingBean, DisposableBean {
+
+    public static final String REPORT_INTERVAL_PROPERTY = "drsquid.skew.report-interval-secs";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DelaySkewReporter.class);
+    private static final long DEFAULT_REPORT_INTERVAL = 60;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private PreciseWaiter preciseWaiter;
+
+    @Autowired
+    private DelayScheduler delayScheduler;
+
+    private long reportIntervalInSecs;
+    private volatile TimingWheel.Task nextReport;
+
+    // Counts at the last report, only used on the timer thread.
+    private long reportedWaits;
+    private long reportedScheduledDelays;
+
+    @Override
+    public void afterPropertiesSet() {
+        reportIntervalInSecs = environment.getProperty(REPORT_INTERVAL_PROPERTY, Long.class, DEFAULT_REPORT_INTERVAL);
+        if (reportIntervalInSecs > 0) {
+            scheduleReport();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        TimingWheel.Task task = nextReport;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    private void scheduleReport() {
+        nextReport = delayScheduler.schedule(this::report, reportIntervalInSecs, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Logs the skew if there were delays since the last report, then schedules the next report.
+     */
+    protected void report() {
+
+        DelaySkew waitSkew = preciseWaiter.getSkew();
+        DelaySkew scheduledSkew = delayScheduler.getSkew();
+        long waits = waitSkew.getCount();
+        // The report is itself a scheduled delay, so one more is expected every time.
+        long scheduledDelays = scheduledSkew.getCount();
+        if (waits != reportedWaits || scheduledDelays > reportedScheduledDelays + 1) {
+            LOGGER.info("Delay skew - blocking waits: {} - scheduled delays: {}", waitSkew, scheduledSkew);
+        }
+        reportedWaits = waits;
+        reportedScheduledDelays = scheduledDelays;
+
+        scheduleReport();
+    }
+}
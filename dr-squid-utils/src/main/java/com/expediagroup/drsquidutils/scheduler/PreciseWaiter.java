@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import com.expediagroup.drsquidutils.model.LoggingLevel;
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Blocks the calling thread for a delay given in nanoseconds, much more precisely than Thread.sleep: it parks for
+ * most of the delay, then spins for the rest, so that the OS timer slack (often a millisecond or more) doesn't get
+ * added to short delays.
+ *
+ * Only sub-millisecond delays spin for long: how long is learnt from how late the parks wake up, twice the running
+ * average of their overshoot, at least MIN_SPIN_NANOS and never longer than the delay. Longer delays are parked,
+ * and only spin out the last FINAL_SPIN_NANOS if a park wakes up that close to the deadline, so they cost no CPU
+ * while waiting. How late each delay actually ends is recorded in {@link #getSkew()}.
+ */
+@Component
+public class PreciseWaiter {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(PreciseWaiter.class));
+    private static final long MIN_SPIN_NANOS = 10000;
+    private static final long FINAL_SPIN_NANOS = 5000;
+    private static final long PRECISE_DELAY_NANOS = 1000000;
+    private static final long INITIAL_OVERSHOOT_NANOS = 50000;
+
+    private final DelaySkew skew = new DelaySkew();
+
+    // Running average of how late parks wake up. Updated racily, as a lost update only nudges the estimate.
+    private volatile long parkOvershootNanos = INITIAL_OVERSHOOT_NANOS;
+
+    /**
+     * Waits for a delay.
+     * @param delayInNanos time to wait
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void waitFor(long delayInNanos) throws InterruptedException {
+
+        long start = System.nanoTime();
+        if (delayInNanos <= 0) {
+            return;
+        }
+        long deadline = start + delayInNanos;
+        long spinNanos = (delayInNanos < PRECISE_DELAY_NANOS)
+                ? Math.min(delayInNanos, Math.max(MIN_SPIN_NANOS, 2 * parkOvershootNanos))
+                : FINAL_SPIN_NANOS;
+
+        long remaining = deadline - System.nanoTime();
+        while (remaining > spinNanos) {
+            long parkNanos = remaining - spinNanos;
+            long parkStart = System.nanoTime();
+            LockSupport.parkNanos(this, parkNanos);
+            long overshoot = System.nanoTime() - parkStart - parkNanos;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (overshoot > 0) {
+                parkOvershootNanos += (overshoot - parkOvershootNanos) / 8;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+
+        while (deadline - System.nanoTime() > 0) {
+            // Spin out the last stretch, which a park would overshoot.
+        }
+
+        long actual = System.nanoTime() - start;
+        skew.record(delayInNanos, actual);
+        if (LOGGER.isEnabled(LoggingLevel.DEBUG)) {
+            LOGGER.debug("Waited {} ns for a {} ns delay.", actual, delayInNanos);
+        }
+    }
+
+    /**
+     * Gets the skew between requested and actual delays of every wait so far.
+     * @return the skew statistics
+     */
+    public DelaySkew getSkew() {
+        return skew;
+    }
+}
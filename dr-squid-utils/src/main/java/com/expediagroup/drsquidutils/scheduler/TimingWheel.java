@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import com.expediagroup.drsquidutils.utils.FilteredLogger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical hashed timing wheel, running tasks after a delay on a single worker thread. Scheduling, cancelling and
+ * expiring a task all take constant time, whatever the number of pending tasks, and each pending task only costs a
+ * small entry - against a heap operation for a ScheduledThreadPoolExecutor, or a whole thread for a sleep.
+ *
+ * Time is divided into ticks. The wheel has 4 levels of 256 slots: a level 0 slot covers a tick, a level 1 slot 256
+ * ticks, and so on, so the wheel spans 2^32 ticks. A task goes in the slot of the lowest level its deadline is within
+ * range of, found from the bits of the deadline for that level. Every tick the worker runs the tasks in the current
+ * level 0 slot, and each time a level wraps around, the next slot of the level above is cascaded down. A task is moved
+ * down at most 3 times before it runs.
+ *
+ * Only the worker touches the wheel: new tasks are handed to it through a lock-free queue, and cancelled tasks are
+ * only marked, then dropped when their slot comes up. Each level keeps a bitmap of its occupied slots, so the worker
+ * skips straight over empty ticks: it parks until the next tick with tasks to run or to cascade down, and for as
+ * long as it likes when there's nothing pending. A new task due earlier than that wakes it up.
+ */
+public class TimingWheel {
+
+    private static final FilteredLogger LOGGER = new FilteredLogger(LoggerFactory.getLogger(TimingWheel.class));
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_TICKS = (1L << (LEVELS * SLOT_BITS)) - 1;
+    private static final int WORDS = SLOTS / Long.SIZE;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Thread worker;
+    private final Queue<Task> incoming = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    // Tick the worker is parked until, so that new tasks due before it wake it up. 0 while the worker is awake.
+    private volatile long wakeTick;
+
+    // Worker only: the head of the list in each slot and which slots are occupied, the next tick to expire, and the
+    // number of tasks in the wheel.
+    private final Task[][] slots = new Task[LEVELS][SLOTS];
+    private final long[][] occupied = new long[LEVELS][WORDS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * A task scheduled on the wheel.
+     */
+    public static final class Task {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Task> STATE = AtomicIntegerFieldUpdater.newUpdater(Task.class, "state");
+
+        private final Runnable runnable;
+        private long deadlineTick;
+        private Task next;
+        private volatile int state;
+
+        private Task(Runnable runnable, long deadlineTick) {
+            this.runnable = runnable;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancels the task, if it hasn't run yet.
+         * @return true if the task was cancelled, false if it had already run or been cancelled
+         */
+        public boolean cancel() {
+            return STATE.compareAndSet(this, PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Checks whether the task has run or been cancelled.
+         * @return true if the task is no longer pending
+         */
+        public boolean isDone() {
+            return state != PENDING;
+        }
+    }
+
+    /**
+     * Starts a wheel.
+     * @param tickNanos length of a tick in nanoseconds: tasks run on the first tick at or after their deadline
+     * @param threadName name of the worker thread, which is a daemon
+     */
+    public TimingWheel(long tickNanos, String threadName) {
+
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive. " + tickNanos + " found.");
+        }
+        this.tickNanos = tickNanos;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task. Tasks run on the worker thread, so they must be short: anything blocking should be handed
+     * off by the task.
+     * @param runnable task to run
+     * @param delay time to wait before running the task, rounded up to a whole number of ticks
+     * @param unit unit of the delay
+     * @return the scheduled task, which can be used to cancel it
+     */
+    public Task schedule(Runnable runnable, long delay, TimeUnit unit) {
+
+        long elapsedNanos = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Task task = new Task(runnable, (elapsedNanos + tickNanos - 1) / tickNanos);
+        incoming.offer(task);
+        if (task.deadlineTick < wakeTick) {
+            LockSupport.unpark(worker);
+        }
+        return task;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Stops the worker. Pending tasks never run.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+
+        while (running) {
+
+            long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+
+            // Nothing to expire on the ticks missed while idle, so skip them.
+            if (size == 0 && currentTick < nowTick) {
+                currentTick = nowTick;
+            }
+
+            Task task;
+            while ((task = incoming.poll()) != null) {
+                insert(task);
+                size++;
+            }
+
+            while (currentTick <= nowTick) {
+                expire(currentTick);
+                currentTick++;
+                // Nothing happens on the ticks before the next busy one, so skip them.
+                currentTick = Math.min(nextBusyTick(), nowTick + 1);
+            }
+
+            // Checked again after publishing the wake tick, so that a task scheduled meanwhile is either seen here or
+            // unparks the worker.
+            long busyTick = nextBusyTick();
+            wakeTick = busyTick;
+            if (incoming.isEmpty() && running) {
+                if (busyTick == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, startNanos + busyTick * tickNanos - System.nanoTime());
+                }
+            }
+            wakeTick = 0;
+        }
+    }
+
+    /**
+     * Finds the next tick, from the current one, with tasks to run or a slot to cascade down.
+     * @return the next busy tick, or Long.MAX_VALUE if the wheel is empty
+     */
+    private long nextBusyTick() {
+
+        long busyTick = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            // Slots of a level are taken in turn, each on the first tick of its span, starting from the first span
+            // which begins at or after the current tick.
+            int shift = level * SLOT_BITS;
+            long firstSpan = (currentTick + (1L << shift) - 1) >>> shift;
+            int firstSlot = (int) firstSpan & SLOT_MASK;
+            int slot = nextOccupied(occupied[level], firstSlot);
+            if (slot >= 0) {
+                busyTick = Math.min(busyTick, (firstSpan + ((slot - firstSlot) & SLOT_MASK)) << shift);
+            }
+        }
+        return busyTick;
+    }
+
+    /**
+     * Finds the first occupied slot of a level, going round from a slot.
+     * @return the occupied slot, or -1 if the level is empty
+     */
+    private static int nextOccupied(long[] bitmap, int fromSlot) {
+
+        int word = fromSlot / Long.SIZE;
+        long bits = bitmap[word] & (-1L << fromSlot);
+        // One more word than the bitmap has, to come back round to the slots before the first one.
+        for (int i = 0; i <= WORDS; i++) {
+            if (bits != 0) {
+                return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+            }
+            word = (word + 1) % WORDS;
+            bits = bitmap[word];
+        }
+        return -1;
+    }
+
+    private void insert(Task task) {
+
+        long ticks = Math.min(Math.max(task.deadlineTick - currentTick, 0), MAX_TICKS);
+        task.deadlineTick = currentTick + ticks;
+
+        int level = 0;
+        while (ticks >= SLOTS) {
+            ticks >>>= SLOT_BITS;
+            level++;
+        }
+        int slot = (int) (task.deadlineTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+        task.next = slots[level][slot];
+        slots[level][slot] = task;
+        occupied[level][slot / Long.SIZE] |= 1L << slot;
+    }
+
+    private void expire(long tick) {
+
+        // Cascade the next slot of each level which has just wrapped around, from the top down.
+        int wrapped = 0;
+        while (wrapped < LEVELS - 1 && (tick & ((1L << ((wrapped + 1) * SLOT_BITS)) - 1)) == 0) {
+            wrapped++;
+        }
+        for (int level = wrapped; level > 0; level--) {
+            Task task = take(level, (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+            while (task != null) {
+                Task next = task.next;
+                if (task.isCancelled()) {
+                    size--;
+                } else {
+                    insert(task);
+                }
+                task = next;
+            }
+        }
+
+        Task task = take(0, (int) tick & SLOT_MASK);
+        while (task != null) {
+            Task next = task.next;
+            task.next = null;
+            size--;
+            if (Task.STATE.compareAndSet(task, Task.PENDING, Task.EXPIRED)) {
+                try {
+                    task.runnable.run();
+                } catch (Throwable t) {
+                    LOGGER.error("Scheduled task failed.", t);
+                }
+            }
+            task = next;
+        }
+    }
+
+    private Task take(int level, int slot) {
+        Task head = slots[level][slot];
+        slots[level][slot] = null;
+        occupied[level][slot / Long.SIZE] &= ~(1L << slot);
+        return head;
+    }
+}
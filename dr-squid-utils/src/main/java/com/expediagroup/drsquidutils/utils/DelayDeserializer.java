@@ -17,8 +17,14 @@ package com.expediagroup.drsquidutils.utils;
 
 import com.expediagroup.drsquidutils.interceptor.DrSquidInterceptor;
 import com.expediagroup.drsquidutils.model.Delay;
+import com.expediagroup.drsquidutils.model.ExponentialDelay;
 import com.expediagroup.drsquidutils.model.FixedDelay;
+import com.expediagroup.drsquidutils.model.HistogramDelay;
+import com.expediagroup.drsquidutils.model.LogNormalDelay;
+import com.expediagroup.drsquidutils.model.MixtureDelay;
 import com.expediagroup.drsquidutils.model.NormalDelay;
+import com.expediagroup.drsquidutils.model.ParetoDelay;
+import com.expediagroup.drsquidutils.model.PercentileDelay;
 import com.expediagroup.drsquidutils.model.RangeDelay;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -26,6 +32,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DelayDeserializer extends StdDeserializer<Delay> {
 
@@ -45,12 +56,22 @@ public class DelayDeserializer extends StdDeserializer<Delay> {
         // Get the JSON node
         JsonNode node = jp.getCodec().readTree(jp);
 
+        return toDelay(node);
+    }
+
+    /**
+     * Constructs a delay object from the fields of its JSON node.
+     * @param node JSON node of the delay
+     * @return the delay, or null if the type isn't supported
+     */
+    private Delay toDelay(JsonNode node) {
+
         // Extract type of delay and construct delay object from fields
         Delay delay;
         String type = node.get(DELAY_TYPE_FIELD).asText();
         switch (type) {
             case DrSquidInterceptor.DELAY_FIXED:
-                int value = node.get(DrSquidInterceptor.FIXED_VALUE_IN_MSECS).intValue();
+                double value = node.get(DrSquidInterceptor.FIXED_VALUE_IN_MSECS).doubleValue();
                 delay = new FixedDelay(value);
                 break;
             case DrSquidInterceptor.DELAY_NORMAL:
@@ -63,6 +84,47 @@ public class DelayDeserializer extends StdDeserializer<Delay> {
                 int max = node.get(DrSquidInterceptor.MAX_VALUE_IN_MSECS).intValue();
                 delay = new RangeDelay(min, max);
                 break;
+            case DrSquidInterceptor.DELAY_LOGNORMAL:
+                delay = new LogNormalDelay(
+                        node.get(DrSquidInterceptor.MEAN_VALUE_IN_MSECS).doubleValue(),
+                        node.get(DrSquidInterceptor.STD_VALUE_IN_MSECS).doubleValue());
+                break;
+            case DrSquidInterceptor.DELAY_EXPONENTIAL:
+                delay = new ExponentialDelay(
+                        node.get(DrSquidInterceptor.MEAN_VALUE_IN_MSECS).doubleValue(),
+                        node.path(DrSquidInterceptor.MIN_VALUE_IN_MSECS).doubleValue());
+                break;
+            case DrSquidInterceptor.DELAY_PARETO:
+                delay = new ParetoDelay(
+                        node.get(DrSquidInterceptor.MIN_VALUE_IN_MSECS).doubleValue(),
+                        node.get(DrSquidInterceptor.ALPHA).doubleValue());
+                break;
+            case DrSquidInterceptor.DELAY_MIXTURE:
+                List<MixtureDelay.Component> components = new ArrayList<>();
+                for (JsonNode component : node.path(DrSquidInterceptor.COMPONENTS)) {
+                    components.add(new MixtureDelay.Component(
+                            component.get(DrSquidInterceptor.WEIGHT).doubleValue(),
+                            toDelay(component.get(DrSquidInterceptor.DELAY))));
+                }
+                delay = new MixtureDelay(components);
+                break;
+            case DrSquidInterceptor.DELAY_PERCENTILE:
+                Map<String, Double> percentiles = new LinkedHashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (PercentileDelay.PERCENTILE_FIELD.matcher(field.getKey()).matches()) {
+                        percentiles.put(field.getKey(), field.getValue().doubleValue());
+                    }
+                }
+                delay = new PercentileDelay(percentiles, node.path(DrSquidInterceptor.MIN_VALUE_IN_MSECS).doubleValue());
+                break;
+            case DrSquidInterceptor.DELAY_HISTOGRAM:
+                JsonNode unit = node.get(DrSquidInterceptor.UNIT);
+                delay = new HistogramDelay(
+                        node.get(DrSquidInterceptor.FILE).asText(),
+                        (unit == null) ? null : unit.asText());
+                break;
             default:
                 delay = null;
                 break;
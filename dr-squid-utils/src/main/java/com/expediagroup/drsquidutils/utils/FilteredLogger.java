@@ -76,6 +76,33 @@ public class FilteredLogger {
         FilteredLogger.forceLogging = forceLogging;
     }
 
+    /**
+     * Check whether a message of the given level would be logged, so that callers on hot paths can skip building
+     * the message arguments when it wouldn't.
+     *
+     * @param messageLevel The level of the message we are attempting to log.
+     * @return Whether the message would be logged.
+     */
+    public boolean isEnabled(LoggingLevel messageLevel) {
+
+        if (!forceLogging && loggingLevel.ordinal() > messageLevel.ordinal()) {
+            return false;
+        }
+
+        switch (messageLevel) {
+            case DEBUG:
+                return logger.isDebugEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case ERROR:
+                return logger.isErrorEnabled();
+            default:
+                return false;
+        }
+    }
+
     /**
      * Log the message based on its level vs. the logger level, as well as whether logging is forced.
      *
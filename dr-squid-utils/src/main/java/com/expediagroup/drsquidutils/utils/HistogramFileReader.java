@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.utils;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+
+/**
+ * Reads recorded latency histograms, either an HdrHistogram log (as written by HistogramLogWriter, every interval
+ * being added up) or a single histogram in HdrHistogram's binary encoding, compressed or not.
+ */
+public class HistogramFileReader {
+
+    // Binary files larger than this are memory-mapped rather than copied onto the heap.
+    private static final long MAPPED_SIZE = 1 << 20;
+
+    // First byte of every HdrHistogram binary encoding cookie, which can't start a log file.
+    private static final int ENCODING_COOKIE_FIRST_BYTE = 0x1c;
+
+    private HistogramFileReader() {
+        throw new IllegalStateException("Utility class - do not instantiate.");
+    }
+
+    /**
+     * Reads a histogram from a file, or from the classpath if there is no such file.
+     * @param file path of the file or name of the resource
+     * @return the histogram
+     * @throws IOException if the file can't be found or read
+     * @throws DataFormatException if a compressed histogram can't be decompressed
+     * @throws IllegalArgumentException if the file doesn't contain an integer histogram
+     */
+    public static AbstractHistogram read(String file) throws IOException, DataFormatException {
+
+        Path path = Paths.get(file);
+        if (Files.isRegularFile(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return read(channel);
+            }
+        }
+
+        InputStream resource = HistogramFileReader.class.getClassLoader().getResourceAsStream(file);
+        if (resource == null) {
+            throw new FileNotFoundException("The histogram file \"" + file + "\" could not be found.");
+        }
+        try (InputStream stream = new BufferedInputStream(resource)) {
+            stream.mark(1);
+            int firstByte = stream.read();
+            stream.reset();
+            if (firstByte == ENCODING_COOKIE_FIRST_BYTE) {
+                return decode(ByteBuffer.wrap(IOUtils.toByteArray(stream)));
+            }
+            return readLog(stream);
+        }
+    }
+
+    private static AbstractHistogram read(FileChannel channel) throws IOException, DataFormatException {
+
+        ByteBuffer firstByte = ByteBuffer.allocate(1);
+        channel.read(firstByte, 0);
+        if (firstByte.get(0) != ENCODING_COOKIE_FIRST_BYTE) {
+            return readLog(Channels.newInputStream(channel));
+        }
+
+        long size = channel.size();
+        if (size > MAPPED_SIZE) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Keep reading until the whole file is in.
+        }
+        buffer.flip();
+        return decode(buffer);
+    }
+
+    private static AbstractHistogram decode(ByteBuffer buffer) throws DataFormatException {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+        } catch (IllegalArgumentException e) {
+            // Not compressed, so decode it as is from the start.
+            buffer.rewind();
+            return Histogram.decodeFromByteBuffer(buffer, 0);
+        }
+    }
+
+    private static AbstractHistogram readLog(InputStream stream) {
+
+        HistogramLogReader reader = new HistogramLogReader(stream);
+        Histogram total = null;
+        EncodableHistogram interval;
+        while ((interval = reader.nextIntervalHistogram()) != null) {
+            if (!(interval instanceof Histogram)) {
+                throw new IllegalArgumentException("Only integer histograms can be read, not " + interval.getClass().getSimpleName() + ".");
+            }
+            if (total == null) {
+                total = ((Histogram) interval).copy();
+                total.setAutoResize(true);
+            } else {
+                total.add((Histogram) interval);
+            }
+        }
+
+        if (total == null) {
+            throw new IllegalArgumentException("The histogram log contains no histograms.");
+        }
+        return total;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.utils;
+
+public class PercentageUtils {
+    private PercentageUtils() {
+        throw new IllegalStateException("Utility class - do not instantiate.");
+    }
+
+    /**
+     * Parts per million making up 100%, the total every behavior's percentages must add up to.
+     */
+    public static final int TOTAL_PARTS_PER_MILLION = 1000000;
+
+    private static final int PARTS_PER_MILLION_PER_PERCENT = 10000;
+
+    // How far off a whole number of parts per million a percentage can be, to allow for how decimals are stored.
+    private static final double TOLERANCE = 1e-6;
+
+    /**
+     * Converts a percentage to parts per million, so that percentages as low as 0.0001% (one call in a million) can
+     * be drawn with integer math.
+     * @param percentage percentage in the range [0,100], with at most 4 decimal places
+     * @return the percentage in parts per million
+     * @throws IllegalArgumentException if the percentage is out of range or too fine to convert
+     */
+    public static int toPartsPerMillion(double percentage) {
+
+        if (Double.isNaN(percentage) || percentage < 0 || percentage > 100) {
+            throw new IllegalArgumentException("Percentages must be in the range [0,100]. " + percentage + " percentage found.");
+        }
+
+        double partsPerMillion = percentage * PARTS_PER_MILLION_PER_PERCENT;
+        long rounded = Math.round(partsPerMillion);
+        if (Math.abs(partsPerMillion - rounded) > TOLERANCE) {
+            throw new IllegalArgumentException("Percentages can have at most 4 decimal places. " + percentage + " percentage found.");
+        }
+
+        return (int) rounded;
+    }
+
+    /**
+     * Converts parts per million back to a percentage, for logging.
+     * @param partsPerMillion parts per million
+     * @return the percentage
+     */
+    public static double toPercentage(long partsPerMillion) {
+        return (double) partsPerMillion / PARTS_PER_MILLION_PER_PERCENT;
+    }
+}
@@ -15,27 +15,105 @@
  */
 package com.expediagroup.drsquidutils.utils;
 
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This is a wrapper to be able to mock random number generation.
+ *
+ * Each thread draws from its own generator, so request threads never contend on a shared seed. By default that is
+ * ThreadLocalRandom. If the "drsquid.random.seed" property is set, each thread instead gets a generator seeded from
+ * that run seed and the thread's name, so that a run can be reproduced exactly as long as the same threads make the
+ * same calls.
  */
 @Component
-public class RandomNumberGenerator {
+public class RandomNumberGenerator implements InitializingBean {
+
+    public static final String SEED_PROPERTY = "drsquid.random.seed";
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    @Autowired
+    private Environment environment;
 
-    private Random random;
+    private ThreadLocal<SeededRandom> seededRandom;
 
     RandomNumberGenerator() {
-        this.random = new Random();
+    }
+
+    /**
+     * Creates a generator in seeded mode.
+     * @param seed run seed, which each thread's generator is derived from
+     */
+    public RandomNumberGenerator(long seed) {
+        setSeed(seed);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Long seed = environment.getProperty(SEED_PROPERTY, Long.class);
+        if (seed != null) {
+            setSeed(seed);
+        }
+    }
+
+    private void setSeed(long seed) {
+        this.seededRandom = ThreadLocal.withInitial(() -> new SeededRandom(seed * GOLDEN_GAMMA + Thread.currentThread().getName().hashCode()));
     }
 
     public int nextInt(int bound) {
-        return random.nextInt(bound);
+        return (seededRandom == null) ? ThreadLocalRandom.current().nextInt(bound) : seededRandom.get().random.nextInt(bound);
+    }
+
+    public long nextLong() {
+        return (seededRandom == null) ? ThreadLocalRandom.current().nextLong() : seededRandom.get().random.nextLong();
+    }
+
+    public double nextDouble() {
+        return (seededRandom == null) ? ThreadLocalRandom.current().nextDouble() : seededRandom.get().random.nextDouble();
     }
 
     public double nextGaussian() {
-        return random.nextGaussian();
+        return (seededRandom == null) ? ThreadLocalRandom.current().nextGaussian() : seededRandom.get().nextGaussian();
+    }
+
+    /**
+     * A thread's generator in seeded mode. SplittableRandom has no Gaussian, so it is added here the same way
+     * java.util.Random does it (polar method, keeping the second value for the next call).
+     */
+    private static class SeededRandom {
+
+        private final SplittableRandom random;
+        private double nextGaussian;
+        private boolean haveNextGaussian;
+
+        SeededRandom(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        double nextGaussian() {
+
+            if (haveNextGaussian) {
+                haveNextGaussian = false;
+                return nextGaussian;
+            }
+
+            double v1;
+            double v2;
+            double s;
+            do {
+                v1 = 2 * random.nextDouble() - 1;
+                v2 = 2 * random.nextDouble() - 1;
+                s = v1 * v1 + v2 * v2;
+            } while (s >= 1 || s == 0);
+            double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+            nextGaussian = v2 * multiplier;
+            haveNextGaussian = true;
+            return v1 * multiplier;
+        }
     }
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class DrSquidServiceClientTest {
+
+    private HttpServer server;
+    private Set<Integer> clientPorts;
+    private DrSquidServiceClient drSquidServiceClient;
+
+    @Before
+    public void setUp() throws Exception {
+
+        clientPorts = ConcurrentHashMap.newKeySet();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/mock", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "Mock Body".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+
+        drSquidServiceClient = new DrSquidServiceClient(10, 10, 1000, 1000, 5000, 30000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        drSquidServiceClient.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReuseConnectionForSequentialCalls() throws Exception {
+
+        // Arrange
+        URI uri = new URI("http://localhost:" + server.getAddress().getPort() + "/mock?token=abc");
+        HttpRequest drSquidRequest = new SimpleClientHttpRequestFactory().createRequest(uri, HttpMethod.GET);
+
+        for (int i = 0; i < 5; i++) {
+
+            // Act
+            try (ClientHttpResponse response = drSquidServiceClient.execute(drSquidRequest, new byte[0])) {
+
+                // Assert
+                assertEquals(200, response.getRawStatusCode());
+                assertEquals("Mock Body", IOUtils.toString(response.getBody(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals(1, clientPorts.size());
+    }
+}
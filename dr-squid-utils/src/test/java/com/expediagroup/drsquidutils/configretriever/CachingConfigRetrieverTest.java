@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.configretriever;
+
+import com.expediagroup.drsquidutils.model.DrSquidConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CachingConfigRetrieverTest {
+
+    private static final String CONFIG_NAME = "drsquid.fake-service.test";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeConfig(boolean enabled) throws Exception {
+        Path path = folder.getRoot().toPath().resolve(CONFIG_NAME);
+        Files.write(path, ("enabled: " + enabled + "\n").getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test
+    public void shouldCacheClasspathConfig() {
+
+        // Arrange
+        ConfigRetriever configRetriever = new CachingConfigRetriever(new FileSystemConfigRetriever(), null);
+
+        // Act
+        DrSquidConfig first = configRetriever.getConfig("fullConfig.yaml");
+        DrSquidConfig second = configRetriever.getConfig("fullConfig.yaml");
+
+        // Assert
+        assertNotNull(first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void shouldCacheMissingConfig() {
+
+        // Arrange
+        ConfigRetriever configRetriever = new CachingConfigRetriever(new FileSystemConfigRetriever(), null);
+
+        // Act
+        DrSquidConfig drSquidConfig = configRetriever.getConfig("missingConfig.yaml");
+
+        // Assert
+        assertNull(drSquidConfig);
+        assertNull(configRetriever.getConfig("missingConfig.yaml"));
+    }
+
+    @Test
+    public void shouldSwapSnapshotOnReload() throws Exception {
+
+        // Arrange
+        writeConfig(true);
+        CachingConfigRetriever configRetriever = new CachingConfigRetriever(new FileSystemConfigRetriever(), folder.getRoot().toPath());
+        DrSquidConfig before = configRetriever.getConfig(CONFIG_NAME);
+        writeConfig(false);
+
+        // Act
+        configRetriever.reload(CONFIG_NAME);
+        DrSquidConfig after = configRetriever.getConfig(CONFIG_NAME);
+
+        // Assert
+        assertTrue(before.isEnabled());
+        assertFalse(after.isEnabled());
+        assertNotSame(before, after);
+    }
+
+    @Test
+    public void shouldKeepSnapshotWhenReloadFails() throws Exception {
+
+        // Arrange
+        Path path = writeConfig(true);
+        CachingConfigRetriever configRetriever = new CachingConfigRetriever(new FileSystemConfigRetriever(), folder.getRoot().toPath());
+        DrSquidConfig before = configRetriever.getConfig(CONFIG_NAME);
+        Files.write(path, "enabled: [not a boolean".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        configRetriever.reload(CONFIG_NAME);
+
+        // Assert
+        assertSame(before, configRetriever.getConfig(CONFIG_NAME));
+    }
+
+    @Test
+    public void shouldReloadWhenFileChanges() throws Exception {
+
+        // Arrange
+        writeConfig(true);
+        CachingConfigRetriever configRetriever = new CachingConfigRetriever(new FileSystemConfigRetriever(), folder.getRoot().toPath());
+        assertTrue(configRetriever.getConfig(CONFIG_NAME).isEnabled());
+        configRetriever.startWatching();
+
+        // Act
+        writeConfig(false);
+        long deadline = System.currentTimeMillis() + 30000;
+        while (configRetriever.getConfig(CONFIG_NAME).isEnabled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // Assert
+        assertEquals(false, configRetriever.getConfig(CONFIG_NAME).isEnabled());
+        configRetriever.destroy();
+    }
+}
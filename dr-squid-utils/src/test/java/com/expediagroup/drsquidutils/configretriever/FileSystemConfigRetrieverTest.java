@@ -16,15 +16,25 @@
 package com.expediagroup.drsquidutils.configretriever;
 
 import com.expediagroup.drsquidutils.model.DrSquidConfig;
+import com.expediagroup.drsquidutils.model.Success;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.Assert.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FileSystemConfigRetrieverTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void shouldReturnFileSystemConfig() {
 
@@ -38,4 +48,37 @@ public class FileSystemConfigRetrieverTest {
         //3. Assert
         assertNotNull(drSquidConfiguration);
     }
+
+    @Test
+    public void shouldMapMockResponseFileRelativeToConfigWhenFirstNeeded() throws Exception {
+
+        //1. Arrange
+        Path responses = Files.createDirectories(folder.getRoot().toPath().resolve("responses"));
+        Path body = responses.resolve("hotels.json");
+        Path config = folder.getRoot().toPath().resolve("drsquid.yaml");
+        Files.write(config, ("enabled: true\n"
+                + "services:\n"
+                + "  - name: HotelService\n"
+                + "    pattern: \"*hotels*\"\n"
+                + "    enabled: true\n"
+                + "    behavior:\n"
+                + "      success:\n"
+                + "        percentage: 100\n"
+                + "        spoofed: true\n"
+                + "        mock_response_body: Inline Body\n"
+                + "        mock_response_file: responses/hotels.json\n"
+                + "        mock_status_code: 200\n"
+                + "        delay:\n"
+                + "          type: fixed\n"
+                + "          fixed_value_in_msecs: 0\n").getBytes(StandardCharsets.UTF_8));
+
+        //2. Act
+        DrSquidConfig drSquidConfiguration = new FileSystemConfigRetriever().getConfig(config);
+        Success success = drSquidConfiguration.getServices().get(0).getBehavior().getSuccess();
+        Files.write(body, "{\"hotels\": []}".getBytes(StandardCharsets.UTF_8));
+
+        //3. Assert
+        assertEquals(body.toAbsolutePath(), success.getMockResponse().getFile());
+        assertEquals(14, success.getMockResponse().getContentLength());
+    }
 }
@@ -57,4 +57,19 @@ public class FixedDelayDriverTest {
         //Assert
         assertEquals(0, timeToSleep);
     }
+
+    @Test
+    public void shouldSleepFractionalFixedDelayInNanos() {
+
+        //Arrange
+        DelayDriver delayDriver = new FixedDelayDriver();
+        FixedDelay fractionalDelay = new FixedDelay(0.3);
+
+        //Act
+        long timeToSleep = delayDriver.getDelayTimeNanos(fractionalDelay);
+
+        //Assert
+        assertEquals(300000, timeToSleep);
+        assertEquals(0, delayDriver.getDelayTime(fractionalDelay));
+    }
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.delaydriver;
+
+import com.expediagroup.drsquidutils.model.ExponentialDelay;
+import com.expediagroup.drsquidutils.model.LogNormalDelay;
+import com.expediagroup.drsquidutils.model.ParetoDelay;
+import com.expediagroup.drsquidutils.utils.RandomNumberGenerator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InverseCdfDelayDriverTest {
+
+    @Spy
+    @InjectMocks
+    private DelayDriver delayDriver = new InverseCdfDelayDriver();
+
+    @Mock
+    private RandomNumberGenerator random;
+
+    @Test
+    public void shouldSleepLogNormalMedian() {
+
+        //Arrange
+        LogNormalDelay logNormalDelay = new LogNormalDelay(100, 50);
+        when(random.nextDouble()).thenReturn(0.5);
+
+        //Act
+        int timeToSleep = delayDriver.getDelayTime(logNormalDelay);
+
+        //Assert
+        // Median of a log-normal delay is mean / sqrt(1 + (stdDev / mean)^2)
+        assertEquals(89, timeToSleep);
+    }
+
+    @Test
+    public void shouldSleepExponentialMedian() {
+
+        //Arrange
+        ExponentialDelay exponentialDelay = new ExponentialDelay(100, 20);
+        when(random.nextDouble()).thenReturn(0.5);
+
+        //Act
+        int timeToSleep = delayDriver.getDelayTime(exponentialDelay);
+
+        //Assert
+        // Median of an exponential delay is min + mean * ln(2)
+        assertEquals(89, timeToSleep);
+    }
+
+    @Test
+    public void shouldSleepParetoMinimum() {
+
+        //Arrange
+        ParetoDelay paretoDelay = new ParetoDelay(10, 3);
+        when(random.nextDouble()).thenReturn(0.0);
+
+        //Act
+        int timeToSleep = delayDriver.getDelayTime(paretoDelay);
+
+        //Assert
+        assertEquals(10, timeToSleep);
+    }
+
+    @Test
+    public void shouldNotSleepMisconfiguredDelay() {
+
+        //Arrange
+        ParetoDelay paretoDelay = new ParetoDelay(10, -1);
+
+        //Act
+        int timeToSleep = delayDriver.getDelayTime(paretoDelay);
+
+        //Assert
+        assertEquals(0, timeToSleep);
+    }
+
+    @Test
+    public void shouldSleepSubMillisecondDelayInNanos() {
+
+        //Arrange
+        ParetoDelay paretoDelay = new ParetoDelay(0.3, 3);
+        when(random.nextDouble()).thenReturn(0.0);
+
+        //Act
+        long timeToSleep = delayDriver.getDelayTimeNanos(paretoDelay);
+
+        //Assert
+        assertEquals(300000, timeToSleep);
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.delaydriver;
+
+import com.expediagroup.drsquidutils.model.FixedDelay;
+import com.expediagroup.drsquidutils.model.MixtureDelay;
+import com.expediagroup.drsquidutils.model.RangeDelay;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InverseCdfTableTest {
+
+    private double[] draw(InverseCdfTable inverseCdfTable, int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] delays = new double[count];
+        for (int i = 0; i < count; i++) {
+            delays[i] = inverseCdfTable.sample(random.nextDouble());
+        }
+        Arrays.sort(delays);
+        return delays;
+    }
+
+    @Test
+    public void shouldMatchNormalInverseCdf() {
+
+        // Arrange
+
+        // Act
+        double median = InverseCdfTable.normalInverseCdf(0.5);
+        double upper = InverseCdfTable.normalInverseCdf(0.975);
+        double lower = InverseCdfTable.normalInverseCdf(0.001);
+
+        // Assert
+        assertEquals(0, median, 1e-9);
+        assertEquals(1.959964, upper, 1e-6);
+        assertEquals(-3.090232, lower, 1e-6);
+    }
+
+    @Test
+    public void shouldInterpolateBetweenQuantiles() {
+
+        // Arrange
+        InverseCdfTable inverseCdfTable = new InverseCdfTable(probability -> 1000 * probability);
+
+        // Act
+        double delay = inverseCdfTable.sample(0.123456);
+
+        // Assert
+        assertEquals(123.456, delay, 1e-6);
+        assertEquals(0.123456, inverseCdfTable.cdf(delay), 1e-9);
+    }
+
+    @Test
+    public void shouldNeverBeNegative() {
+
+        // Arrange
+        InverseCdfTable inverseCdfTable = new InverseCdfTable(probability -> 100 + 100 * InverseCdfTable.normalInverseCdf(probability));
+
+        // Act
+        double delay = inverseCdfTable.sample(0.0);
+
+        // Assert
+        assertEquals(0, delay, 0);
+        assertEquals(0, inverseCdfTable.getMin(), 0);
+    }
+
+    @Test
+    public void shouldMatchExponentialMean() {
+
+        // Arrange
+        InverseCdfTable inverseCdfTable = new InverseCdfTable(probability -> -100 * Math.log(1 - probability));
+
+        // Act
+        double[] delays = draw(inverseCdfTable, 1000000);
+
+        // Assert
+        assertEquals(100, Arrays.stream(delays).average().getAsDouble(), 1);
+        assertEquals(100 * Math.log(2), delays[delays.length / 2], 1);
+        assertEquals(100 * Math.log(100), delays[(int) (delays.length * 0.99)], 5);
+    }
+
+    @Test
+    public void shouldMixComponentsByWeight() {
+
+        // Arrange
+        MixtureDelay mixtureDelay = new MixtureDelay(Arrays.asList(
+                new MixtureDelay.Component(95, new RangeDelay(10, 20)),
+                new MixtureDelay.Component(5, new FixedDelay(1000))));
+
+        // Act
+        double[] delays = draw(mixtureDelay.getInverseCdfTable(), 1000000);
+
+        // Assert
+        double median = delays[delays.length / 2];
+        assertTrue(median >= 10 && median <= 21);
+        assertTrue(delays[(int) (delays.length * 0.94)] <= 21);
+        assertEquals(1000, delays[(int) (delays.length * 0.96)], 1);
+    }
+
+    @Test
+    public void shouldResolveTailQuantiles() {
+
+        // Arrange
+        InverseCdfTable inverseCdfTable = new InverseCdfTable(probability -> -100 * Math.log(1 - probability));
+
+        // Act
+        double p99 = inverseCdfTable.sample(0.99);
+        double p9999 = inverseCdfTable.sample(0.9999);
+
+        // Assert
+        assertEquals(100 * Math.log(100), p99, 0.01);
+        assertEquals(100 * Math.log(10000), p9999, 0.01);
+        assertEquals(0.9999, inverseCdfTable.cdf(p9999), 1e-9);
+    }
+
+    @Test
+    public void shouldSpreadBucketsEvenly() {
+
+        // Arrange
+        double[] lows = {10, 50, 100};
+        double[] highs = {11, 51, 101};
+        long[] counts = {90, 0, 10};
+
+        // Act
+        InverseCdfTable inverseCdfTable = InverseCdfTable.fromBuckets(lows, highs, counts);
+
+        // Assert
+        assertEquals(10, inverseCdfTable.getMin(), 0);
+        assertEquals(10.5, inverseCdfTable.sample(0.45), 1e-9);
+        assertEquals(100.5, inverseCdfTable.sample(0.95), 1e-9);
+        assertEquals(0.45, inverseCdfTable.cdf(10.5), 1e-9);
+    }
+}
@@ -81,4 +81,34 @@ public class NormalDelayDriverTest {
         //Assert
         assertEquals(0, timeToSleep);
     }
+
+    @Test
+    public void shouldNotSleepNegativeNormalDelay() {
+
+        //Arrange
+        when(normalDelay.getMean()).thenReturn(100);
+        when(normalDelay.getStdDev()).thenReturn(100);
+        when(random.nextGaussian()).thenReturn(-3.0);
+
+        //Act
+        int timeToSleep = delayDriver.getDelayTime(normalDelay);
+
+        //Assert
+        assertEquals(0, timeToSleep);
+    }
+
+    @Test
+    public void shouldSleepNormalDelayInNanos() {
+
+        //Arrange
+        when(normalDelay.getMean()).thenReturn(1);
+        when(normalDelay.getStdDev()).thenReturn(1);
+        when(random.nextGaussian()).thenReturn(-0.75);
+
+        //Act
+        long timeToSleep = delayDriver.getDelayTimeNanos(normalDelay);
+
+        //Assert
+        assertEquals(250000, timeToSleep);
+    }
 }
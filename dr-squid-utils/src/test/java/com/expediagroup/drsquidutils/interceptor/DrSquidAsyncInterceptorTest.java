@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.expediagroup.drsquidutils.utils.Constants.DR_SQUID_URL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+@SuppressWarnings("deprecation")
+public class DrSquidAsyncInterceptorTest {
+
+    @InjectMocks
+    private DrSquidAsyncInterceptor drSquidAsyncInterceptor;
+
+    @Mock
+    private DrSquidInterceptor drSquidInterceptor;
+
+    @Spy
+    private DelayScheduler delayScheduler = new DelayScheduler();
+
+    @After
+    public void tearDown() {
+        delayScheduler.destroy();
+    }
+
+    private AsyncClientHttpRequestExecution execution(ClientHttpResponse response) throws Exception {
+        SettableListenableFuture<ClientHttpResponse> future = new SettableListenableFuture<>();
+        future.set(response);
+        AsyncClientHttpRequestExecution execution = mock(AsyncClientHttpRequestExecution.class);
+        when(execution.executeAsync(any(HttpRequest.class), any(byte[].class))).thenReturn(future);
+        return execution;
+    }
+
+    @Test
+    public void shouldSendOriginalRequestAfterScheduledDelay() throws Exception {
+
+        // Arrange
+        HttpRequest request = mock(HttpRequest.class);
+        byte[] body = new byte[0];
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        AsyncClientHttpRequestExecution execution = execution(response);
+        when(drSquidInterceptor.decide(request, body)).thenReturn(Interception.delayThenProceed(TimeUnit.MILLISECONDS.toNanos(50), "for test"));
+
+        // Act
+        ListenableFuture<ClientHttpResponse> result = drSquidAsyncInterceptor.intercept(request, body, execution);
+
+        // Assert
+        assertSame(response, result.get(5, TimeUnit.SECONDS));
+        verify(delayScheduler).schedule(any(Runnable.class), eq(TimeUnit.MILLISECONDS.toNanos(50)), eq(TimeUnit.NANOSECONDS));
+        verify(execution).executeAsync(request, body);
+    }
+
+    @Test
+    public void shouldSendDelayedRequestOffTimerThread() throws Exception {
+
+        // Arrange
+        HttpRequest request = mock(HttpRequest.class);
+        byte[] body = new byte[0];
+        SettableListenableFuture<ClientHttpResponse> future = new SettableListenableFuture<>();
+        future.set(mock(ClientHttpResponse.class));
+        AtomicReference<Thread> sendingThread = new AtomicReference<>();
+        AtomicReference<Thread> timerThread = new AtomicReference<>();
+        AsyncClientHttpRequestExecution execution = mock(AsyncClientHttpRequestExecution.class);
+        when(execution.executeAsync(any(HttpRequest.class), any(byte[].class))).thenAnswer(invocation -> {
+            sendingThread.set(Thread.currentThread());
+            return future;
+        });
+        when(drSquidInterceptor.decide(request, body)).thenReturn(Interception.delayThenProceed(TimeUnit.MILLISECONDS.toNanos(20), "for test"));
+        delayScheduler.schedule(() -> timerThread.set(Thread.currentThread()), 0);
+
+        // Act
+        drSquidAsyncInterceptor.intercept(request, body, execution).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(timerThread.get());
+        assertNotSame(timerThread.get(), sendingThread.get());
+    }
+
+    @Test
+    public void shouldSendSpoofedRequestToDrSquid() throws Exception {
+
+        // Arrange
+        HttpRequest request = mock(HttpRequest.class);
+        byte[] body = new byte[0];
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        URI drSquidUri = new URI(DR_SQUID_URL + "?token=abc");
+        AsyncClientHttpRequestExecution execution = execution(mock(ClientHttpResponse.class));
+        when(drSquidInterceptor.decide(request, body)).thenReturn(Interception.spoof(drSquidUri, "for test"));
+        ArgumentCaptor<HttpRequest> sentRequest = ArgumentCaptor.forClass(HttpRequest.class);
+
+        // Act
+        drSquidAsyncInterceptor.intercept(request, body, execution);
+
+        // Assert
+        verify(execution).executeAsync(sentRequest.capture(), any(byte[].class));
+        assertEquals(drSquidUri, sentRequest.getValue().getURI());
+        assertEquals(HttpMethod.GET, sentRequest.getValue().getMethod());
+    }
+
+    @Test
+    public void shouldSendOriginalRequestWhenNotIntercepted() throws Exception {
+
+        // Arrange
+        HttpRequest request = mock(HttpRequest.class);
+        byte[] body = new byte[0];
+        AsyncClientHttpRequestExecution execution = execution(mock(ClientHttpResponse.class));
+        when(drSquidInterceptor.decide(request, body)).thenReturn(Interception.PROCEED);
+
+        // Act
+        drSquidAsyncInterceptor.intercept(request, body, execution);
+
+        // Assert
+        verify(execution).executeAsync(request, body);
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.interceptor;
+
+import com.expediagroup.drsquidutils.response.MockResponse;
+import com.expediagroup.drsquidutils.scheduler.DelayScheduler;
+import com.expediagroup.drsquidutils.scheduler.TimingWheel;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.expediagroup.drsquidutils.utils.Constants.DR_SQUID_URL;
+import static com.expediagroup.drsquidutils.utils.Constants.GOOGLE_URL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DrSquidExchangeFilterFunctionTest {
+
+    @InjectMocks
+    private DrSquidExchangeFilterFunction drSquidExchangeFilterFunction;
+
+    @Mock
+    private DrSquidInterceptor drSquidInterceptor;
+
+    @Spy
+    private DelayScheduler delayScheduler = new DelayScheduler();
+
+    // Requests sent on by the stub exchange function.
+    private final List<ClientRequest> sentRequests = new CopyOnWriteArrayList<>();
+    private final ClientResponse nextResponse = mock(ClientResponse.class);
+    private final ExchangeFunction next = request -> {
+        sentRequests.add(request);
+        return Mono.just(nextResponse);
+    };
+
+    @After
+    public void tearDown() {
+        delayScheduler.destroy();
+    }
+
+    private ClientRequest request() {
+        return ClientRequest.create(HttpMethod.GET, URI.create(GOOGLE_URL)).build();
+    }
+
+    private void decide(Interception interception) throws Exception {
+        when(drSquidInterceptor.decide(any(HttpRequest.class), any(byte[].class))).thenReturn(interception);
+    }
+
+    @Test
+    public void shouldSendOriginalRequestAfterScheduledDelay() throws Exception {
+
+        // Arrange
+        ClientRequest request = request();
+        decide(Interception.delayThenProceed(TimeUnit.MILLISECONDS.toNanos(50), "for test"));
+        long start = System.nanoTime();
+
+        // Act
+        ClientResponse response = drSquidExchangeFilterFunction.filter(request, next).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertSame(nextResponse, response);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(45));
+        verify(delayScheduler).schedule(any(Runnable.class), eq(TimeUnit.MILLISECONDS.toNanos(50)), eq(TimeUnit.NANOSECONDS));
+        assertEquals(1, sentRequests.size());
+        assertSame(request, sentRequests.get(0));
+    }
+
+    @Test
+    public void shouldRespondWithMockResponse() throws Exception {
+
+        // Arrange
+        decide(Interception.respond(TimeUnit.MILLISECONDS.toNanos(10), new MockResponse(503, "Squid unavailable"), "for test"));
+
+        // Act
+        ClientResponse response = drSquidExchangeFilterFunction.filter(request(), next).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.statusCode());
+        assertEquals("text/plain;charset=UTF-8", response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals("17", response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+        assertEquals("Squid unavailable", response.bodyToMono(String.class).block(Duration.ofSeconds(5)));
+        assertTrue(sentRequests.isEmpty());
+    }
+
+    @Test
+    public void shouldSendSpoofedRequestToDrSquid() throws Exception {
+
+        // Arrange
+        URI drSquidUri = new URI(DR_SQUID_URL + "?token=abc");
+        decide(Interception.spoof(drSquidUri, "for test"));
+
+        // Act
+        ClientResponse response = drSquidExchangeFilterFunction.filter(request(), next).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertSame(nextResponse, response);
+        assertEquals(1, sentRequests.size());
+        assertEquals(drSquidUri, sentRequests.get(0).url());
+        assertEquals(HttpMethod.GET, sentRequests.get(0).method());
+    }
+
+    @Test
+    public void shouldCancelDelayWhenCancelled() throws Exception {
+
+        // Arrange
+        List<TimingWheel.Task> tasks = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            TimingWheel.Task task = (TimingWheel.Task) invocation.callRealMethod();
+            tasks.add(task);
+            return task;
+        }).when(delayScheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        decide(Interception.delayThenProceed(TimeUnit.SECONDS.toNanos(10), "for test"));
+        Disposable subscription = drSquidExchangeFilterFunction.filter(request(), next).subscribe();
+
+        // Act
+        subscription.dispose();
+
+        // Assert
+        assertEquals(1, tasks.size());
+        assertTrue(tasks.get(0).isCancelled());
+        assertTrue(sentRequests.isEmpty());
+    }
+}
@@ -15,23 +15,37 @@
  */
 package com.expediagroup.drsquidutils.interceptor;
 
+import com.expediagroup.drsquidutils.client.DrSquidServiceClient;
 import com.expediagroup.drsquidutils.configretriever.ConfigRetriever;
 import com.expediagroup.drsquidutils.configretriever.FileSystemConfigRetriever;
+import com.expediagroup.drsquidutils.delaydriver.FixedDelayDriver;
+import com.expediagroup.drsquidutils.model.Behavior;
 import com.expediagroup.drsquidutils.model.Delay;
 import com.expediagroup.drsquidutils.model.DrSquidConfig;
+import com.expediagroup.drsquidutils.model.FixedDelay;
 import com.expediagroup.drsquidutils.model.LoggingLevel;
+import com.expediagroup.drsquidutils.model.Sampling;
 import com.expediagroup.drsquidutils.model.Service;
+import com.expediagroup.drsquidutils.model.Timeout;
+import com.expediagroup.drsquidutils.model.TimeoutMode;
+import com.expediagroup.drsquidutils.sampler.ConsistentHash;
+import com.expediagroup.drsquidutils.sampler.Outcome;
+import com.expediagroup.drsquidutils.scheduler.PreciseWaiter;
 import com.expediagroup.drsquidutils.utils.RandomNumberGenerator;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.exceptions.misusing.InvalidUseOfMatchersException;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
@@ -42,6 +56,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -59,14 +75,16 @@ import static com.expediagroup.drsquidutils.utils.Constants.TEST_CLIENT_NAME;
 import static com.expediagroup.drsquidutils.utils.Constants.TEST_DOWNSTREAM_PATTERN;
 import static com.expediagroup.drsquidutils.utils.Constants.TEST_PROFILE;
 import static com.expediagroup.drsquidutils.utils.Constants.TEST_TOKEN;
-import static com.expediagroup.drsquidutils.utils.Constants.TIMEOUT;
 import static com.expediagroup.drsquidutils.utils.Constants.YAHOO_URL;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -85,6 +103,15 @@ public class DrSquidInterceptorTest {
     @Mock
     private FileSystemConfigRetriever fileSystemConfigRetriever;
 
+    @Spy
+    private FixedDelayDriver fixedDelayDriver = new FixedDelayDriver();
+
+    @Spy
+    private PreciseWaiter preciseWaiter = new PreciseWaiter();
+
+    @Mock
+    private DrSquidServiceClient drSquidServiceClient;
+
     private byte[] getFileBytes(String fileName) throws IOException, NullPointerException {
 
         URL url = getClass().getClassLoader().getResource(fileName);
@@ -96,257 +123,275 @@ public class DrSquidInterceptorTest {
     }
 
     @Test
-    public void getBucketsTestSumAt100() {
+    public void getQueryStringTest() {
 
         // Arrange
-        int[] percentages = {70, 20, 10};
+        String clientName = TEST_CLIENT_NAME;
+        String downstreamPattern = TEST_DOWNSTREAM_PATTERN;
+        String profile = TEST_PROFILE;
+        String status = SUCCESS;
+        String expectedQueryString = "clientName=" + clientName + "&downstreamPattern=" + downstreamPattern + "&profile=" + profile + "&status=" + status;
 
         // Act
-        int[] buckets = drSquidInterceptor.getBuckets(percentages);
+        String queryString = drSquidInterceptor.getQueryString(clientName, downstreamPattern, profile, status);
 
         // Assert
-        assertNotNull(buckets);
-        assertEquals(70, buckets[0]);
-        assertEquals(90, buckets[1]);
-        assertEquals(100, buckets[2]);
+        assertNotNull(queryString);
+        assertEquals(expectedQueryString, queryString);
     }
 
     @Test
-    public void getBucketsTestSumBelow100() {
+    public void getQueryStringTestFailureVariant() {
 
         // Arrange
-        int[] percentages = {50, 20, 10};
+        String expectedQueryString = "clientName=" + TEST_CLIENT_NAME + "&downstreamPattern=" + TEST_DOWNSTREAM_PATTERN + "&profile=" + TEST_PROFILE + "&status=" + FAILURE + "&variant=2";
 
         // Act
-        int[] buckets = drSquidInterceptor.getBuckets(percentages);
+        String queryString = drSquidInterceptor.getQueryString(TEST_CLIENT_NAME, TEST_DOWNSTREAM_PATTERN, TEST_PROFILE, Outcome.failure(2));
 
         // Assert
-        assertEquals(0, buckets.length);
+        assertEquals(expectedQueryString, queryString);
     }
 
-
     @Test
-    public void getBucketsTestSumAbove100() {
+    public void getQueryStringTestFirstFailure() {
 
         // Arrange
-        int[] percentages = {90, 20, 10};
+        String expectedQueryString = "clientName=" + TEST_CLIENT_NAME + "&downstreamPattern=" + TEST_DOWNSTREAM_PATTERN + "&profile=" + TEST_PROFILE + "&status=" + FAILURE;
 
         // Act
-        int[] buckets = drSquidInterceptor.getBuckets(percentages);
+        String queryString = drSquidInterceptor.getQueryString(TEST_CLIENT_NAME, TEST_DOWNSTREAM_PATTERN, TEST_PROFILE, Outcome.failure(0));
 
         // Assert
-        assertEquals(0, buckets.length);
+        assertEquals(expectedQueryString, queryString);
     }
 
     @Test
-    public void getBucketsTestNegativePercentage() {
+    public void getQueryStringTestScheduleLevel() {
 
         // Arrange
-        int[] percentages = {-70, 20, 10};
+        String expectedQueryString = "clientName=" + TEST_CLIENT_NAME + "&downstreamPattern=" + TEST_DOWNSTREAM_PATTERN + "&profile=" + TEST_PROFILE + "&status=" + FAILURE + "&variant=2&level=0";
 
         // Act
-        int[] buckets = drSquidInterceptor.getBuckets(percentages);
+        String queryString = drSquidInterceptor.getQueryString(TEST_CLIENT_NAME, TEST_DOWNSTREAM_PATTERN, TEST_PROFILE, Outcome.failure(2), 0);
 
         // Assert
-        assertEquals(0, buckets.length);
+        assertEquals(expectedQueryString, queryString);
     }
 
     @Test
-    public void getStatusTestFirstBucket() {
+    public void getTimeoutQueryStringTest() {
 
         // Arrange
-        int[] buckets = {70, 90, 100};
-        when(random.nextInt(100)).thenReturn(35);
+        String expectedQueryString = "mode=STALL&delayInNanos=1500000&stallAfterBytes=64";
 
         // Act
-        String status = drSquidInterceptor.getStatus(buckets);
+        String queryString = drSquidInterceptor.getTimeoutQueryString(TimeoutMode.STALL, 1500000, 64);
 
         // Assert
-        assertNotNull(status);
-        assertEquals(SUCCESS, status);
+        assertEquals(expectedQueryString, queryString);
     }
 
     @Test
-    public void getStatusTestSecondBucket() {
+    public void getTokenTest() {
 
         // Arrange
-        int[] buckets = {70, 90, 100};
-        when(random.nextInt(100)).thenReturn(75);
+        String queryString = "clientName=test-service&downstreamPattern=*hello*&profile=test&status=success";
+        String expectedToken = TEST_TOKEN;
 
         // Act
-        String status = drSquidInterceptor.getStatus(buckets);
+        String token = drSquidInterceptor.getToken(queryString);
 
         // Assert
-        assertNotNull(status);
-        assertEquals(FAILURE, status);
+        assertNotNull(token);
+        assertEquals(expectedToken, token);
     }
 
     @Test
-    public void getStatusTestThirdBucket() {
+    public void createDrSquidRequestTest() throws Exception {
 
         // Arrange
-        int[] buckets = {70, 90, 100};
-        when(random.nextInt(100)).thenReturn(95);
+        HttpRequest request = new SimpleClientHttpRequestFactory().createRequest(new URI(GOOGLE_URL), HttpMethod.GET);
+        String drSquidUrl = DR_SQUID_URL;
+        String token = TEST_TOKEN;
+        String expectedUri = drSquidUrl + "?token=" + TEST_TOKEN;
 
         // Act
-        String status = drSquidInterceptor.getStatus(buckets);
+        HttpRequest drSquidRequest = drSquidInterceptor.createDrSquidRequest(request, drSquidUrl, token);
 
         // Assert
-        assertNotNull(status);
-        assertEquals(TIMEOUT, status);
+        assertNotNull(drSquidRequest);
+        assertEquals(HttpMethod.GET, drSquidRequest.getMethod());
+        assertEquals(expectedUri, drSquidRequest.getURI().toString());
     }
 
     @Test
-    public void getStatusTestFirstBucketEdge() {
+    public void matchDownstreamTestTwoEnabledServices() {
 
         // Arrange
-        int[] buckets = {70, 90, 100};
-        when(random.nextInt(100)).thenReturn(69); // This gets incremented, since random.nextInt(100) returns 0-99 inclusive, so the actual number for bucketizing will be 70
+        Service tripadvisor = new Service("TripAdvisor", null, "*tripadvisor*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
+        Service google = new Service("Google", null, "*google.com*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
+        List<Service> services = Arrays.asList(tripadvisor, google);
+        DrSquidConfig drSquidConfig = new DrSquidConfig(true, LoggingLevel.NONE, services, null);
+        String downstreamUrl = GOOGLE_URL;
 
         // Act
-        String status = drSquidInterceptor.getStatus(buckets);
+        Service matchingService = drSquidInterceptor.matchDownstream(drSquidConfig, downstreamUrl);
 
         // Assert
-        assertNotNull(status);
-        assertEquals(SUCCESS, status);
+        assertNotNull(matchingService);
+        assertEquals("Google", matchingService.getName());
     }
 
     @Test
-    public void getStatusTestLastBucketEdge() {
+    public void matchDownstreamTestNotMatchDisabledService() {
 
         // Arrange
-        int[] buckets = {70, 90, 100};
-        when(random.nextInt(100)).thenReturn(99); // This gets incremented, since random.nextInt(100) returns 0-99 inclusive, so the actual number for bucketizing will be 70
+        Service testService = new Service("testService", null, "*testService*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
+        Service google = new Service("Google", null, "*google.com*", HttpMethod.GET, null, false, LoggingLevel.NONE, null);
+        List<Service> services = Arrays.asList(testService, google);
+        DrSquidConfig drSquidConfig = new DrSquidConfig(true, LoggingLevel.NONE, services, null);
+        String downstreamUrl = GOOGLE_URL;
 
         // Act
-        String status = drSquidInterceptor.getStatus(buckets);
+        Service matchingService = drSquidInterceptor.matchDownstream(drSquidConfig, downstreamUrl);
 
         // Assert
-        assertNotNull(status);
-        assertEquals(TIMEOUT, status);
+        assertNull(matchingService);
     }
 
     @Test
-    public void getStatusTestEmptyBuckets() {
+    public void matchDownstreamTestNoMatchingServices() {
+
+        // Arrange
+        Service testService = new Service("testService", null, "*testService*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
+        Service google = new Service("Google", null, "*google.com*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
+        List<Service> services = Arrays.asList(testService, google);
+        DrSquidConfig drSquidConfig = new DrSquidConfig(true, LoggingLevel.NONE, services, null);
+        String downstreamUrl = YAHOO_URL;
 
         // Act
-        String status = drSquidInterceptor.getStatus(new int[0]);
+        Service matchingService = drSquidInterceptor.matchDownstream(drSquidConfig, downstreamUrl);
 
         // Assert
-        assertNull(status);
+        assertNull(matchingService);
     }
 
     @Test
-    public void getQueryStringTest() {
+    public void getTimeToSleepTestUnsupportedDelayType() {
 
         // Arrange
-        String clientName = TEST_CLIENT_NAME;
-        String downstreamPattern = TEST_DOWNSTREAM_PATTERN;
-        String profile = TEST_PROFILE;
-        String status = SUCCESS;
-        String expectedQueryString = "clientName=" + clientName + "&downstreamPattern=" + downstreamPattern + "&profile=" + profile + "&status=" + status;
+        Delay delay = () -> "blah";
 
         // Act
-        String queryString = drSquidInterceptor.getQueryString(clientName, downstreamPattern, profile, status);
+        int timeToSleep = drSquidInterceptor.getTimeToSleep(delay);
 
         // Assert
-        assertNotNull(queryString);
-        assertEquals(expectedQueryString, queryString);
+        assertEquals(0, timeToSleep);
     }
 
     @Test
-    public void getTokenTest() {
+    public void getCharsetTestFromContentType() {
 
         // Arrange
-        String queryString = "clientName=test-service&downstreamPattern=*hello*&profile=test&status=success";
-        String expectedToken = TEST_TOKEN;
+        HttpRequest request = mock(HttpRequest.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/plain;charset=ISO-8859-1"));
+        when(request.getHeaders()).thenReturn(headers);
 
         // Act
-        String token = drSquidInterceptor.getToken(queryString);
+        Charset charset = drSquidInterceptor.getCharset(request);
 
         // Assert
-        assertNotNull(token);
-        assertEquals(expectedToken, token);
+        assertEquals(StandardCharsets.ISO_8859_1, charset);
     }
 
     @Test
-    public void createDrSquidRequestTest() throws Exception {
+    public void getCharsetTestQuotedCharset() {
 
         // Arrange
-        HttpRequest request = new SimpleClientHttpRequestFactory().createRequest(new URI(GOOGLE_URL), HttpMethod.GET);
-        String drSquidUrl = DR_SQUID_URL;
-        String token = TEST_TOKEN;
-        String expectedUri = drSquidUrl + "?token=" + TEST_TOKEN;
+        HttpRequest request = mock(HttpRequest.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json; CHARSET=\"UTF-16\"");
+        when(request.getHeaders()).thenReturn(headers);
 
         // Act
-        HttpRequest drSquidRequest = drSquidInterceptor.createDrSquidRequest(request, drSquidUrl, token);
+        Charset first = drSquidInterceptor.getCharset(request);
+        Charset second = drSquidInterceptor.getCharset(request);
 
         // Assert
-        assertNotNull(drSquidRequest);
-        assertEquals(HttpMethod.GET, drSquidRequest.getMethod());
-        assertEquals(expectedUri, drSquidRequest.getURI().toString());
+        assertEquals(StandardCharsets.UTF_16, first);
+        assertEquals(StandardCharsets.UTF_16, second);
     }
 
     @Test
-    public void matchDownstreamTestTwoEnabledServices() {
+    public void getCharsetTestIgnoresOtherParameters() {
 
         // Arrange
-        Service tripadvisor = new Service("TripAdvisor", null, "*tripadvisor*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
-        Service google = new Service("Google", null, "*google.com*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
-        List<Service> services = Arrays.asList(tripadvisor, google);
-        String downstreamUrl = GOOGLE_URL;
+        HttpRequest request = mock(HttpRequest.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "text/plain;x-charset=ISO-8859-1");
+        when(request.getHeaders()).thenReturn(headers);
 
         // Act
-        Service matchingService = drSquidInterceptor.matchDownstream(services, downstreamUrl);
+        Charset charset = drSquidInterceptor.getCharset(request);
 
         // Assert
-        assertNotNull(matchingService);
-        assertEquals("Google", matchingService.getName());
+        assertEquals(StandardCharsets.UTF_8, charset);
     }
 
     @Test
-    public void matchDownstreamTestNotMatchDisabledService() {
+    public void getCharsetTestDefaultsToUtf8() {
 
         // Arrange
-        Service testService = new Service("testService", null, "*testService*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
-        Service google = new Service("Google", null, "*google.com*", HttpMethod.GET, null, false, LoggingLevel.NONE, null);
-        List<Service> services = Arrays.asList(testService, google);
-        String downstreamUrl = GOOGLE_URL;
+        HttpRequest request = mock(HttpRequest.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "not a media type");
+        when(request.getHeaders()).thenReturn(headers);
 
         // Act
-        Service matchingService = drSquidInterceptor.matchDownstream(services, downstreamUrl);
+        Charset charset = drSquidInterceptor.getCharset(request);
 
         // Assert
-        assertNull(matchingService);
+        assertEquals(StandardCharsets.UTF_8, charset);
     }
 
     @Test
-    public void matchDownstreamTestNoMatchingServices() {
+    public void getSamplingBitsTestConsistentSampling() {
 
         // Arrange
-        Service testService = new Service("testService", null, "*testService*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
-        Service google = new Service("Google", null, "*google.com*", HttpMethod.GET, null, true, LoggingLevel.NONE, null);
-        List<Service> services = Arrays.asList(testService, google);
-        String downstreamUrl = YAHOO_URL;
+        Behavior behavior = new Behavior(null, null, null, new Timeout(100, null), Sampling.CONSISTENT, "X-Trace-Id");
+        Service service = new Service("Google", null, "*google*", null, null, true, LoggingLevel.NONE, behavior);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Trace-Id", "4bf92f3577b34da6a3ce929d0e0e4736");
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getHeaders()).thenReturn(headers);
 
         // Act
-        Service matchingService = drSquidInterceptor.matchDownstream(services, downstreamUrl);
+        long first = drSquidInterceptor.getSamplingBits(request, service);
+        long second = drSquidInterceptor.getSamplingBits(request, service);
 
         // Assert
-        assertNull(matchingService);
+        assertEquals(ConsistentHash.combine(ConsistentHash.hash("4bf92f3577b34da6a3ce929d0e0e4736"), ConsistentHash.hash("Google")), first);
+        assertEquals(first, second);
+        verify(random, never()).nextLong();
     }
 
     @Test
-    public void getTimeToSleepTestUnsupportedDelayType() {
+    public void getSamplingBitsTestConsistentSamplingWithoutHeader() {
 
         // Arrange
-        Delay delay = () -> "blah";
+        Behavior behavior = new Behavior(null, null, null, new Timeout(100, null), Sampling.CONSISTENT, "X-Trace-Id");
+        Service service = new Service("Google", null, "*google*", null, null, true, LoggingLevel.NONE, behavior);
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getHeaders()).thenReturn(new HttpHeaders());
+        when(random.nextLong()).thenReturn(42L);
 
         // Act
-        int timeToSleep = drSquidInterceptor.getTimeToSleep(delay);
+        long bits = drSquidInterceptor.getSamplingBits(request, service);
 
         // Assert
-        assertEquals(0, timeToSleep);
+        assertEquals(42L, bits);
     }
 
     @Test
@@ -414,6 +459,9 @@ public class DrSquidInterceptorTest {
             );
         });
 
+        // Set up Dr. Squid Service client
+        when(drSquidServiceClient.execute(any(), any())).thenReturn(drSquidResponse);
+
         // Act
         ClientHttpResponse firstGetResponse = drSquidInterceptor.intercept(googleRequest, emptyBody, execution);
         ClientHttpResponse secondGetResponse = drSquidInterceptor.intercept(facebookRequest, emptyBody, execution);
@@ -483,6 +531,9 @@ public class DrSquidInterceptorTest {
             );
         });
 
+        // Set up Dr. Squid Service client
+        when(drSquidServiceClient.execute(any(), any())).thenReturn(drSquidResponse);
+
         // Act
         ClientHttpResponse firstPostResponse = drSquidInterceptor.intercept(postRequest, matchingBody, execution);
         ClientHttpResponse secondPostResponse = drSquidInterceptor.intercept(postRequest, normalBody, execution);
@@ -491,4 +542,102 @@ public class DrSquidInterceptorTest {
         assertEquals(drSquidResponseText, firstPostResponse.getStatusText());
         assertEquals(postResponseText, secondPostResponse.getStatusText());
     }
+
+    @Test
+    public void testInterceptorLocalMode() throws Exception {
+        // Arrange
+        HttpRequest googleRequest = mock(HttpRequest.class);
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        DrSquidConfig drSquidConfig = new FileSystemConfigRetriever().getConfig("testConfig.yaml");
+
+        // Set up environment
+        when(environment.getProperty(eq("drsquid.mode"))).thenReturn("local");
+        when(environment.getProperty(eq("drsquid.profile"))).thenReturn("test");
+        when(environment.getProperty(eq("info.build.artifact"))).thenReturn("fake-service");
+        when(fileSystemConfigRetriever.getConfig(eq("drsquid.fake-service.test"))).thenReturn(drSquidConfig);
+
+        // Set up request
+        when(googleRequest.getURI()).thenReturn(new URI(GOOGLE_URL));
+        when(googleRequest.getMethod()).thenReturn(HttpMethod.GET);
+
+        // Act
+        long start = System.currentTimeMillis();
+        ClientHttpResponse response = drSquidInterceptor.intercept(googleRequest, new byte[0], execution);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Assert
+        verify(execution, never()).execute(any(), any());
+        assertEquals(400, response.getRawStatusCode());
+        assertEquals("Failure Body", IOUtils.toString(response.getBody(), StandardCharsets.UTF_8));
+        assertTrue(elapsed >= 100);
+    }
+
+    @Test
+    public void testInterceptorResolvesConfigNameOnceProfileIsSet() throws Exception {
+        // Arrange
+        HttpRequest yahooRequest = mock(HttpRequest.class);
+
+        // Set up environment, without a profile for the first call
+        when(environment.getProperty(eq("drsquid.profile"))).thenReturn(null, "test");
+        when(environment.getActiveProfiles()).thenReturn(new String[0]);
+        when(environment.getProperty(eq("info.build.artifact"))).thenReturn("fake-service");
+
+        // Set up request
+        when(yahooRequest.getURI()).thenReturn(new URI(YAHOO_URL));
+
+        // Act
+        Interception first = drSquidInterceptor.decide(yahooRequest, new byte[0]);
+        Interception second = drSquidInterceptor.decide(yahooRequest, new byte[0]);
+
+        // Assert
+        assertEquals(Interception.Action.PROCEED, first.getAction());
+        assertEquals(Interception.Action.PROCEED, second.getAction());
+        verify(fileSystemConfigRetriever).getConfig(eq("drsquid.fake-service.test"));
+    }
+
+    @Test
+    public void testInterceptorTimeoutServer() throws Exception {
+        // Arrange
+        HttpRequest googleRequest = mock(HttpRequest.class);
+        ClientHttpResponse timeoutResponse = mock(ClientHttpResponse.class);
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        Behavior behavior = new Behavior(null, null, new Timeout(100, new FixedDelay(1.0), TimeoutMode.HANG, null));
+        DrSquidConfig drSquidConfig = new DrSquidConfig(true, null, Arrays.asList(
+                new Service("Google", null, "*google*", null, null, true, LoggingLevel.NONE, behavior)), null);
+
+        // Set up environment
+        when(environment.getProperty(eq("drsquid.timeout-url"))).thenReturn("http://localhost:8081/");
+        when(environment.getProperty(eq("drsquid.profile"))).thenReturn("test");
+        when(environment.getProperty(eq("info.build.artifact"))).thenReturn("fake-service");
+        when(fileSystemConfigRetriever.getConfig(eq("drsquid.fake-service.test"))).thenReturn(drSquidConfig);
+
+        // Set up request and execution
+        when(googleRequest.getURI()).thenReturn(new URI(GOOGLE_URL));
+        when(googleRequest.getMethod()).thenReturn(HttpMethod.GET);
+        when(execution.execute(any(), any())).thenReturn(timeoutResponse);
+
+        // Act
+        ClientHttpResponse response = drSquidInterceptor.intercept(googleRequest, new byte[0], execution);
+
+        // Assert
+        ArgumentCaptor<HttpRequest> sentRequest = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(execution).execute(sentRequest.capture(), any());
+        verify(drSquidServiceClient, never()).execute(any(), any());
+        assertEquals(timeoutResponse, response);
+        assertEquals("localhost", sentRequest.getValue().getURI().getHost());
+        assertEquals(8081, sentRequest.getValue().getURI().getPort());
+    }
+
+    @Test
+    public void getTimeToSleepNanosTestFractionalFixedDelay() {
+
+        // Arrange
+        Delay delay = new FixedDelay(0.3);
+
+        // Act
+        long timeToSleep = drSquidInterceptor.getTimeToSleepNanos(delay);
+
+        // Assert
+        assertEquals(300000, timeToSleep);
+    }
 }
@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BehaviorTest {
+
+    private static final Delay DELAY = new FixedDelay(0);
+
+    private Behavior behavior(double successPercentage, double failurePercentage, double timeoutPercentage) {
+        return new Behavior(
+                new Success(successPercentage, true, "Success Body", 200, DELAY),
+                new Failure(failurePercentage, "Failure Body", 500, DELAY),
+                new Timeout(timeoutPercentage, DELAY));
+    }
+
+    @Test
+    public void shouldBuildSamplerWhenSumAt100() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(70, 20, 10);
+
+        // Assert
+        assertNotNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldNotBuildSamplerWhenSumBelow100() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(50, 20, 10);
+
+        // Assert
+        assertNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldNotBuildSamplerWhenSumAbove100() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(90, 20, 10);
+
+        // Assert
+        assertNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldNotBuildSamplerWithNegativePercentage() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(-70, 20, 10);
+
+        // Assert
+        assertNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldCountFailureVariantsInSum() {
+
+        // Arrange
+        Failure first = new Failure(5, "Failure Body", 500, DELAY);
+        Failure second = new Failure(5, "Unavailable Body", 503, DELAY);
+
+        // Act
+        Behavior behavior = new Behavior(new Success(90, true, "Success Body", 200, DELAY), first, Arrays.asList(second), null, null, null);
+
+        // Assert
+        assertNotNull(behavior.getOutcomeSampler());
+        assertEquals(Arrays.asList(first, second), behavior.getFailures());
+    }
+
+    @Test
+    public void shouldHaveNoFailuresWhenNoneConfigured() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = new Behavior(new Success(100, true, "Success Body", 200, DELAY), null, null);
+
+        // Assert
+        assertNull(behavior.getFailure());
+        assertEquals(0, behavior.getFailures().size());
+        assertNotNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldBuildSamplerWithFractionalPercentages() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(99.94, 0.05, 0.01);
+
+        // Assert
+        assertNotNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldNotBuildSamplerWithTooFinePercentage() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(99.99995, 0.00005, 0);
+
+        // Assert
+        assertNull(behavior.getOutcomeSampler());
+    }
+
+    @Test
+    public void shouldBuildSequenceForDeterministicSampling() {
+
+        // Arrange
+        Success success = new Success(95, true, "Success Body", 200, DELAY);
+        Failure failure = new Failure(5, "Failure Body", 500, DELAY);
+
+        // Act
+        Behavior behavior = new Behavior(success, failure, null, null, Sampling.DETERMINISTIC, null);
+
+        // Assert
+        assertNotNull(behavior.getOutcomeSequence());
+        assertEquals(20, behavior.getOutcomeSequence().getCycleLength());
+    }
+
+    @Test
+    public void shouldNotBuildSequenceForRandomSampling() {
+
+        // Arrange
+
+        // Act
+        Behavior behavior = behavior(70, 20, 10);
+
+        // Assert
+        assertEquals(Sampling.RANDOM, behavior.getSampling());
+        assertNull(behavior.getOutcomeSequence());
+    }
+
+    @Test
+    public void shouldFallBackToRandomSamplingWithoutHashHeader() {
+
+        // Arrange
+        Success success = new Success(100, true, "Success Body", 200, DELAY);
+
+        // Act
+        Behavior behavior = new Behavior(success, null, null, null, Sampling.CONSISTENT, null);
+
+        // Assert
+        assertEquals(Sampling.RANDOM, behavior.getSampling());
+    }
+
+    @Test
+    public void shouldBuildSamplerForEachScheduleLevel() {
+
+        // Arrange
+        Success success = new Success(90, true, "Success Body", 200, DELAY);
+        Failure failure = new Failure(10, "Failure Body", 500, DELAY);
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 10, 0, null, 5.0, 40.0, Arrays.asList(60.0), null);
+
+        // Act
+        Behavior behavior = new Behavior(success, failure, null, null, Sampling.DETERMINISTIC, null, schedule);
+
+        // Assert
+        assertEquals(Behavior.SCHEDULE_STEPS + 1, behavior.getLevelCount());
+        assertEquals(1, behavior.getDelayMultiplier(0), 0);
+        assertEquals(3, behavior.getDelayMultiplier(Behavior.SCHEDULE_STEPS / 2), 1e-9);
+        assertEquals(5, behavior.getDelayMultiplier(Behavior.SCHEDULE_STEPS), 0);
+        assertEquals(10, behavior.getOutcomeSequence(0).getCycleLength());
+        assertEquals(20, behavior.getOutcomeSequence(Behavior.SCHEDULE_STEPS / 2).getCycleLength());
+        assertEquals(5, behavior.getOutcomeSequence(Behavior.SCHEDULE_STEPS).getCycleLength());
+    }
+
+    @Test
+    public void shouldFollowScheduleFromWhenConfigLoaded() {
+
+        // Arrange
+        Success success = new Success(100, true, "Success Body", 200, DELAY);
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 10, 0, null, 2.0, null, null, null);
+        Behavior behavior = new Behavior(success, null, null, null, null, null, schedule);
+
+        // Act
+        int level = behavior.getLevel(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+
+        // Assert
+        assertEquals(Behavior.SCHEDULE_STEPS / 2, level);
+        assertEquals(Behavior.SCHEDULE_STEPS, behavior.getLevel(System.nanoTime() + TimeUnit.SECONDS.toNanos(60)));
+    }
+
+    @Test
+    public void shouldContinueScheduleOfReloadedConfig() throws Exception {
+
+        // Arrange
+        Success success = new Success(100, true, "Success Body", 200, DELAY);
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 1, 0, null, 2.0, null, null, null);
+        DrSquidConfig loaded = new DrSquidConfig(true, null, Arrays.asList(
+                new Service("Google", null, "*google*", null, null, true, LoggingLevel.NONE, new Behavior(success, null, null, null, null, null, schedule))), null);
+        Thread.sleep(200);
+        DrSquidConfig reloaded = new DrSquidConfig(true, null, Arrays.asList(
+                new Service("Google", null, "*google*", null, null, true, LoggingLevel.NONE, new Behavior(success, null, null, null, null, null, schedule))), null);
+        Behavior loadedBehavior = loaded.getServices().get(0).getBehavior();
+        Behavior reloadedBehavior = reloaded.getServices().get(0).getBehavior();
+        long halfway = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+        int restartedLevel = reloadedBehavior.getLevel(halfway);
+
+        // Act
+        reloaded.continueSchedules(loaded);
+
+        // Assert
+        assertTrue(restartedLevel < loadedBehavior.getLevel(halfway));
+        assertEquals(loadedBehavior.getLevel(halfway), reloadedBehavior.getLevel(halfway));
+    }
+
+    @Test
+    public void shouldIgnoreScheduleWhenPeakSumNot100() {
+
+        // Arrange
+        Success success = new Success(90, true, "Success Body", 200, DELAY);
+        Failure failure = new Failure(10, "Failure Body", 500, DELAY);
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 10, 0, null, 5.0, 50.0, null, null);
+
+        // Act
+        Behavior behavior = new Behavior(success, failure, null, null, null, null, schedule);
+
+        // Assert
+        assertEquals(1, behavior.getLevelCount());
+        assertEquals(0, behavior.getLevel(System.nanoTime() + TimeUnit.SECONDS.toNanos(60)));
+        assertNotNull(behavior.getOutcomeSampler());
+    }
+}
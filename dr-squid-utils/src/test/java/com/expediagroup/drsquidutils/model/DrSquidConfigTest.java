@@ -58,26 +58,26 @@ public class DrSquidConfigTest {
         assertNotNull(behavior);
     }
 
-    private void assertSuccess(Success success, boolean expectedSpoofed, int expectedPercentage, int expectedStatusCode, String expectedBody) {
+    private void assertSuccess(Success success, boolean expectedSpoofed, double expectedPercentage, int expectedStatusCode, String expectedBody) {
         assertNotNull(success);
-        assertEquals(expectedPercentage, success.getPercentage());
+        assertEquals(expectedPercentage, success.getPercentage(), 0);
         assertEquals(expectedSpoofed, success.isSpoofed());
         assertEquals(expectedStatusCode, success.getMockStatusCode());
         assertNotNull(success.getMockResponseBody());
         assertEquals(expectedBody, success.getMockResponseBody());
     }
 
-    private void assertFailure(Failure failure, int expectedPercentage, int expectedStatusCode, String expectedBody) {
+    private void assertFailure(Failure failure, double expectedPercentage, int expectedStatusCode, String expectedBody) {
         assertNotNull(failure);
-        assertEquals(expectedPercentage, failure.getPercentage());
+        assertEquals(expectedPercentage, failure.getPercentage(), 0);
         assertEquals(expectedStatusCode, failure.getMockStatusCode());
         assertNotNull(failure.getMockResponseBody());
         assertEquals(expectedBody, failure.getMockResponseBody());
     }
 
-    private void assertTimeout(Timeout timeout, int expectedPercentage) {
+    private void assertTimeout(Timeout timeout, double expectedPercentage) {
         assertNotNull(timeout);
-        assertEquals(expectedPercentage, timeout.getPercentage());
+        assertEquals(expectedPercentage, timeout.getPercentage(), 0);
     }
 
     private void assertFixedDelay(Delay delay, int expectedValue) {
@@ -174,4 +174,31 @@ public class DrSquidConfigTest {
 
     }
 
+    @Test
+    public void shouldDeserializeFailureVariants() throws Exception {
+
+        // Arrange
+        // Get JSON of config.
+        URL url = this.getClass().getResource("/failureVariantsConfig.yaml");
+        String json = Resources.toString(url, Charsets.UTF_8);
+
+        // Act
+        // Deserialize to DrSquidConfig object
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        mapper.setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
+        DrSquidConfig drSquidConfig = mapper.readValue(json, DrSquidConfig.class);
+
+        // Assert
+        Behavior behavior = drSquidConfig.getServices().get(0).getBehavior();
+        assertBehavior(behavior);
+        assertNotNull(behavior.getOutcomeSampler());
+
+        // Failure first, then the variants
+        List<Failure> failures = behavior.getFailures();
+        assertList(failures, 3);
+        assertFailure(failures.get(0), 5, 500, "Failure Body");
+        assertFailure(failures.get(1), 3, 503, "Unavailable Body");
+        assertFailure(failures.get(2), 2, 429, "Too Many Requests Body");
+        assertEquals(failures.get(0), behavior.getFailure());
+    }
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HistogramDelayTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Histogram histogram(long fastValue, long slowValue) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(fastValue, 90);
+        histogram.recordValueWithCount(slowValue, 10);
+        return histogram;
+    }
+
+    @Test
+    public void shouldReplayCompressedHistogram() throws Exception {
+
+        // Arrange
+        Histogram histogram = histogram(10, 100);
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        File file = folder.newFile("latency.hdr");
+        Files.write(file.toPath(), Arrays.copyOf(buffer.array(), length));
+
+        // Act
+        HistogramDelay histogramDelay = new HistogramDelay(file.getPath(), null);
+
+        // Assert
+        InverseCdfTable inverseCdfTable = histogramDelay.getInverseCdfTable();
+        assertEquals(TimeUnit.MILLISECONDS, histogramDelay.getUnit());
+        assertEquals(10, inverseCdfTable.getMin(), 0);
+        assertEquals(10.5, inverseCdfTable.sample(0.45), 1e-9);
+        assertEquals(100.5, inverseCdfTable.sample(0.95), 1e-9);
+        assertEquals(0.45, inverseCdfTable.cdf(10.5), 1e-9);
+    }
+
+    @Test
+    public void shouldReplayUncompressedHistogram() throws Exception {
+
+        // Arrange
+        Histogram histogram = histogram(10, 100);
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoByteBuffer(buffer);
+        File file = folder.newFile("latency.hdr");
+        Files.write(file.toPath(), Arrays.copyOf(buffer.array(), length));
+
+        // Act
+        HistogramDelay histogramDelay = new HistogramDelay(file.getPath(), null);
+
+        // Assert
+        assertEquals(100.5, histogramDelay.getInverseCdfTable().sample(0.95), 1e-9);
+    }
+
+    @Test
+    public void shouldAddUpLogIntervals() throws Exception {
+
+        // Arrange
+        File file = folder.newFile("latency.hlog");
+        HistogramLogWriter writer = new HistogramLogWriter(file);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        writer.outputIntervalHistogram(histogram(1000, 1500));
+        writer.outputIntervalHistogram(histogram(1000, 1500));
+        writer.close();
+
+        // Act
+        HistogramDelay histogramDelay = new HistogramDelay(file.getPath(), "microseconds");
+
+        // Assert
+        InverseCdfTable inverseCdfTable = histogramDelay.getInverseCdfTable();
+        assertEquals(TimeUnit.MICROSECONDS, histogramDelay.getUnit());
+        assertEquals(1, inverseCdfTable.getMin(), 0);
+        assertEquals(1.5005, inverseCdfTable.sample(0.95), 1e-9);
+    }
+
+    @Test
+    public void shouldNotReplayMissingFile() {
+
+        // Arrange
+
+        // Act
+        HistogramDelay histogramDelay = new HistogramDelay("missing.hlog", null);
+
+        // Assert
+        assertNull(histogramDelay.getInverseCdfTable());
+    }
+
+    @Test
+    public void shouldNotReplayUnsupportedUnit() throws Exception {
+
+        // Arrange
+        File file = folder.newFile("latency.hlog");
+
+        // Act
+        HistogramDelay histogramDelay = new HistogramDelay(file.getPath(), "fortnights");
+
+        // Assert
+        assertNull(histogramDelay.getUnit());
+        assertNull(histogramDelay.getInverseCdfTable());
+    }
+}
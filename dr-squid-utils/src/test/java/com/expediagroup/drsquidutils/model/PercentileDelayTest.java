@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import com.expediagroup.drsquidutils.delaydriver.InverseCdfTable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PercentileDelayTest {
+
+    private Map<String, Double> percentiles(Object... fields) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i += 2) {
+            percentiles.put((String) fields[i], ((Number) fields[i + 1]).doubleValue());
+        }
+        return percentiles;
+    }
+
+    @Test
+    public void shouldConvertFieldNamesToProbabilities() {
+
+        // Arrange
+
+        // Act
+
+        // Assert
+        assertEquals(0.05, PercentileDelay.toProbability("p5"), 1e-12);
+        assertEquals(0.5, PercentileDelay.toProbability("p50"), 1e-12);
+        assertEquals(0.999, PercentileDelay.toProbability("p999"), 1e-12);
+        assertEquals(0.9999, PercentileDelay.toProbability("p9999"), 1e-12);
+        assertTrue(Double.isNaN(PercentileDelay.toProbability("p0")));
+        assertTrue(Double.isNaN(PercentileDelay.toProbability("p100")));
+        assertTrue(Double.isNaN(PercentileDelay.toProbability("mean")));
+    }
+
+    @Test
+    public void shouldHitConfiguredPercentiles() {
+
+        // Arrange
+        PercentileDelay percentileDelay = new PercentileDelay(percentiles("p50", 40, "p99", 400, "p999", 2000), 0);
+
+        // Act
+        InverseCdfTable inverseCdfTable = percentileDelay.getInverseCdfTable();
+
+        // Assert
+        assertEquals(0, inverseCdfTable.sample(0), 1e-9);
+        assertEquals(40, inverseCdfTable.sample(0.5), 0.1);
+        assertEquals(400, inverseCdfTable.sample(0.99), 1);
+        assertEquals(2000, inverseCdfTable.sample(0.999), 1);
+        assertTrue(inverseCdfTable.getMax() > 2000);
+    }
+
+    @Test
+    public void shouldDrawConfiguredPercentiles() {
+
+        // Arrange
+        PercentileDelay percentileDelay = new PercentileDelay(percentiles("p50", 5, "p90", 20, "p99", 100), 2);
+        SplittableRandom random = new SplittableRandom(42);
+        double[] delays = new double[1000000];
+
+        // Act
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = percentileDelay.getInverseCdfTable().sample(random.nextDouble());
+        }
+        Arrays.sort(delays);
+
+        // Assert
+        assertEquals(2, delays[0], 0.01);
+        assertEquals(5, delays[delays.length / 2], 0.1);
+        assertEquals(20, delays[(int) (delays.length * 0.9)], 0.5);
+        assertEquals(100, delays[(int) (delays.length * 0.99)], 5);
+    }
+
+    @Test
+    public void shouldNotBuildDecreasingPercentiles() {
+
+        // Arrange
+
+        // Act
+        PercentileDelay percentileDelay = new PercentileDelay(percentiles("p50", 400, "p99", 40), 0);
+
+        // Assert
+        assertNull(percentileDelay.getInverseCdfTable());
+    }
+
+    @Test
+    public void shouldNotBuildWithoutPercentiles() {
+
+        // Arrange
+
+        // Act
+        PercentileDelay percentileDelay = new PercentileDelay(percentiles(), 0);
+
+        // Assert
+        assertNull(percentileDelay.getInverseCdfTable());
+    }
+
+    @Test
+    public void shouldNotBuildBelowMinimum() {
+
+        // Arrange
+
+        // Act
+        PercentileDelay valid = new PercentileDelay(percentiles("p99", 20), 20);
+        PercentileDelay invalid = new PercentileDelay(percentiles("p99", 10), 20);
+
+        // Assert
+        assertNotNull(valid.getInverseCdfTable());
+        assertNull(invalid.getInverseCdfTable());
+    }
+}
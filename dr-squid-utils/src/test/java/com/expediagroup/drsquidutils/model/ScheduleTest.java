@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleTest {
+
+    private static long seconds(double seconds) {
+        return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void shouldRampThenHold() {
+
+        // Arrange
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 100, 0, null, null, null, null, null);
+
+        // Act
+
+        // Assert
+        assertEquals(0, schedule.getLevel(0), 0);
+        assertEquals(0.25, schedule.getLevel(seconds(25)), 1e-9);
+        assertEquals(1, schedule.getLevel(seconds(100)), 0);
+        assertEquals(1, schedule.getLevel(seconds(1000)), 0);
+    }
+
+    @Test
+    public void shouldStepThroughLevelsThenHoldLast() {
+
+        // Arrange
+        Schedule schedule = new Schedule(ScheduleType.STEP, 60, 0, Arrays.asList(0.0, 0.5, 0.2), null, null, null, null);
+
+        // Act
+
+        // Assert
+        assertEquals(0, schedule.getLevel(seconds(59)), 0);
+        assertEquals(0.5, schedule.getLevel(seconds(60)), 0);
+        assertEquals(0.2, schedule.getLevel(seconds(120)), 0);
+        assertEquals(0.2, schedule.getLevel(seconds(6000)), 0);
+    }
+
+    @Test
+    public void shouldRiseAndFallEveryPeriodForSine() {
+
+        // Arrange
+        Schedule schedule = new Schedule(ScheduleType.SINE, 60, 0, null, null, null, null, null);
+
+        // Act
+
+        // Assert
+        assertEquals(0, schedule.getLevel(0), 1e-9);
+        assertEquals(0.5, schedule.getLevel(seconds(15)), 1e-9);
+        assertEquals(1, schedule.getLevel(seconds(30)), 1e-9);
+        assertEquals(0.5, schedule.getLevel(seconds(45)), 1e-9);
+        assertEquals(0, schedule.getLevel(seconds(60)), 1e-9);
+    }
+
+    @Test
+    public void shouldBurstAtEndOfEveryPeriod() {
+
+        // Arrange
+        Schedule schedule = new Schedule(ScheduleType.BURST, 60, 10, null, null, null, null, null);
+
+        // Act
+
+        // Assert
+        assertEquals(0, schedule.getLevel(seconds(49)), 0);
+        assertEquals(1, schedule.getLevel(seconds(50)), 0);
+        assertEquals(1, schedule.getLevel(seconds(59)), 0);
+        assertEquals(0, schedule.getLevel(seconds(61)), 0);
+        assertEquals(1, schedule.getLevel(seconds(115)), 0);
+    }
+
+    @Test
+    public void shouldDefaultToConfiguredDelays() {
+
+        // Arrange
+
+        // Act
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 100, 0, null, null, null, null, null);
+
+        // Assert
+        assertTrue(schedule.isValid());
+        assertEquals(1, schedule.getPeakDelayMultiplier(), 0);
+    }
+
+    @Test
+    public void shouldBeInvalidWithoutPositiveDuration() {
+
+        // Arrange
+
+        // Act
+        Schedule schedule = new Schedule(ScheduleType.RAMP, 0, 0, null, 2.0, null, null, null);
+
+        // Assert
+        assertFalse(schedule.isValid());
+        assertEquals(0, schedule.getLevel(seconds(10)), 0);
+    }
+
+    @Test
+    public void shouldBeInvalidWithBurstLongerThanPeriod() {
+
+        // Arrange
+
+        // Act
+        Schedule schedule = new Schedule(ScheduleType.BURST, 60, 90, null, 2.0, null, null, null);
+
+        // Assert
+        assertFalse(schedule.isValid());
+    }
+
+    @Test
+    public void shouldBeInvalidWithLevelOutOfRange() {
+
+        // Arrange
+
+        // Act
+        Schedule schedule = new Schedule(ScheduleType.STEP, 60, 0, Arrays.asList(0.0, 1.5), null, null, null, null);
+
+        // Assert
+        assertFalse(schedule.isValid());
+    }
+}
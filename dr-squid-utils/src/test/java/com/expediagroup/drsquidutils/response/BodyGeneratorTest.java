@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.response;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BodyGeneratorTest {
+
+    private static final String ELEMENT = "{\"id\":1,\"name\":\"Squid Inn\"}";
+
+    private String generate(BodyGenerator bodyGenerator) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bodyGenerator.writeTo(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String read(BodyGenerator bodyGenerator, int bufferSize) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferSize];
+        try (InputStream inputStream = bodyGenerator.open()) {
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldGenerateExactSize() throws Exception {
+
+        for (long size : new long[]{2, 10, ELEMENT.length() + 2, ELEMENT.length() + 3, 1000, 65537, 1 << 20}) {
+
+            // Arrange
+            BodyGenerator bodyGenerator = new BodyGenerator(size, "[", ELEMENT, ",", "]");
+
+            // Act
+            String body = generate(bodyGenerator);
+
+            // Assert
+            assertEquals(size, bodyGenerator.getSize());
+            assertEquals(size, body.length());
+            assertTrue(body.startsWith("["));
+            assertTrue(body.endsWith("]"));
+        }
+    }
+
+    @Test
+    public void shouldRepeatElementsThenPad() throws Exception {
+
+        // Arrange
+        BodyGenerator bodyGenerator = new BodyGenerator(100, "[", ELEMENT, ",", "]");
+
+        // Act
+        String body = generate(bodyGenerator);
+
+        // Assert
+        assertEquals(3, bodyGenerator.getElementCount());
+        StringBuilder expected = new StringBuilder("[").append(ELEMENT).append(',').append(ELEMENT).append(',').append(ELEMENT);
+        while (expected.length() < 99) {
+            expected.append(' ');
+        }
+        assertEquals(expected.append(']').toString(), body);
+    }
+
+    @Test
+    public void shouldStreamSameBodyAsWritten() throws Exception {
+
+        // Arrange
+        BodyGenerator bodyGenerator = new BodyGenerator(300007, "{\"hotels\":[", ELEMENT, ",", "]}");
+
+        // Act
+        String written = generate(bodyGenerator);
+        String streamed = read(bodyGenerator, 1000);
+        String streamedInLargeReads = read(bodyGenerator, 100000);
+
+        // Assert
+        assertEquals(written, streamed);
+        assertEquals(written, streamedInLargeReads);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSizeSmallerThanPrefixAndSuffix() {
+
+        // Act
+        new BodyGenerator(1, "[", ELEMENT, ",", "]");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyElement() {
+
+        // Act
+        new BodyGenerator(100, "[", "", ",", "]");
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.response;
+
+import com.expediagroup.drsquidutils.interceptor.DrSquidClientHttpResponse;
+import com.expediagroup.drsquidutils.model.MockResponseGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MockResponseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeFile(byte[] content) throws Exception {
+        Path path = folder.getRoot().toPath().resolve("mockResponse.json");
+        Files.write(path, content);
+        return path;
+    }
+
+    @Test
+    public void shouldEncodeBodyOnce() {
+
+        // Arrange
+        String body = "{\"hotel\": \"Ch\u00e2teau\"}";
+
+        // Act
+        MockResponse mockResponse = new MockResponse(200, body);
+
+        // Assert
+        assertEquals(200, mockResponse.getStatusCode());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), mockResponse.getBody());
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, mockResponse.getContentLength());
+        assertEquals(mockResponse.getContentLength(), mockResponse.getHeaders().getContentLength());
+        assertSame(mockResponse.getBody(), mockResponse.getResponseEntity().getBody());
+        assertSame(mockResponse.getResponseEntity(), mockResponse.getResponseEntity());
+    }
+
+    @Test
+    public void shouldTreatMissingBodyAsEmpty() {
+
+        // Arrange & Act
+        MockResponse mockResponse = new MockResponse(500, null);
+
+        // Assert
+        assertEquals(0, mockResponse.getContentLength());
+        assertEquals(0, mockResponse.getHeaders().getContentLength());
+        assertEquals(500, mockResponse.getResponseEntity().getStatusCodeValue());
+    }
+
+    @Test
+    public void shouldShareBodyWithClientResponses() throws Exception {
+
+        // Arrange
+        MockResponse mockResponse = new MockResponse(200, "spoofing success with drSquid");
+
+        // Act
+        DrSquidClientHttpResponse response = new DrSquidClientHttpResponse(mockResponse);
+        byte[] body = new byte[(int) mockResponse.getContentLength()];
+        try (InputStream inputStream = response.getBody()) {
+            assertEquals(body.length, inputStream.read(body));
+        }
+
+        // Assert
+        assertEquals(200, response.getRawStatusCode());
+        assertSame(mockResponse.getHeaders(), response.getHeaders());
+        assertArrayEquals(mockResponse.getBody(), body);
+    }
+
+    @Test
+    public void shouldMapBodyFromFile() throws Exception {
+
+        // Arrange
+        byte[] content = new byte[300000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        Path path = writeFile(content);
+
+        // Act
+        MockResponse mockResponse = MockResponse.of(200, "Inline Body", path.toString(), null);
+        ByteBuffer first = mockResponse.getBodyBuffer();
+        ByteBuffer second = mockResponse.getBodyBuffer();
+        byte[] body = new byte[first.remaining()];
+        first.get(body);
+
+        // Assert
+        assertEquals(path, mockResponse.getFile());
+        assertNull(mockResponse.getBody());
+        assertEquals(content.length, mockResponse.getContentLength());
+        assertEquals(content.length, mockResponse.getHeaders().getContentLength());
+        assertArrayEquals(content, body);
+        assertEquals(content.length, second.remaining());
+        assertSame(mockResponse, mockResponse.getResponseEntity().getBody());
+    }
+
+    @Test
+    public void shouldWriteBodyFromFileInLargeChunks() throws Exception {
+
+        // Arrange
+        byte[] content = new byte[300000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        MockResponse mockResponse = MockResponse.fromFile(200, writeFile(content));
+        AtomicInteger writes = new AtomicInteger();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                writes.incrementAndGet();
+                super.write(bytes, offset, length);
+            }
+        };
+
+        // Act
+        mockResponse.writeBody(outputStream);
+
+        // Assert
+        assertArrayEquals(content, outputStream.toByteArray());
+        assertEquals(5, writes.get());
+    }
+
+    @Test
+    public void shouldStreamBodyFromFile() throws Exception {
+
+        // Arrange
+        byte[] content = "{\"hotels\": []}".getBytes(StandardCharsets.UTF_8);
+        MockResponse mockResponse = MockResponse.fromFile(503, writeFile(content));
+        DrSquidClientHttpResponse response = new DrSquidClientHttpResponse(mockResponse);
+
+        // Act
+        byte[] body = new byte[content.length];
+        int read;
+        try (InputStream inputStream = response.getBody()) {
+            read = inputStream.read(body);
+            assertEquals(-1, inputStream.read());
+        }
+
+        // Assert
+        assertEquals(content.length, read);
+        assertArrayEquals(content, body);
+        assertEquals(503, response.getRawStatusCode());
+    }
+
+    @Test
+    public void shouldFallBackToInlineBodyWhenFileIsMissing() {
+
+        // Arrange
+        String file = folder.getRoot().toPath().resolve("missing.json").toString();
+
+        // Act
+        MockResponse mockResponse = MockResponse.of(200, "Inline Body", file, null);
+
+        // Assert
+        assertNull(mockResponse.getFile());
+        assertArrayEquals("Inline Body".getBytes(StandardCharsets.UTF_8), mockResponse.getBody());
+    }
+
+    @Test
+    public void shouldGenerateBody() throws Exception {
+
+        // Arrange
+        MockResponseGenerator generator = new MockResponseGenerator(10 << 20, "{\"id\":1}", null, null, null, null);
+
+        // Act
+        MockResponse mockResponse = MockResponse.of(200, "Inline Body", null, generator);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mockResponse.writeBody(outputStream);
+
+        // Assert
+        assertNull(mockResponse.getBody());
+        assertNull(mockResponse.getBodyBuffer());
+        assertEquals(10 << 20, mockResponse.getContentLength());
+        assertEquals(10 << 20, mockResponse.getHeaders().getContentLength());
+        assertEquals(10 << 20, outputStream.size());
+        assertSame(mockResponse, mockResponse.getResponseEntity().getBody());
+    }
+
+    @Test
+    public void shouldFallBackToInlineBodyWhenGeneratorIsInvalid() {
+
+        // Arrange
+        MockResponseGenerator generator = new MockResponseGenerator(1, "{\"id\":1}", null, null, null, null);
+
+        // Act
+        MockResponse mockResponse = MockResponse.of(200, "Inline Body", null, generator);
+
+        // Assert
+        assertArrayEquals("Inline Body".getBytes(StandardCharsets.UTF_8), mockResponse.getBody());
+    }
+}
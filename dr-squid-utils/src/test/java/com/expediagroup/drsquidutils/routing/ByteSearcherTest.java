@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.routing;
+
+import com.expediagroup.drsquidutils.model.LoggingLevel;
+import com.expediagroup.drsquidutils.model.Service;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ByteSearcherTest {
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldFindFirstOccurrence() {
+
+        // Arrange
+        ByteSearcher byteSearcher = new ByteSearcher(bytes("keyword"));
+
+        // Act
+        int index = byteSearcher.indexOf(bytes("no keyword here, but a keyword there"));
+
+        // Assert
+        assertEquals(3, index);
+    }
+
+    @Test
+    public void shouldNotFindMissingPattern() {
+
+        // Arrange
+        ByteSearcher byteSearcher = new ByteSearcher(bytes("keyword"));
+
+        // Act
+        boolean found = byteSearcher.isFoundIn(bytes("key word"));
+
+        // Assert
+        assertFalse(found);
+        assertFalse(byteSearcher.isFoundIn(bytes("key")));
+        assertFalse(byteSearcher.isFoundIn(null));
+    }
+
+    @Test
+    public void shouldFindEmptyPatternAnywhere() {
+
+        // Arrange
+        ByteSearcher byteSearcher = new ByteSearcher(new byte[0]);
+
+        // Act
+        boolean found = byteSearcher.isFoundIn(new byte[0]);
+
+        // Assert
+        assertTrue(found);
+    }
+
+    @Test
+    public void shouldMatchNonAsciiBytes() {
+
+        // Arrange
+        ByteSearcher byteSearcher = new ByteSearcher(bytes("squid éé"));
+
+        // Act
+        boolean found = byteSearcher.isFoundIn(bytes("{\"name\": \"squid éé\"}"));
+
+        // Assert
+        assertTrue(found);
+    }
+
+    @Test
+    public void shouldCompileBodyKeywordPerCharset() {
+
+        // Arrange
+        Service service = new Service("Service", null, "*", HttpMethod.POST, "café", true, LoggingLevel.NONE, null);
+        byte[] latin1Body = "order: café".getBytes(StandardCharsets.ISO_8859_1);
+
+        // Act
+        ByteSearcher latin1Searcher = service.getBodyKeywordSearcher(StandardCharsets.ISO_8859_1);
+
+        // Assert
+        assertTrue(latin1Searcher.isFoundIn(latin1Body));
+        assertFalse(service.getBodyKeywordSearcher(StandardCharsets.UTF_8).isFoundIn(latin1Body));
+        assertSame(latin1Searcher, service.getBodyKeywordSearcher(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void shouldCompileBodyKeywordWithoutByteOrderMark() {
+
+        // Arrange
+        Service service = new Service("Service", null, "*", HttpMethod.POST, "squid", true, LoggingLevel.NONE, null);
+        byte[] utf16Body = "{\"name\": \"squid\"}".getBytes(StandardCharsets.UTF_16);
+        byte[] utf16LeBody = "{\"name\": \"squid\"}".getBytes(StandardCharsets.UTF_16LE);
+
+        // Act
+        ByteSearcher utf16Searcher = service.getBodyKeywordSearcher(StandardCharsets.UTF_16);
+        ByteSearcher utf16LeSearcher = service.getBodyKeywordSearcher(StandardCharsets.UTF_16LE);
+
+        // Assert
+        assertTrue(utf16Searcher.isFoundIn(utf16Body));
+        assertTrue(utf16LeSearcher.isFoundIn(utf16LeBody));
+    }
+
+    @Test
+    public void shouldNotCompileMissingBodyKeyword() {
+
+        // Arrange
+        Service service = new Service("Service", null, "*", HttpMethod.POST, null, true, LoggingLevel.NONE, null);
+
+        // Act
+        ByteSearcher byteSearcher = service.getBodyKeywordSearcher(StandardCharsets.UTF_8);
+
+        // Assert
+        assertNull(byteSearcher);
+    }
+
+    @Test
+    public void shouldMatchLikeStringIndexOf() {
+
+        // Arrange
+        Random random = new Random(42);
+        String alphabet = "abé";
+
+        for (int run = 0; run < 2000; run++) {
+            StringBuilder pattern = new StringBuilder();
+            int patternLength = random.nextInt(5);
+            for (int j = 0; j < patternLength; j++) {
+                pattern.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            StringBuilder text = new StringBuilder();
+            int textLength = random.nextInt(20);
+            for (int j = 0; j < textLength; j++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            ByteSearcher byteSearcher = new ByteSearcher(bytes(pattern.toString()));
+
+            // Act
+            int index = byteSearcher.indexOf(bytes(text.toString()));
+
+            // Assert
+            int charIndex = text.indexOf(pattern.toString());
+            int expected = (charIndex < 0) ? -1 : bytes(text.substring(0, charIndex)).length;
+            assertEquals(expected, index);
+        }
+    }
+}
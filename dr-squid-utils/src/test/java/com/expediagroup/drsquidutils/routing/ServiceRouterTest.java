@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.routing;
+
+import com.expediagroup.drsquidutils.model.LoggingLevel;
+import com.expediagroup.drsquidutils.model.Service;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ServiceRouterTest {
+
+    private Service service(String name, String pattern, boolean enabled) {
+        return new Service(name, null, pattern, HttpMethod.GET, null, enabled, LoggingLevel.NONE, null);
+    }
+
+    /**
+     * The in-order regex scan the router replaces.
+     */
+    private Service scan(List<Service> services, String url) {
+        for (Service service : services) {
+            String pattern = service.getUrlPattern().replaceAll("\\*", "(.*)");
+            if (Pattern.compile(pattern).matcher(url).find() && service.isEnabled()) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void shouldReturnFirstMatchInConfigOrder() {
+
+        // Arrange
+        Service broad = service("Broad", "*google*", true);
+        Service narrow = service("Narrow", "https://www.google.com/search*", true);
+        ServiceRouter serviceRouter = new ServiceRouter(Arrays.asList(broad, narrow));
+
+        // Act
+        Service matchingService = serviceRouter.match("https://www.google.com/search?q=squid");
+
+        // Assert
+        assertSame(broad, matchingService);
+    }
+
+    @Test
+    public void shouldSkipDisabledAndNullServices() {
+
+        // Arrange
+        Service disabled = service("Disabled", "*google*", false);
+        Service enabled = service("Enabled", "*.com/*", true);
+        ServiceRouter serviceRouter = new ServiceRouter(Arrays.asList(null, disabled, enabled));
+
+        // Act
+        Service matchingService = serviceRouter.match("https://www.google.com/");
+
+        // Assert
+        assertSame(enabled, matchingService);
+    }
+
+    @Test
+    public void shouldTreatDotAsAnyCharacter() {
+
+        // Arrange
+        Service google = service("Google", "www.google.com", true);
+        ServiceRouter serviceRouter = new ServiceRouter(Arrays.asList(google));
+
+        // Act
+        Service matchingService = serviceRouter.match("https://wwwXgoogleYcom/");
+
+        // Assert
+        assertSame(google, matchingService);
+    }
+
+    @Test
+    public void shouldMatchRegexPatterns() {
+
+        // Arrange
+        Service optional = service("Optional", "https?://www.google.com/", true);
+        ServiceRouter serviceRouter = new ServiceRouter(Arrays.asList(optional));
+
+        // Act
+        Service matchingService = serviceRouter.match("http://www.google.com/");
+
+        // Assert
+        assertSame(optional, matchingService);
+    }
+
+    @Test
+    public void shouldIgnoreInvalidPatterns() {
+
+        // Arrange
+        Service invalid = service("Invalid", "*google(*", true);
+        ServiceRouter serviceRouter = new ServiceRouter(Arrays.asList(invalid));
+
+        // Act
+        Service matchingService = serviceRouter.match("https://www.google(.com/");
+
+        // Assert
+        assertNull(matchingService);
+    }
+
+    @Test
+    public void shouldMatchLikeInOrderScan() {
+
+        // Arrange
+        Random random = new Random(42);
+        String alphabet = "abc./:*";
+
+        for (int run = 0; run < 2000; run++) {
+            List<Service> services = new ArrayList<>();
+            int serviceCount = 1 + random.nextInt(8);
+            for (int i = 0; i < serviceCount; i++) {
+                StringBuilder pattern = new StringBuilder();
+                int patternLength = random.nextInt(6);
+                for (int j = 0; j < patternLength; j++) {
+                    pattern.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                services.add(service("Service" + i, pattern.toString(), random.nextInt(4) != 0));
+            }
+            ServiceRouter serviceRouter = new ServiceRouter(services);
+
+            for (int k = 0; k < 10; k++) {
+                StringBuilder url = new StringBuilder();
+                int urlLength = random.nextInt(12);
+                for (int j = 0; j < urlLength; j++) {
+                    url.append(alphabet.charAt(random.nextInt(alphabet.length() - 1)));
+                }
+
+                // Act
+                Service matchingService = serviceRouter.match(url.toString());
+
+                // Assert
+                assertEquals(scan(services, url.toString()), matchingService);
+            }
+        }
+    }
+}
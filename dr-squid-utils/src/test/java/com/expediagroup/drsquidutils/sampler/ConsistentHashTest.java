@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ConsistentHashTest {
+
+    @Test
+    public void shouldHashAsciiLikeFnv1a() {
+
+        // Arrange
+
+        // Act
+        long emptyHash = ConsistentHash.hash("");
+        long aHash = ConsistentHash.hash("a");
+        long foobarHash = ConsistentHash.hash("foobar");
+
+        // Assert
+        assertEquals(0xcbf29ce484222325L, emptyHash);
+        assertEquals(0xaf63dc4c8601ec8cL, aHash);
+        assertEquals(0x85944171f73967e8L, foobarHash);
+    }
+
+    @Test
+    public void shouldCombineDifferentlyPerService() {
+
+        // Arrange
+        long keyHash = ConsistentHash.hash("4bf92f3577b34da6a3ce929d0e0e4736");
+
+        // Act
+        long google = ConsistentHash.combine(keyHash, ConsistentHash.hash("Google"));
+        long facebook = ConsistentHash.combine(keyHash, ConsistentHash.hash("Facebook"));
+
+        // Assert
+        assertEquals(google, ConsistentHash.combine(keyHash, ConsistentHash.hash("Google")));
+        assertNotEquals(google, facebook);
+    }
+
+    @Test
+    public void shouldDrawOutcomesInProportionToWeights() {
+
+        // Arrange
+        OutcomeSampler outcomeSampler = new OutcomeSampler(new Outcome[]{Outcome.SUCCESS, Outcome.failure(0)}, new int[]{900000, 100000});
+        long serviceHash = ConsistentHash.hash("Google");
+        int failures = 0;
+
+        // Act
+        for (int i = 0; i < 100000; i++) {
+            if (outcomeSampler.sample(ConsistentHash.combine(ConsistentHash.hash("trace-" + i), serviceHash)) != Outcome.SUCCESS) {
+                failures++;
+            }
+        }
+
+        // Assert
+        assertEquals(10000, failures, 500);
+    }
+}
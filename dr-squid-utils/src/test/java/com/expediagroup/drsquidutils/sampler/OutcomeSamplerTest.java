@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class OutcomeSamplerTest {
+
+    private static final int GRID_SIZE = 1000;
+
+    /**
+     * Draws with random values spread evenly over both halves, so that each outcome comes up in proportion to its
+     * weight without depending on luck.
+     */
+    private Map<Outcome, Integer> drawGrid(OutcomeSampler outcomeSampler) {
+
+        Map<Outcome, Integer> counts = new HashMap<>();
+        long step = (1L << Integer.SIZE) / GRID_SIZE;
+        for (long high = 0; high < GRID_SIZE; high++) {
+            for (long low = 0; low < GRID_SIZE; low++) {
+                long randomBits = ((high * step + step / 2) << Integer.SIZE) | (low * step + step / 2);
+                counts.merge(outcomeSampler.sample(randomBits), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Test
+    public void shouldDrawInProportionToWeights() {
+
+        // Arrange
+        Outcome failure = Outcome.failure(0);
+        OutcomeSampler outcomeSampler = new OutcomeSampler(new Outcome[]{Outcome.SUCCESS, failure, Outcome.TIMEOUT}, new int[]{70, 20, 10});
+
+        // Act
+        Map<Outcome, Integer> counts = drawGrid(outcomeSampler);
+
+        // Assert
+        assertEquals(700000, counts.get(Outcome.SUCCESS), 1000);
+        assertEquals(200000, counts.get(failure), 1000);
+        assertEquals(100000, counts.get(Outcome.TIMEOUT), 1000);
+    }
+
+    @Test
+    public void shouldDrawManyFailureVariants() {
+
+        // Arrange
+        int variants = 50;
+        Outcome[] outcomes = new Outcome[variants + 1];
+        int[] weights = new int[variants + 1];
+        outcomes[0] = Outcome.SUCCESS;
+        weights[0] = 50;
+        for (int i = 0; i < variants; i++) {
+            outcomes[i + 1] = Outcome.failure(i);
+            weights[i + 1] = 1;
+        }
+        OutcomeSampler outcomeSampler = new OutcomeSampler(outcomes, weights);
+
+        // Act
+        Map<Outcome, Integer> counts = drawGrid(outcomeSampler);
+
+        // Assert
+        assertEquals(500000, counts.get(Outcome.SUCCESS), 1000);
+        for (int i = 0; i < variants; i++) {
+            assertEquals(10000, counts.get(outcomes[i + 1]), 1000);
+        }
+    }
+
+    @Test
+    public void shouldNeverDrawZeroWeights() {
+
+        // Arrange
+        OutcomeSampler outcomeSampler = new OutcomeSampler(new Outcome[]{Outcome.SUCCESS, Outcome.failure(0), Outcome.TIMEOUT}, new int[]{0, 100, 0});
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 10000; i++) {
+
+            // Act
+            Outcome outcome = outcomeSampler.sample(random.nextLong());
+
+            // Assert
+            assertSame(Outcome.Status.FAILURE, outcome.getStatus());
+        }
+    }
+
+    @Test
+    public void shouldDrawFirstOutcomeForZero() {
+
+        // Arrange
+        OutcomeSampler outcomeSampler = new OutcomeSampler(new Outcome[]{Outcome.SUCCESS, Outcome.failure(0), Outcome.TIMEOUT}, new int[]{10, 60, 30});
+
+        // Act
+        Outcome outcome = outcomeSampler.sample(0);
+
+        // Assert
+        assertSame(Outcome.SUCCESS, outcome);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeWeights() {
+        new OutcomeSampler(new Outcome[]{Outcome.SUCCESS, Outcome.TIMEOUT}, new int[]{110, -10});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectZeroTotalWeight() {
+        new OutcomeSampler(new Outcome[]{Outcome.SUCCESS, Outcome.TIMEOUT}, new int[]{0, 0});
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.sampler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OutcomeSequenceTest {
+
+    private static final Outcome FAILURE = Outcome.failure(0);
+
+    @Test
+    public void shouldMatchWeightsExactlyOverCycle() {
+
+        // Arrange
+        OutcomeSequence outcomeSequence = new OutcomeSequence(new Outcome[]{Outcome.SUCCESS, FAILURE, Outcome.TIMEOUT}, new int[]{700000, 200000, 100000});
+        int successes = 0;
+        int failures = 0;
+        int timeouts = 0;
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            Outcome outcome = outcomeSequence.next();
+            if (outcome == Outcome.SUCCESS) {
+                successes++;
+            } else if (outcome == FAILURE) {
+                failures++;
+            } else {
+                timeouts++;
+            }
+        }
+
+        // Assert
+        assertEquals(10, outcomeSequence.getCycleLength());
+        assertEquals(700, successes);
+        assertEquals(200, failures);
+        assertEquals(100, timeouts);
+    }
+
+    @Test
+    public void shouldSpreadRareOutcomesEvenly() {
+
+        // Arrange
+        OutcomeSequence outcomeSequence = new OutcomeSequence(new Outcome[]{Outcome.SUCCESS, FAILURE}, new int[]{950000, 50000});
+        List<Integer> failurePositions = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            if (outcomeSequence.next() == FAILURE) {
+                failurePositions.add(i);
+            }
+        }
+
+        // Assert
+        assertEquals(5, failurePositions.size());
+        for (int i = 1; i < failurePositions.size(); i++) {
+            assertEquals(20, failurePositions.get(i) - failurePositions.get(i - 1));
+        }
+    }
+
+    @Test
+    public void shouldMatchWeightsExactlyOverLongCycle() {
+
+        // Arrange
+        OutcomeSequence outcomeSequence = new OutcomeSequence(new Outcome[]{Outcome.SUCCESS, FAILURE}, new int[]{999983, 17});
+        List<Integer> failurePositions = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < outcomeSequence.getCycleLength(); i++) {
+            if (outcomeSequence.next() == FAILURE) {
+                failurePositions.add(i);
+            }
+        }
+
+        // Assert
+        assertEquals(1000000, outcomeSequence.getCycleLength());
+        assertEquals(17, failurePositions.size());
+        for (int i = 1; i < failurePositions.size(); i++) {
+            int gap = failurePositions.get(i) - failurePositions.get(i - 1);
+            assertTrue("Gap of " + gap + " calls between failures", gap > 20000 && gap < 120000);
+        }
+    }
+
+    @Test
+    public void shouldSkipZeroWeights() {
+
+        // Arrange
+        OutcomeSequence outcomeSequence = new OutcomeSequence(new Outcome[]{Outcome.SUCCESS, FAILURE, Outcome.TIMEOUT}, new int[]{0, 1000000, 0});
+
+        // Act
+        Outcome outcome = outcomeSequence.next();
+
+        // Assert
+        assertEquals(1, outcomeSequence.getCycleLength());
+        assertSame(FAILURE, outcome);
+    }
+
+    @Test
+    public void shouldMatchWeightsExactlyAcrossThreads() throws Exception {
+
+        // Arrange
+        OutcomeSequence outcomeSequence = new OutcomeSequence(new Outcome[]{Outcome.SUCCESS, FAILURE, Outcome.TIMEOUT}, new int[]{990000, 5000, 5000});
+        ConcurrentMap<Outcome, AtomicInteger> counts = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2500; i++) {
+                    counts.computeIfAbsent(outcomeSequence.next(), outcome -> new AtomicInteger()).incrementAndGet();
+                }
+            }));
+        }
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(19800, counts.get(Outcome.SUCCESS).get());
+        assertEquals(100, counts.get(FAILURE).get());
+        assertEquals(100, counts.get(Outcome.TIMEOUT).get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectZeroTotalWeight() {
+        new OutcomeSequence(new Outcome[]{Outcome.SUCCESS, Outcome.TIMEOUT}, new int[]{0, 0});
+    }
+}
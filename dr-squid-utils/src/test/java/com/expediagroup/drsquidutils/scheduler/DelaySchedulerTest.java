@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DelaySchedulerTest {
+
+    private final DelayScheduler delayScheduler = new DelayScheduler();
+
+    @After
+    public void tearDown() {
+        delayScheduler.destroy();
+    }
+
+    @Test
+    public void shouldRunTaskAfterDelay() throws Exception {
+
+        // Arrange
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong ranAt = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+
+        // Act
+        delayScheduler.schedule(() -> {
+            ranAt.set(System.nanoTime());
+            latch.countDown();
+        }, 50);
+
+        // Assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(ranAt.get() - scheduledAt) >= 50);
+    }
+
+    @Test
+    public void shouldNotHoldAThreadPerDelay() throws Exception {
+
+        // Arrange
+        int tasks = 1000;
+        CountDownLatch latch = new CountDownLatch(tasks);
+        int threadsBefore = Thread.activeCount();
+
+        // Act
+        for (int i = 0; i < tasks; i++) {
+            delayScheduler.schedule(latch::countDown, 100);
+        }
+
+        // Assert
+        assertTrue(Thread.activeCount() - threadsBefore <= 1);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldRecordSkewOfScheduledDelays() throws Exception {
+
+        // Arrange
+        int tasks = 20;
+        CountDownLatch latch = new CountDownLatch(tasks);
+
+        // Act
+        for (int i = 0; i < tasks; i++) {
+            delayScheduler.schedule(latch::countDown, 2);
+        }
+
+        // Assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        DelaySkew skew = delayScheduler.getSkew();
+        assertEquals(tasks, skew.getCount());
+        assertTrue(skew.getMeanNanos() >= 0);
+        assertTrue(skew.getMaxNanos() >= skew.getMeanNanos());
+    }
+}
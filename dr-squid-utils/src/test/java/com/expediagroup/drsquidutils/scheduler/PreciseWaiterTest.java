@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreciseWaiterTest {
+
+    private final PreciseWaiter preciseWaiter = new PreciseWaiter();
+
+    @Test
+    public void shouldNeverWakeEarly() throws Exception {
+
+        // Arrange
+        long delayInNanos = TimeUnit.MICROSECONDS.toNanos(300);
+
+        for (int i = 0; i < 100; i++) {
+
+            // Act
+            long start = System.nanoTime();
+            preciseWaiter.waitFor(delayInNanos);
+            long waited = System.nanoTime() - start;
+
+            // Assert
+            assertTrue(waited >= delayInNanos);
+        }
+    }
+
+    @Test
+    public void shouldWaitWellWithinAMillisecond() throws Exception {
+
+        // Arrange
+        long delayInNanos = TimeUnit.MICROSECONDS.toNanos(300);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            preciseWaiter.waitFor(delayInNanos);
+        }
+
+        // Assert
+        DelaySkew skew = preciseWaiter.getSkew();
+        assertEquals(200, skew.getCount());
+        assertTrue(skew.getMeanNanos() >= 0);
+        assertTrue(skew.getMeanNanos() < TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void shouldParkDelaysOfMillisecondsWithoutSpinning() throws Exception {
+
+        // Arrange
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long delayInNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        long cpuStart = threads.getCurrentThreadCpuTime();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            preciseWaiter.waitFor(delayInNanos);
+        }
+
+        // Assert
+        long cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+        assertTrue("Used " + cpuNanos + " ns of CPU", cpuNanos < TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(preciseWaiter.getSkew().getMeanNanos() >= 0);
+    }
+
+    @Test
+    public void shouldNotRecordZeroDelay() throws Exception {
+
+        // Arrange
+
+        // Act
+        preciseWaiter.waitFor(0);
+
+        // Assert
+        assertEquals(0, preciseWaiter.getSkew().getCount());
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void shouldThrowWhenInterrupted() throws Exception {
+
+        // Arrange
+        Thread.currentThread().interrupt();
+
+        // Act
+        preciseWaiter.waitFor(TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void shouldSummarizeSkew() {
+
+        // Arrange
+        DelaySkew skew = new DelaySkew();
+
+        // Act
+        skew.record(1000, 3000);
+        skew.record(1000, 7000);
+
+        // Assert
+        assertEquals(2, skew.getCount());
+        assertEquals(4000, skew.getMeanNanos());
+        assertEquals(6000, skew.getMaxNanos());
+        assertEquals("2 delays, mean skew 4.0 us, max skew 6.0 us", skew.toString());
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.scheduler;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    // Short ticks, so that delays of a few hundred milliseconds cascade down from level 2.
+    private static final long TICK_IN_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final TimingWheel timingWheel = new TimingWheel(TICK_IN_NANOS, "timing-wheel-test");
+
+    @After
+    public void tearDown() {
+        timingWheel.stop();
+    }
+
+    @Test
+    public void shouldNeverRunEarlyAcrossLevels() throws Exception {
+
+        // Arrange
+        int tasks = 2000;
+        CountDownLatch latch = new CountDownLatch(tasks);
+        AtomicInteger early = new AtomicInteger();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < tasks; i++) {
+            long delay = (long) Math.exp(random.nextDouble() * Math.log(TimeUnit.MILLISECONDS.toNanos(800)));
+            long deadline = System.nanoTime() + delay;
+            timingWheel.schedule(() -> {
+                if (System.nanoTime() < deadline) {
+                    early.incrementAndGet();
+                }
+                latch.countDown();
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+
+        // Assert
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+    }
+
+    @Test
+    public void shouldNotRunCancelledTask() throws Exception {
+
+        // Arrange
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch latch = new CountDownLatch(1);
+        TimingWheel.Task cancelled = timingWheel.schedule(() -> ran.set(true), 20, TimeUnit.MILLISECONDS);
+
+        // Act
+        boolean wasCancelled = cancelled.cancel();
+        timingWheel.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(wasCancelled);
+        assertTrue(cancelled.isCancelled());
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void shouldNotCancelTaskWhichRan() throws Exception {
+
+        // Arrange
+        CountDownLatch latch = new CountDownLatch(1);
+        TimingWheel.Task task = timingWheel.schedule(latch::countDown, 0, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        // Act
+        boolean wasCancelled = task.cancel();
+
+        // Assert
+        assertFalse(wasCancelled);
+        assertTrue(task.isDone());
+        assertFalse(task.isCancelled());
+    }
+
+    @Test
+    public void shouldKeepRunningAfterTaskFails() throws Exception {
+
+        // Arrange
+        CountDownLatch latch = new CountDownLatch(1);
+        timingWheel.schedule(() -> {
+            throw new IllegalStateException("Failing task");
+        }, 1, TimeUnit.MILLISECONDS);
+
+        // Act
+        timingWheel.schedule(latch::countDown, 5, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldWakeUpWhenIdle() throws Exception {
+
+        // Arrange
+        CountDownLatch first = new CountDownLatch(1);
+        timingWheel.schedule(first::countDown, 1, TimeUnit.MILLISECONDS);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        CountDownLatch second = new CountDownLatch(1);
+
+        // Act
+        timingWheel.schedule(second::countDown, 1, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldWakeUpForTaskDueBeforeParkedUntil() throws Exception {
+
+        // Arrange
+        timingWheel.schedule(() -> { }, 10, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // Act
+        timingWheel.schedule(latch::countDown, 1, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTickNotPositive() {
+
+        // Arrange
+
+        // Act
+        new TimingWheel(0, "timing-wheel-test-invalid");
+
+        // Assert
+    }
+}
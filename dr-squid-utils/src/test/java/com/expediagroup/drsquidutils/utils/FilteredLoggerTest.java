@@ -15,6 +15,7 @@
  */
 package com.expediagroup.drsquidutils.utils;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.Appender;
@@ -24,6 +25,8 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.slf4j.LoggerFactory;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
@@ -270,4 +273,21 @@ public class FilteredLoggerTest {
         verifyErrorSucceeds();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testIsEnabled() {
+
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.DEBUG);
+        FilteredLogger.setLoggingLevel(LoggingLevel.WARN);
+        FilteredLogger.setForceLogging(false);
+
+        assertFalse(filteredLogger.isEnabled(LoggingLevel.DEBUG));
+        assertFalse(filteredLogger.isEnabled(LoggingLevel.INFO));
+        assertTrue(filteredLogger.isEnabled(LoggingLevel.WARN));
+        assertTrue(filteredLogger.isEnabled(LoggingLevel.ERROR));
+
+        FilteredLogger.setForceLogging(true);
+
+        assertTrue(filteredLogger.isEnabled(LoggingLevel.DEBUG));
+        assertTrue(filteredLogger.isEnabled(LoggingLevel.INFO));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.drsquidutils.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PercentageUtilsTest {
+
+    @Test
+    public void shouldConvertWholePercentage() {
+
+        // Arrange
+
+        // Act
+        int partsPerMillion = PercentageUtils.toPartsPerMillion(70);
+
+        // Assert
+        assertEquals(700000, partsPerMillion);
+    }
+
+    @Test
+    public void shouldConvertFractionalPercentages() {
+
+        // Arrange
+
+        // Act
+        int fivePointsOfAPercent = PercentageUtils.toPartsPerMillion(0.05);
+        int oneInAMillion = PercentageUtils.toPartsPerMillion(0.0001);
+
+        // Assert
+        assertEquals(500, fivePointsOfAPercent);
+        assertEquals(1, oneInAMillion);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooFinePercentage() {
+        PercentageUtils.toPartsPerMillion(0.00005);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativePercentage() {
+        PercentageUtils.toPartsPerMillion(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPercentageAbove100() {
+        PercentageUtils.toPartsPerMillion(100.5);
+    }
+
+    @Test
+    public void shouldConvertBackToPercentage() {
+
+        // Arrange
+
+        // Act
+        double percentage = PercentageUtils.toPercentage(500);
+
+        // Assert
+        assertEquals(0.05, percentage, 1e-12);
+    }
+}
@@ -21,6 +21,7 @@ import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.doReturn;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -54,4 +55,67 @@ public class RandomNumberGeneratorTest {
         // Assert
         assertEquals(34, randomNumber);
     }
+
+    private long[] draw(RandomNumberGenerator generator, String threadName) throws InterruptedException {
+
+        long[] draws = new long[3];
+        Thread thread = new Thread(() -> {
+            draws[0] = generator.nextInt(1000);
+            draws[1] = generator.nextLong();
+            draws[2] = Double.doubleToLongBits(generator.nextGaussian());
+        }, threadName);
+        thread.start();
+        thread.join();
+        return draws;
+    }
+
+    @Test
+    public void shouldRepeatSequenceForSameSeedAndThread() throws Exception {
+
+        // Arrange
+        RandomNumberGenerator first = new RandomNumberGenerator(42);
+        RandomNumberGenerator second = new RandomNumberGenerator(42);
+
+        // Act
+        long[] firstDraws = draw(first, "worker-1");
+        long[] secondDraws = draw(second, "worker-1");
+
+        // Assert
+        assertEquals(firstDraws[0], secondDraws[0]);
+        assertEquals(firstDraws[1], secondDraws[1]);
+        assertEquals(firstDraws[2], secondDraws[2]);
+    }
+
+    @Test
+    public void shouldGiveEachThreadItsOwnSequence() throws Exception {
+
+        // Arrange
+        RandomNumberGenerator generator = new RandomNumberGenerator(42);
+
+        // Act
+        long[] firstDraws = draw(generator, "worker-1");
+        long[] secondDraws = draw(generator, "worker-2");
+
+        // Assert
+        assertNotEquals(firstDraws[1], secondDraws[1]);
+    }
+
+    @Test
+    public void shouldStayWithinBound() {
+
+        // Arrange
+        RandomNumberGenerator generator = new RandomNumberGenerator();
+        int outOfBounds = 0;
+
+        // Act
+        for (int i = 0; i < 10000; i++) {
+            int randomNumber = generator.nextInt(100);
+            if (randomNumber < 0 || randomNumber >= 100) {
+                outOfBounds++;
+            }
+        }
+
+        // Assert
+        assertEquals(0, outOfBounds);
+    }
 }